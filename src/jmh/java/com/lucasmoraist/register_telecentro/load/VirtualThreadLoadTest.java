@@ -0,0 +1,112 @@
+package com.lucasmoraist.register_telecentro.load;
+
+import com.lucasmoraist.register_telecentro.RegisterTelecentroApplication;
+import com.lucasmoraist.register_telecentro.infra.google.local.LocalSheetsFixtures;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load test comparing request handling on Tomcat's platform thread pool with virtual threads.
+ * <p>
+ * The application is started twice on the {@code local} Sheets stand-in with a fixed latency per Sheets call,
+ * then {@code GET /person/{rg}} is fired with a concurrency well above
+ * {@code server.tomcat.threads.max}. With platform threads throughput is capped at roughly
+ * {@code threads.max / latency}; with virtual threads it keeps scaling with the concurrency.
+ * <p>
+ * Arguments (all optional): {@code concurrency} (default 1000), {@code sheetsLatencyMs} (default 200),
+ * {@code tomcatMaxThreads} (default 200).
+ */
+public final class VirtualThreadLoadTest {
+
+    private static final int SEED_REGISTRATIONS = 1000;
+    private static final String RG = LocalSheetsFixtures.registrationRows(SEED_REGISTRATIONS).get(1).get(3).toString();
+
+    private VirtualThreadLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long sheetsLatencyMs = args.length > 1 ? Long.parseLong(args[1]) : 200;
+        int tomcatMaxThreads = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+        List<String> report = new ArrayList<>();
+        for (boolean virtual : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = start(virtual, sheetsLatencyMs, tomcatMaxThreads)) {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                run(port, Math.min(concurrency, 50));
+                Result result = run(port, concurrency);
+                report.add("%-8s concurrency=%d sheetsLatency=%dms tomcatMaxThreads=%d -> %s".formatted(
+                        virtual ? "virtual" : "platform", concurrency, sheetsLatencyMs, tomcatMaxThreads, result));
+            }
+        }
+        report.forEach(System.out::println);
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtual, long sheetsLatencyMs, int tomcatMaxThreads) {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        return new SpringApplicationBuilder(RegisterTelecentroApplication.class).run(
+                "--spring.profiles.active=local",
+                "--telecentro.local-sheets.seed-registrations=" + SEED_REGISTRATIONS,
+                "--telecentro.local-sheets.latency-ms=" + sheetsLatencyMs,
+                "--server.port=0",
+                "--server.tomcat.threads.max=" + tomcatMaxThreads,
+                "--spring.threads.virtual.enabled=" + virtual,
+                "--logging.level.root=WARN");
+    }
+
+    private static Result run(int port, int concurrency) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/person/" + RG))
+                .timeout(Duration.ofMinutes(2))
+                .build();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient client = HttpClient.newBuilder().executor(clients).version(HttpClient.Version.HTTP_1_1).build()) {
+            long start = System.nanoTime();
+            List<Future<Long>> latencies = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                latencies.add(clients.submit(() -> {
+                    long sent = System.nanoTime();
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("Unexpected status " + response.statusCode());
+                    }
+                    return System.nanoTime() - sent;
+                }));
+            }
+
+            long[] nanos = new long[concurrency];
+            for (int i = 0; i < concurrency; i++) {
+                nanos[i] = latencies.get(i).get();
+            }
+            return new Result(concurrency, System.nanoTime() - start, nanos);
+        }
+    }
+
+    private record Result(int requests, long elapsedNanos, long[] latencyNanos) {
+
+        @Override
+        public String toString() {
+            long[] sorted = this.latencyNanos.clone();
+            Arrays.sort(sorted);
+            double seconds = this.elapsedNanos / 1e9;
+            return "%.0f req/s, wall %.2fs, p50 %dms, p99 %dms".formatted(
+                    this.requests / seconds,
+                    seconds,
+                    sorted[sorted.length / 2] / 1_000_000,
+                    sorted[Math.max(0, (int) Math.ceil(sorted.length * 0.99) - 1)] / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.lucasmoraist.register_telecentro.repository.impl;
+
+import com.google.api.services.sheets.v4.Sheets;
+import com.google.api.services.sheets.v4.model.ValueRange;
+import com.lucasmoraist.register_telecentro.infra.concurrent.BackgroundThreads;
+import com.lucasmoraist.register_telecentro.infra.google.local.InMemorySpreadsheet;
+import com.lucasmoraist.register_telecentro.infra.google.local.LocalSheetsFixtures;
+import com.lucasmoraist.register_telecentro.infra.google.local.LocalSheetsTransport;
+import com.lucasmoraist.register_telecentro.infra.google.metrics.SheetsMetrics;
+import com.lucasmoraist.register_telecentro.model.Course;
+import com.lucasmoraist.register_telecentro.model.Person;
+import com.lucasmoraist.register_telecentro.model.dto.RegistrationFilter;
+import com.lucasmoraist.register_telecentro.repository.shard.RegistrationShards;
+import com.lucasmoraist.register_telecentro.repository.snapshot.RegistrationSnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the repository-layer row handling at 1k, 10k and 100k rows, against {@link ValueRange} fixtures built
+ * from {@link LocalSheetsFixtures}:
+ * <ul>
+ *     <li>{@code mapRows}: the row to {@code Person} mapping of PersonImpl, including date and age parsing;</li>
+ *     <li>{@code scanRgAndCourseDate}: the RG + Course Date scan of {@code isRgAndCourseDateAlreadyRegistered}
+ *     for a key that is not registered, i.e. the full scan every new registration pays;</li>
+ *     <li>{@code scanRgAndCourseDateOverTransport}: the same check through the real Sheets client on the local
+ *     stand-in, so JSON parsing of the downloaded columns is included;</li>
+ *     <li>{@code joinCourses}: the date/time join of {@code CourseImpl.toCourses}.</li>
+ *     <li>{@code filterPersons} and {@code filterSnapshot}: counting the registrations of a session within an age
+ *     range, over mapped {@code Person} objects and over a {@link RegistrationSnapshot}.</li>
+ * </ul>
+ * Run with {@code ./mvnw -Pbenchmarks test-compile exec:exec -Djmh.args="SheetRowsBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SheetRowsBenchmark {
+
+    private static final String MISSING_RG = "00000000";
+    private static final String MISSING_COURSE_DATE = "Domingo 09:00 - 11:00";
+    private static final RegistrationFilter SESSION_AND_AGE =
+            new RegistrationFilter(null, "segunda-feira 09:00 - 11:00", null, null, 30, 50);
+
+    @Param({"1000", "10000", "100000"})
+    private int rows;
+
+    private ValueRange registrations;
+    private List<Object> rgColumn;
+    private List<Object> courseDateColumn;
+    private ValueRange courses;
+    private CourseImpl courseImpl;
+    private PersonImpl personImpl;
+    private List<Person> persons;
+    private RegistrationSnapshot snapshot;
+
+    @Setup
+    public void setUp() {
+        List<List<Object>> registrationRows = LocalSheetsFixtures.registrationRows(this.rows);
+        List<List<Object>> data = registrationRows.subList(1, registrationRows.size());
+
+        this.registrations = new ValueRange().setValues(data);
+        this.rgColumn = column(data, 3);
+        this.courseDateColumn = column(data, 1);
+        this.courses = new ValueRange().setValues(courseRows(this.rows));
+        SheetsMetrics sheetsMetrics = new SheetsMetrics(new SimpleMeterRegistry());
+        this.courseImpl = new CourseImpl(null, sheetsMetrics, new SessionDictionary());
+
+        InMemorySpreadsheet spreadsheet = new InMemorySpreadsheet();
+        spreadsheet.addSheet(LocalSheetsFixtures.REGISTRATIONS_SHEET, registrationRows);
+        Sheets sheets = new Sheets.Builder(new LocalSheetsTransport(spreadsheet, 0, 0.0, 0),
+                sheetsMetrics.jsonFactory(), null)
+                .setApplicationName("Register Telecentro")
+                .build();
+        this.personImpl = new PersonImpl(sheets, sheetsMetrics, new RegistrationShards("benchmark",
+                LocalSheetsFixtures.REGISTRATIONS_SHEET, "term", "", new BackgroundThreads(false)));
+
+        this.persons = data.stream().map(PersonImpl::toPerson).toList();
+        RegistrationSnapshot.Builder builder = RegistrationSnapshot.builder(data.size());
+        for (int i = 0; i < data.size(); i++) {
+            builder.add(i + 2, data.get(i));
+        }
+        this.snapshot = builder.build();
+    }
+
+    @Benchmark
+    public void mapRows(Blackhole blackhole) {
+        for (List<Object> row : this.registrations.getValues()) {
+            blackhole.consume(PersonImpl.toPerson(row));
+        }
+    }
+
+    @Benchmark
+    public boolean scanRgAndCourseDate() {
+        return PersonImpl.containsRegistration(this.rgColumn, this.courseDateColumn,
+                MISSING_RG, MISSING_COURSE_DATE);
+    }
+
+    @Benchmark
+    public boolean scanRgAndCourseDateOverTransport() throws IOException {
+        return this.personImpl.isRgAndCourseDateAlreadyRegistered(MISSING_RG, MISSING_COURSE_DATE);
+    }
+
+    @Benchmark
+    public List<Course> joinCourses() {
+        return this.courseImpl.toCourses(this.courses.getValues());
+    }
+
+    @Benchmark
+    public int filterPersons() {
+        String courseDate = RgIndex.normalize(SESSION_AND_AGE.courseDate());
+        int count = 0;
+        for (Person person : this.persons) {
+            if (RgIndex.normalize(person.getCourse().getDateAndTime()).equals(courseDate)
+                    && person.getAge() >= SESSION_AND_AGE.minAge() && person.getAge() <= SESSION_AND_AGE.maxAge()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int filterSnapshot() {
+        return this.snapshot.query(SESSION_AND_AGE).count();
+    }
+
+    private static List<Object> column(List<List<Object>> rows, int index) {
+        List<Object> column = new ArrayList<>(rows.size());
+        for (List<Object> row : rows) {
+            column.add(row.get(index));
+        }
+        return column;
+    }
+
+    private static List<List<Object>> courseRows(int count) {
+        Random random = new Random(42);
+        List<List<Object>> rows = new ArrayList<>(count + 1);
+        rows.add(List.of("Curso"));
+        for (int i = 0; i < count; i++) {
+            List<Object> row = new ArrayList<>();
+            row.add("Curso " + i);
+            int sessions = 1 + random.nextInt(6);
+            for (int j = 0; j < sessions; j++) {
+                row.add("Turma " + j + " " + (8 + random.nextInt(10)) + ":00 - " + (10 + random.nextInt(10)) + ":00");
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
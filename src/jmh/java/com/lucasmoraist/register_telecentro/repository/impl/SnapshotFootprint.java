@@ -0,0 +1,87 @@
+package com.lucasmoraist.register_telecentro.repository.impl;
+
+import com.lucasmoraist.register_telecentro.infra.google.local.LocalSheetsFixtures;
+import com.lucasmoraist.register_telecentro.model.Person;
+import com.lucasmoraist.register_telecentro.repository.snapshot.RegistrationSnapshot;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures the heap retained by the registrations sheet held in memory in three shapes:
+ * <ul>
+ *     <li>{@code rows}: the {@code List<List<Object>>} the Sheets client returns;</li>
+ *     <li>{@code persons}: one {@link Person} per row, mapped by {@link PersonImpl#toPerson};</li>
+ *     <li>{@code snapshot}: the columnar {@link RegistrationSnapshot}.</li>
+ * </ul>
+ * Every shape is built from its own copy of the rows, which is dropped before measuring, and the retained size is
+ * the used heap after a full GC minus the used heap before building it. Run with a single-threaded collector so
+ * that {@code System.gc()} is a full, synchronous collection:
+ * {@code ./mvnw -Pbenchmarks test-compile exec:exec -Dbenchmark.main="-XX:+UseSerialGC com.lucasmoraist.register_telecentro.repository.impl.SnapshotFootprint" -Djmh.args=100000}.
+ * <p>
+ * Arguments (all optional): {@code rows} (default 100000).
+ */
+public final class SnapshotFootprint {
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    private SnapshotFootprint() {
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+
+        long rows = retained(count, data -> data);
+        long persons = retained(count, data -> {
+            List<Person> mapped = new ArrayList<>(data.size());
+            for (List<Object> row : data) {
+                mapped.add(PersonImpl.toPerson(row));
+            }
+            return mapped;
+        });
+        long snapshot = retained(count, data -> {
+            RegistrationSnapshot.Builder builder = RegistrationSnapshot.builder(data.size());
+            for (int i = 0; i < data.size(); i++) {
+                builder.add(i + 2, data.get(i));
+            }
+            return builder.build();
+        });
+
+        System.out.printf("%-9s %14s %10s%n", "shape", "retained", "per row");
+        print("rows", rows, count);
+        print("persons", persons, count);
+        print("snapshot", snapshot, count);
+    }
+
+    private static long retained(int count, Shape shape) {
+        long before = usedAfterGc();
+        Object held = shape.build(generate(count));
+        long after = usedAfterGc();
+        Reference.reachabilityFence(held);
+        return after - before;
+    }
+
+    private static List<List<Object>> generate(int count) {
+        List<List<Object>> rows = LocalSheetsFixtures.registrationRows(count);
+        return new ArrayList<>(rows.subList(1, rows.size()));
+    }
+
+    private static long usedAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    private static void print(String shape, long bytes, int count) {
+        System.out.printf("%-9s %,14d %,10d%n", shape, bytes, bytes / count);
+    }
+
+    @FunctionalInterface
+    private interface Shape {
+        Object build(List<List<Object>> rows);
+    }
+}
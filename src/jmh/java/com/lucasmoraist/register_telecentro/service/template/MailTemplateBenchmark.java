@@ -0,0 +1,79 @@
+package com.lucasmoraist.register_telecentro.service.template;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the pre-parsed {@link MailTemplates} rendering with the former per-call
+ * {@code String.formatted} + {@code DateTimeFormatter.ofPattern} approach of EmailService.
+ * Run with {@code -prof gc} to compare allocation rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MailTemplateBenchmark {
+
+    private static final DateTimeFormatter SENT_AT_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private MailTemplates templates;
+    private String courseName;
+    private String dateAndTime;
+    private LocalDateTime now;
+
+    @Setup
+    public void setUp() {
+        this.templates = new MailTemplates();
+        this.courseName = "Informática Básica";
+        this.dateAndTime = "Segunda-feira 09:00 - 11:00";
+        this.now = LocalDateTime.of(2024, 8, 20, 10, 30);
+    }
+
+    @Benchmark
+    public void formatted(Blackhole blackhole) {
+        blackhole.consume("Inscrição no curso de %s feita com sucesso!".formatted(this.courseName));
+        blackhole.consume("""
+                <html>
+                <body>
+                    <h2>Curso de <strong>%s</strong></h2>
+                    <p>Data e hora: <strong>%s</strong></p>
+
+                    <p>Abraços,</p>
+                    <p>Agente de Inclusão Digital<br>(011) 5667-6272</p>
+
+                    <i>Data de envio: %s</i>
+                </body>
+                </html>
+                """.formatted(
+                this.courseName,
+                this.dateAndTime,
+                this.now.format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"))
+        ));
+    }
+
+    @Benchmark
+    public RenderedMail template() {
+        return this.templates.render(MailTemplateType.CONFIRMATION, Map.of(
+                "name", "Maria",
+                "courseName", this.courseName,
+                "dateAndTime", this.dateAndTime,
+                "sentAt", SENT_AT_FORMAT.format(this.now)
+        ));
+    }
+}
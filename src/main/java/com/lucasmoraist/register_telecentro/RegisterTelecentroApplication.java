@@ -1,13 +1,19 @@
 package com.lucasmoraist.register_telecentro;
 
+import com.lucasmoraist.register_telecentro.infra.google.SheetsRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(SheetsRuntimeHints.class)
 public class RegisterTelecentroApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(RegisterTelecentroApplication.class, args);
+		SpringApplication application = new SpringApplication(RegisterTelecentroApplication.class);
+		application.setApplicationStartup(new BufferingApplicationStartup(2048));
+		application.run(args);
 	}
 
 }
@@ -1,10 +1,15 @@
 package com.lucasmoraist.register_telecentro.controller;
 
+import com.lucasmoraist.register_telecentro.infra.access.CoordinatorOnly;
 import com.lucasmoraist.register_telecentro.model.Course;
+import com.lucasmoraist.register_telecentro.model.dto.UpdateCourse;
 import com.lucasmoraist.register_telecentro.service.CourseService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -25,4 +30,19 @@ public class CourseController {
         return this.service.findAll();
     }
 
+    /**
+     * This method is responsible for replacing the morning and afternoon sessions of a course. Restricted to
+     * coordinators.
+     * @param updateCourse the course name and its new sessions
+     * @return a response to the client
+     * @throws IOException if an error occurs while updating the course
+     */
+    @PutMapping
+    @CoordinatorOnly
+    public ResponseEntity<Void> update(@RequestBody UpdateCourse updateCourse) throws IOException {
+        log.info("Received request to update course: {}", updateCourse.courseName());
+        this.service.update(updateCourse);
+        return ResponseEntity.ok().build();
+    }
+
 }
@@ -1,13 +1,26 @@
 package com.lucasmoraist.register_telecentro.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lucasmoraist.register_telecentro.infra.access.CoordinatorOnly;
+import com.lucasmoraist.register_telecentro.infra.idempotency.IdempotentRequests;
 import com.lucasmoraist.register_telecentro.model.Person;
+import com.lucasmoraist.register_telecentro.model.dto.BulkRowResult;
+import com.lucasmoraist.register_telecentro.model.dto.RegistrationFilter;
+import com.lucasmoraist.register_telecentro.repository.snapshot.RegistrationPage;
 import com.lucasmoraist.register_telecentro.service.PersonService;
+import com.lucasmoraist.register_telecentro.service.bulk.BulkRegistrationService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,18 +40,83 @@ public class PersonController {
     @Autowired
     private PersonService service;
 
+    @Autowired
+    private BulkRegistrationService bulkService;
+
+    @Autowired
+    private IdempotentRequests idempotentRequests;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
-     * This method is responsible for receiving a request from the client to save a person in the system
+     * This method is responsible for receiving a request from the client to save a person in the system.
+     * With an Idempotency-Key header, a retry of a request that already succeeded is answered without saving again.
      * @param person the person to be saved
+     * @param idempotencyKey the optional Idempotency-Key header
      * @return a response to the client
      * @throws IOException if an error occurs while saving the person
      */
     @PostMapping
-    public ResponseEntity<Void> save(@RequestBody Person person) throws IOException {
+    public ResponseEntity<Void> save(@RequestBody Person person,
+                                     @RequestHeader(value = IdempotentRequests.HEADER, required = false) String idempotencyKey) throws IOException {
         log.info("Received request to save person: {}", person.getName());
-        this.service.save(person);
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            this.service.save(person);
+            log.info("Person saved successfully: {}", person.getName());
+            return ResponseEntity.ok().build();
+        }
+
+        boolean replayed = this.idempotentRequests.execute(idempotencyKey, person, () -> this.service.save(person));
         log.info("Person saved successfully: {}", person.getName());
-        return ResponseEntity.ok().build();
+        return ResponseEntity.ok().header(IdempotentRequests.REPLAYED_HEADER, String.valueOf(replayed)).build();
+    }
+
+    /**
+     * This method is responsible for receiving many registrations at once, as a CSV file or a JSON array.
+     * The body is streamed, so large files are never fully loaded in memory. Restricted to coordinators.
+     *
+     * @param body the CSV or JSON body
+     * @param contentType the content type of the body
+     * @return the outcome of every row
+     * @throws IOException if an error occurs while reading the body
+     */
+    @CoordinatorOnly
+    @PostMapping(value = "bulk", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<List<BulkRowResult>> saveBulk(InputStream body,
+                                                        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType) throws IOException {
+        log.info("Received bulk registration request with content type: {}", contentType);
+        List<BulkRowResult> results = MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                ? this.bulkService.importJson(body)
+                : this.bulkService.importCsv(body);
+        log.info("Bulk registration processed {} rows", results.size());
+        return ResponseEntity.ok().body(results);
+    }
+
+    /**
+     * This method is responsible for listing the registrations, optionally filtered by course, session and
+     * confirmation, one page at a time. The page is written to the response as it is serialized, building every
+     * person only when it is written. Restricted to coordinators, as it returns the personal data of every registrant.
+     *
+     * @param course the course name
+     * @param session the course date and time of the session
+     * @param confirmed the value of the confirmation column
+     * @param cursor the nextCursor returned with the previous page, absent for the first page
+     * @param size the maximum number of registrations in the page
+     * @return the registrations of the page and the cursor of the next one
+     * @throws IOException if an error occurs while reading the registrations
+     */
+    @CoordinatorOnly
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> list(@RequestParam(required = false) String course,
+                                                      @RequestParam(required = false) String session,
+                                                      @RequestParam(required = false) String confirmed,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "100") int size) throws IOException {
+        log.info("Received request to list registrations of course: {}, session: {}", course, session);
+        RegistrationPage page = this.service.listRegistrations(
+                new RegistrationFilter(course, session, null, confirmed, null, null), cursor, size);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(out -> this.writePage(page, out));
     }
 
     /**
@@ -56,4 +134,18 @@ public class PersonController {
         return ResponseEntity.ok().body(person);
     }
 
+    private void writePage(RegistrationPage page, OutputStream out) throws IOException {
+        try (JsonGenerator generator = this.objectMapper.getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("items");
+            for (int i = 0; i < page.size(); i++) {
+                generator.writeObject(page.person(i));
+            }
+            generator.writeEndArray();
+            generator.writeStringField("nextCursor", page.nextCursor());
+            generator.writeEndObject();
+            generator.flush();
+        }
+    }
+
 }
@@ -0,0 +1,41 @@
+package com.lucasmoraist.register_telecentro.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Thrown by an append spanning several shards when it fails on some of them after succeeding on others. It carries
+ * the rows written, so the caller keeps those registrations and only retries or fails the others.
+ */
+public class AppendPartiallyFailed extends IOException {
+
+    private final int[] rows;
+    private final Exception failure;
+
+    /**
+     * @param rows    the row of every registration, in the order they were passed, or 0 if it was not written
+     * @param failure the error of the first shard that failed
+     */
+    public AppendPartiallyFailed(int[] rows, Exception failure) {
+        super("Only part of the registrations were appended: " + failure.getMessage(), failure);
+        this.rows = rows;
+        this.failure = failure;
+    }
+
+    public int[] rows() {
+        return this.rows;
+    }
+
+    /**
+     * Tells whether a registration was written.
+     *
+     * @param index the position of the registration in the appended list
+     * @return true if it is in the sheet
+     */
+    public boolean isWritten(int index) {
+        return this.rows[index] != 0;
+    }
+
+    public Exception failure() {
+        return this.failure;
+    }
+}
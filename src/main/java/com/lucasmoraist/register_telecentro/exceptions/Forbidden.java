@@ -0,0 +1,7 @@
+package com.lucasmoraist.register_telecentro.exceptions;
+
+public class Forbidden extends RuntimeException {
+    public Forbidden() {
+        super("The coordinator token sent is not valid");
+    }
+}
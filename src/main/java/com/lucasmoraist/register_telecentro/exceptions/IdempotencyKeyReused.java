@@ -0,0 +1,7 @@
+package com.lucasmoraist.register_telecentro.exceptions;
+
+public class IdempotencyKeyReused extends RuntimeException {
+    public IdempotencyKeyReused() {
+        super("This Idempotency-Key was already used with a different request");
+    }
+}
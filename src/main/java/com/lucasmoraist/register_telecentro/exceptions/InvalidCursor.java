@@ -0,0 +1,7 @@
+package com.lucasmoraist.register_telecentro.exceptions;
+
+public class InvalidCursor extends RuntimeException {
+    public InvalidCursor() {
+        super("Invalid cursor, use the nextCursor returned with the previous page");
+    }
+}
@@ -0,0 +1,7 @@
+package com.lucasmoraist.register_telecentro.exceptions;
+
+public class InvalidPageSize extends RuntimeException {
+    public InvalidPageSize() {
+        super("Invalid page size, it must be at least 1");
+    }
+}
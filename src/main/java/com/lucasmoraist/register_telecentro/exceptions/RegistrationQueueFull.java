@@ -0,0 +1,7 @@
+package com.lucasmoraist.register_telecentro.exceptions;
+
+public class RegistrationQueueFull extends RuntimeException {
+    public RegistrationQueueFull() {
+        super("Too many registrations are waiting to be saved. Please try again in a few seconds.");
+    }
+}
@@ -0,0 +1,7 @@
+package com.lucasmoraist.register_telecentro.exceptions;
+
+public class SessionFull extends RuntimeException {
+    public SessionFull() {
+        super("There are no seats left in this course date");
+    }
+}
@@ -0,0 +1,13 @@
+package com.lucasmoraist.register_telecentro.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a Sheets request cannot get a rate limit token in time. It is an IOException so that the callers
+ * that already handle a failed Sheets call, such as the bulk import and the write-behind flusher, handle it too.
+ */
+public class SheetsQuotaExceeded extends IOException {
+    public SheetsQuotaExceeded() {
+        super("The spreadsheet is receiving too many requests. Please try again in a few seconds.");
+    }
+}
@@ -0,0 +1,7 @@
+package com.lucasmoraist.register_telecentro.exceptions;
+
+public class Unauthorized extends RuntimeException {
+    public Unauthorized() {
+        super("This endpoint is restricted to coordinators, send the coordinator token as a Bearer token");
+    }
+}
@@ -0,0 +1,62 @@
+package com.lucasmoraist.register_telecentro.infra.access;
+
+import com.lucasmoraist.register_telecentro.exceptions.Forbidden;
+import com.lucasmoraist.register_telecentro.exceptions.Unauthorized;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Lets a request reach a {@link CoordinatorOnly} endpoint only with the {@code telecentro.coordinator.token} in an
+ * {@code Authorization: Bearer} header. A request without a Bearer token is refused as unauthorized (401), one with
+ * another token as forbidden (403). Without a configured token these endpoints are closed to everyone, so a
+ * deployment that forgets it does not expose every registrant.
+ *
+ * @author lucasmoraist
+ */
+@Slf4j
+@Component
+public class CoordinatorAccess implements HandlerInterceptor {
+
+    private static final String BEARER = "Bearer ";
+
+    private final byte[] token;
+
+    public CoordinatorAccess(@Value("${telecentro.coordinator.token:}") String token) {
+        this.token = token.isBlank() ? null : token.getBytes(StandardCharsets.UTF_8);
+        if (this.token == null) {
+            log.warn("No coordinator token configured, the coordinator endpoints will refuse every request");
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method) || !method.hasMethodAnnotation(CoordinatorOnly.class)) {
+            return true;
+        }
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.startsWith(BEARER)) {
+            throw new Unauthorized();
+        }
+        if (!this.isCoordinator(authorization)) {
+            throw new Forbidden();
+        }
+        return true;
+    }
+
+    private boolean isCoordinator(String authorization) {
+        if (this.token == null) {
+            return false;
+        }
+        byte[] presented = authorization.substring(BEARER.length()).trim().getBytes(StandardCharsets.UTF_8);
+        return MessageDigest.isEqual(presented, this.token);
+    }
+}
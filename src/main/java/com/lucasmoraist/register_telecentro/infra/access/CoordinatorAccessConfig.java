@@ -0,0 +1,19 @@
+package com.lucasmoraist.register_telecentro.infra.access;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class CoordinatorAccessConfig implements WebMvcConfigurer {
+
+    private final CoordinatorAccess coordinatorAccess;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this.coordinatorAccess);
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.lucasmoraist.register_telecentro.infra.access;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an endpoint that exposes or changes many registrations at once, such as the bulk import, the listing of
+ * the registrations or the update of the course sessions, so that only coordinators holding the coordinator token
+ * may call it.
+ *
+ * @see CoordinatorAccess
+ * @author lucasmoraist
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CoordinatorOnly {
+}
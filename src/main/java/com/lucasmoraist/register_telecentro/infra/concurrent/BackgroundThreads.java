@@ -0,0 +1,48 @@
+package com.lucasmoraist.register_telecentro.infra.concurrent;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the threads of the background workers (mail dispatcher, write-behind flusher, cache refresh).
+ * They follow {@code spring.threads.virtual.enabled}, the same switch that moves request handling to virtual
+ * threads, so the Sheets and SMTP I/O they do never occupies a platform thread when the mode is on.
+ *
+ * @author lucasmoraist
+ */
+@Component
+public class BackgroundThreads {
+
+    private final boolean virtual;
+
+    public BackgroundThreads(@Value("${spring.threads.virtual.enabled:false}") boolean virtual) {
+        this.virtual = virtual;
+    }
+
+    /**
+     * Starts a background thread.
+     *
+     * @param name the name of the thread
+     * @param task the task to be run
+     * @return the started thread
+     */
+    public Thread start(String name, Runnable task) {
+        return this.builder(name).start(task);
+    }
+
+    /**
+     * Returns a factory of background threads, for executors.
+     *
+     * @param name the name of the threads
+     * @return the thread factory
+     */
+    public ThreadFactory factory(String name) {
+        return this.builder(name).factory();
+    }
+
+    private Thread.Builder builder(String name) {
+        return this.virtual ? Thread.ofVirtual().name(name) : Thread.ofPlatform().name(name).daemon(true);
+    }
+}
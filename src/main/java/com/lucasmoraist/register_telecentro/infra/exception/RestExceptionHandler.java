@@ -1,8 +1,17 @@
 package com.lucasmoraist.register_telecentro.infra.exception;
 
+import com.google.api.client.http.HttpResponseException;
 import com.lucasmoraist.register_telecentro.exceptions.ExceptionDTO;
+import com.lucasmoraist.register_telecentro.exceptions.Forbidden;
+import com.lucasmoraist.register_telecentro.exceptions.IdempotencyKeyReused;
+import com.lucasmoraist.register_telecentro.exceptions.InvalidCursor;
+import com.lucasmoraist.register_telecentro.exceptions.InvalidPageSize;
+import com.lucasmoraist.register_telecentro.exceptions.RegistrationQueueFull;
 import com.lucasmoraist.register_telecentro.exceptions.ResourceNotFound;
 import com.lucasmoraist.register_telecentro.exceptions.RgRegistered;
+import com.lucasmoraist.register_telecentro.exceptions.SessionFull;
+import com.lucasmoraist.register_telecentro.exceptions.SheetsQuotaExceeded;
+import com.lucasmoraist.register_telecentro.exceptions.Unauthorized;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -83,6 +92,119 @@ public class RestExceptionHandler extends ResponseEntityExceptionHandler {
                 new ExceptionDTO(ex.getMessage(), HttpStatus.BAD_REQUEST));
     }
 
+    /**
+     * Handles SessionFull exceptions.
+     * @param ex the SessionFull exception
+     * @return a ResponseEntity containing the exception details
+     */
+    @ExceptionHandler(SessionFull.class)
+    protected ResponseEntity<ExceptionDTO> handleSessionFull(SessionFull ex) {
+        log.error("Course session full: {}", ex.getMessage());
+        return ResponseEntity.badRequest().body(
+                new ExceptionDTO(ex.getMessage(), HttpStatus.BAD_REQUEST));
+    }
+
+    /**
+     * Handles InvalidCursor exceptions.
+     * @param ex the InvalidCursor exception
+     * @return a ResponseEntity containing the exception details
+     */
+    @ExceptionHandler(InvalidCursor.class)
+    protected ResponseEntity<ExceptionDTO> handleInvalidCursor(InvalidCursor ex) {
+        log.error("Invalid cursor: {}", ex.getMessage());
+        return ResponseEntity.badRequest().body(
+                new ExceptionDTO(ex.getMessage(), HttpStatus.BAD_REQUEST));
+    }
+
+    /**
+     * Handles InvalidPageSize exceptions.
+     * @param ex the InvalidPageSize exception
+     * @return a ResponseEntity containing the exception details
+     */
+    @ExceptionHandler(InvalidPageSize.class)
+    protected ResponseEntity<ExceptionDTO> handleInvalidPageSize(InvalidPageSize ex) {
+        log.error("Invalid page size: {}", ex.getMessage());
+        return ResponseEntity.badRequest().body(
+                new ExceptionDTO(ex.getMessage(), HttpStatus.BAD_REQUEST));
+    }
+
+    /**
+     * Handles Unauthorized exceptions.
+     * @param ex the Unauthorized exception
+     * @return a ResponseEntity containing the exception details
+     */
+    @ExceptionHandler(Unauthorized.class)
+    protected ResponseEntity<ExceptionDTO> handleUnauthorized(Unauthorized ex) {
+        log.error("Unauthorized: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
+                new ExceptionDTO(ex.getMessage(), HttpStatus.UNAUTHORIZED));
+    }
+
+    /**
+     * Handles Forbidden exceptions.
+     * @param ex the Forbidden exception
+     * @return a ResponseEntity containing the exception details
+     */
+    @ExceptionHandler(Forbidden.class)
+    protected ResponseEntity<ExceptionDTO> handleForbidden(Forbidden ex) {
+        log.error("Forbidden: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(
+                new ExceptionDTO(ex.getMessage(), HttpStatus.FORBIDDEN));
+    }
+
+    /**
+     * Handles IdempotencyKeyReused exceptions.
+     * @param ex the IdempotencyKeyReused exception
+     * @return a ResponseEntity containing the exception details
+     */
+    @ExceptionHandler(IdempotencyKeyReused.class)
+    protected ResponseEntity<ExceptionDTO> handleIdempotencyKeyReused(IdempotencyKeyReused ex) {
+        log.error("Idempotency key reused: {}", ex.getMessage());
+        return ResponseEntity.unprocessableEntity().body(
+                new ExceptionDTO(ex.getMessage(), HttpStatus.UNPROCESSABLE_ENTITY));
+    }
+
+    /**
+     * Handles RegistrationQueueFull exceptions.
+     * @param ex the RegistrationQueueFull exception
+     * @return a ResponseEntity containing the exception details
+     */
+    @ExceptionHandler(RegistrationQueueFull.class)
+    protected ResponseEntity<ExceptionDTO> handleRegistrationQueueFull(RegistrationQueueFull ex) {
+        log.error("Registration queue full: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(
+                new ExceptionDTO(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    /**
+     * Handles SheetsQuotaExceeded exceptions.
+     * @param ex the SheetsQuotaExceeded exception
+     * @return a ResponseEntity containing the exception details
+     */
+    @ExceptionHandler(SheetsQuotaExceeded.class)
+    protected ResponseEntity<ExceptionDTO> handleSheetsQuotaExceeded(SheetsQuotaExceeded ex) {
+        log.error("Sheets quota exceeded: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(
+                new ExceptionDTO(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    /**
+     * Handles HttpResponseException exceptions thrown by the Sheets client once its retries are exhausted.
+     * Quota and availability errors are reported as 503, so clients know the request can be retried.
+     * @param ex the HttpResponseException
+     * @return a ResponseEntity containing the exception details
+     */
+    @ExceptionHandler(HttpResponseException.class)
+    protected ResponseEntity<ExceptionDTO> handleHttpResponseException(HttpResponseException ex) {
+        log.error("Sheets request failed with status {}: {}", ex.getStatusCode(), ex.getStatusMessage());
+        if (ex.getStatusCode() == 429 || ex.getStatusCode() == 503) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(
+                    new ExceptionDTO("The spreadsheet is busy. Please try again in a few seconds.", HttpStatus.SERVICE_UNAVAILABLE));
+        }
+        return ResponseEntity.badRequest().body(
+                new ExceptionDTO(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR));
+    }
+
     /**
      * Handles generic exceptions.
      *
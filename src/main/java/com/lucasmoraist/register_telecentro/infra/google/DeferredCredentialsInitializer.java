@@ -0,0 +1,49 @@
+package com.lucasmoraist.register_telecentro.infra.google;
+
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.auth.http.HttpCredentialsAdapter;
+import com.google.auth.oauth2.GoogleCredentials;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Authenticates Sheets requests with credentials that are still being loaded. The Sheets client can then be built
+ * right away, while the Secret Manager call runs in parallel with the rest of the context initialization; only a
+ * request made before the credentials arrive waits for them, up to a timeout, so a hung Secret Manager call fails
+ * the request, and with it the startup warm-up, instead of blocking forever.
+ *
+ * @author lucasmoraist
+ */
+class DeferredCredentialsInitializer implements HttpRequestInitializer {
+
+    private final CompletableFuture<HttpCredentialsAdapter> adapter;
+    private final long timeoutMs;
+
+    DeferredCredentialsInitializer(CompletableFuture<GoogleCredentials> credentials, long timeoutMs) {
+        this.adapter = credentials.thenApply(HttpCredentialsAdapter::new);
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public void initialize(HttpRequest request) throws IOException {
+        HttpCredentialsAdapter credentialsAdapter;
+        try {
+            credentialsAdapter = this.adapter.get(this.timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw new IOException("Google Sheets credentials could not be loaded", e.getCause());
+        } catch (TimeoutException e) {
+            throw new IOException("Google Sheets credentials were not loaded from Secret Manager within "
+                    + this.timeoutMs + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the Google Sheets credentials");
+        }
+        credentialsAdapter.initialize(request);
+    }
+}
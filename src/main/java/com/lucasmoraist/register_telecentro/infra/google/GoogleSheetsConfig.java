@@ -1,27 +1,30 @@
 package com.lucasmoraist.register_telecentro.infra.google;
 
-import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
 import com.google.api.client.http.HttpRequestInitializer;
-import com.google.api.client.json.JsonFactory;
-import com.google.api.client.json.gson.GsonFactory;
 import com.google.api.services.sheets.v4.Sheets;
 import com.google.api.services.sheets.v4.SheetsScopes;
-import com.google.auth.http.HttpCredentialsAdapter;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.secretmanager.v1.AccessSecretVersionRequest;
 import com.google.cloud.secretmanager.v1.SecretManagerServiceClient;
 import com.google.cloud.secretmanager.v1.SecretVersionName;
+import com.lucasmoraist.register_telecentro.infra.concurrent.BackgroundThreads;
+import com.lucasmoraist.register_telecentro.infra.google.metrics.SheetsMetrics;
+import com.lucasmoraist.register_telecentro.infra.google.ratelimit.SheetsRateLimiter;
+import com.lucasmoraist.register_telecentro.infra.google.transport.SheetsTransportFactory;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 
 import java.io.*;
 import java.security.GeneralSecurityException;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Configuration
+@Profile("!local")
 @Slf4j
 public class GoogleSheetsConfig {
 
@@ -29,14 +32,37 @@ public class GoogleSheetsConfig {
     private String secretId;
     @Value("${google.cloud.project.id}")
     private String projectId;
+    @Value("${google.cloud.credentials.timeout-ms:30000}")
+    private long credentialsTimeoutMs;
 
-    private static final JsonFactory jsonFactory = GsonFactory.getDefaultInstance();
     private static final List<String> scopes = Collections.singletonList(SheetsScopes.SPREADSHEETS);
 
     @Bean
-    public Sheets service() throws IOException, GeneralSecurityException {
+    public Sheets service(SheetsMetrics sheetsMetrics, SheetsRateLimiter rateLimiter, SheetsTransportFactory transportFactory,
+                          BackgroundThreads backgroundThreads) throws IOException, GeneralSecurityException {
         log.info("Iniciando configuração do Google Sheets Service.");
 
+        CompletableFuture<GoogleCredentials> credentials = CompletableFuture.supplyAsync(this::loadCredentials,
+                task -> backgroundThreads.start("sheets-credentials", task));
+
+        HttpRequestInitializer requestInitializer = rateLimiter.initializer(
+                transportFactory.initializer(new DeferredCredentialsInitializer(credentials, this.credentialsTimeoutMs)));
+
+        Sheets sheetsService = new Sheets.Builder(transportFactory.transport(), sheetsMetrics.jsonFactory(), requestInitializer)
+                .setApplicationName("Register Telecentro")
+                .build();
+
+        log.info("Google Sheets Service configurado, credenciais sendo carregadas em segundo plano.");
+        return sheetsService;
+    }
+
+    /**
+     * Loads the service account credentials from Secret Manager. Runs on a background thread, in parallel with
+     * the rest of the context initialization.
+     *
+     * @return the scoped credentials
+     */
+    private GoogleCredentials loadCredentials() {
         try (SecretManagerServiceClient client = SecretManagerServiceClient.create()) {
             SecretVersionName secretVersionName = SecretVersionName.of(projectId, secretId, "latest");
 
@@ -49,24 +75,15 @@ public class GoogleSheetsConfig {
             log.info("Segredo recuperado com sucesso.");
 
             try (InputStream credentialsStream = new ByteArrayInputStream(secretData.getBytes())) {
-                GoogleCredentials credentials = GoogleCredentials.fromStream(credentialsStream)
+                return GoogleCredentials.fromStream(credentialsStream)
                         .createScoped(scopes);
-
-                HttpRequestInitializer requestInitializer = new HttpCredentialsAdapter(credentials);
-
-                Sheets sheetsService = new Sheets.Builder(GoogleNetHttpTransport.newTrustedTransport(), jsonFactory, requestInitializer)
-                        .setApplicationName("Register Telecentro")
-                        .build();
-
-                log.info("Google Sheets Service configurado com sucesso.");
-                return sheetsService;
             }
 
-        } catch (IOException | GeneralSecurityException e) {
-            log.error("Erro ao configurar o Google Sheets Service: {}", e.getMessage());
-            throw e;
+        } catch (IOException e) {
+            log.error("Erro ao carregar as credenciais do Google Sheets: {}", e.getMessage());
+            throw new UncheckedIOException(e);
         } catch (Exception e) {
-            log.error("Erro inesperado ao acessar o Secret Manager ou configurar o Sheets Service: {}", e.getMessage());
+            log.error("Erro inesperado ao acessar o Secret Manager: {}", e.getMessage());
             throw new RuntimeException("Erro ao configurar o Google Sheets Service", e);
         }
     }
@@ -0,0 +1,66 @@
+package com.lucasmoraist.register_telecentro.infra.google;
+
+import com.google.api.client.googleapis.json.GoogleJsonError;
+import com.google.api.client.googleapis.json.GoogleJsonErrorContainer;
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.util.GenericData;
+import com.google.api.services.sheets.v4.Sheets;
+import com.google.api.services.sheets.v4.model.AppendValuesResponse;
+import com.google.api.services.sheets.v4.model.BatchGetValuesResponse;
+import com.google.api.services.sheets.v4.model.BatchUpdateValuesRequest;
+import com.google.api.services.sheets.v4.model.BatchUpdateValuesResponse;
+import com.google.api.services.sheets.v4.model.Sheet;
+import com.google.api.services.sheets.v4.model.SheetProperties;
+import com.google.api.services.sheets.v4.model.Spreadsheet;
+import com.google.api.services.sheets.v4.model.UpdateValuesResponse;
+import com.google.api.services.sheets.v4.model.ValueRange;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import java.util.List;
+
+/**
+ * Runtime hints for the Google API client, used by AOT-processed builds. The client maps JSON to the Sheets models
+ * and fills request URLs from the request objects by reflecting over their {@code @Key} fields, and reads its
+ * version from properties files on the classpath.
+ *
+ * @author lucasmoraist
+ */
+public class SheetsRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final List<Class<?>> REFLECTED_TYPES = List.of(
+            GenericData.class,
+            GenericJson.class,
+            GoogleJsonError.class,
+            GoogleJsonError.ErrorInfo.class,
+            GoogleJsonErrorContainer.class,
+            ValueRange.class,
+            BatchGetValuesResponse.class,
+            BatchUpdateValuesRequest.class,
+            BatchUpdateValuesResponse.class,
+            UpdateValuesResponse.class,
+            AppendValuesResponse.class,
+            Spreadsheet.class,
+            Sheet.class,
+            SheetProperties.class,
+            Sheets.Spreadsheets.Get.class,
+            Sheets.Spreadsheets.Values.Get.class,
+            Sheets.Spreadsheets.Values.BatchGet.class,
+            Sheets.Spreadsheets.Values.BatchUpdate.class,
+            Sheets.Spreadsheets.Values.Append.class
+    );
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> type : REFLECTED_TYPES) {
+            hints.reflection().registerType(type,
+                    MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        hints.resources()
+                .registerPattern("com/google/api/client/googleapis/google-api-client.properties")
+                .registerPattern("com/google/api/client/http/google-http-client.properties");
+    }
+}
@@ -0,0 +1,118 @@
+package com.lucasmoraist.register_telecentro.infra.google.local;
+
+/**
+ * A parsed A1 notation range such as {@code 'Incrições Telecentro'!A2:J}, {@code Cursos!A2:Z} or {@code D2:D}.
+ * Rows and columns are 1-based and inclusive; an open end is {@link Integer#MAX_VALUE}.
+ *
+ * @param sheet       the sheet title
+ * @param startRow    the first row
+ * @param startColumn the first column
+ * @param endRow      the last row
+ * @param endColumn   the last column
+ * @author lucasmoraist
+ */
+public record A1Range(String sheet, int startRow, int startColumn, int endRow, int endColumn) {
+
+    public static final int OPEN = Integer.MAX_VALUE;
+
+    /**
+     * Parses a range in A1 notation.
+     *
+     * @param notation     the range
+     * @param defaultSheet the sheet used when the range does not name one
+     * @return the parsed range
+     * @throws IllegalArgumentException if the range cannot be parsed
+     */
+    public static A1Range parse(String notation, String defaultSheet) {
+        String sheet = defaultSheet;
+        String cells = notation;
+
+        if (notation.startsWith("'")) {
+            StringBuilder title = new StringBuilder();
+            int i = 1;
+            while (i < notation.length()) {
+                char c = notation.charAt(i);
+                if (c == '\'' && i + 1 < notation.length() && notation.charAt(i + 1) == '\'') {
+                    title.append(c);
+                    i += 2;
+                } else if (c == '\'') {
+                    break;
+                } else {
+                    title.append(c);
+                    i++;
+                }
+            }
+            if (i >= notation.length()) {
+                throw new IllegalArgumentException("Unable to parse range: " + notation);
+            }
+            sheet = title.toString();
+            cells = notation.startsWith("!", i + 1) ? notation.substring(i + 2) : "";
+        } else if (notation.contains("!")) {
+            sheet = notation.substring(0, notation.indexOf('!'));
+            cells = notation.substring(notation.indexOf('!') + 1);
+        }
+
+        if (cells.isEmpty()) {
+            return new A1Range(sheet, 1, 1, OPEN, OPEN);
+        }
+
+        String[] bounds = cells.split(":", -1);
+        if (bounds.length > 2) {
+            throw new IllegalArgumentException("Unable to parse range: " + notation);
+        }
+        int[] start = parseCell(bounds[0], 1, 1, notation);
+        int[] end = bounds.length == 2 ? parseCell(bounds[1], OPEN, OPEN, notation) : start;
+        return new A1Range(sheet, start[0], start[1], end[0], end[1]);
+    }
+
+    /**
+     * Converts a 1-based column number to its letters.
+     *
+     * @param column the column number
+     * @return the column letters, e.g. {@code A} or {@code AB}
+     */
+    public static String columnLetters(int column) {
+        StringBuilder letters = new StringBuilder();
+        for (int remaining = column; remaining > 0; remaining = (remaining - 1) / 26) {
+            letters.insert(0, (char) ('A' + (remaining - 1) % 26));
+        }
+        return letters.toString();
+    }
+
+    /**
+     * Formats the range back to A1 notation, always naming the sheet.
+     *
+     * @return the range in A1 notation
+     */
+    public String toA1() {
+        StringBuilder a1 = new StringBuilder("'").append(this.sheet.replace("'", "''")).append("'!")
+                .append(columnLetters(this.startColumn)).append(this.startRow);
+        if (this.endRow != this.startRow || this.endColumn != this.startColumn) {
+            a1.append(':');
+            if (this.endColumn != OPEN) {
+                a1.append(columnLetters(this.endColumn));
+            }
+            if (this.endRow != OPEN) {
+                a1.append(this.endRow);
+            }
+        }
+        return a1.toString();
+    }
+
+    private static int[] parseCell(String cell, int defaultRow, int defaultColumn, String notation) {
+        int i = 0;
+        int column = 0;
+        while (i < cell.length() && Character.isLetter(cell.charAt(i))) {
+            column = column * 26 + Character.toUpperCase(cell.charAt(i)) - 'A' + 1;
+            i++;
+        }
+        String digits = cell.substring(i);
+        if (!digits.chars().allMatch(Character::isDigit)) {
+            throw new IllegalArgumentException("Unable to parse range: " + notation);
+        }
+        return new int[]{
+                digits.isEmpty() ? defaultRow : Integer.parseInt(digits),
+                column == 0 ? defaultColumn : column
+        };
+    }
+}
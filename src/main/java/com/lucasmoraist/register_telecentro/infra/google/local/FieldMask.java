@@ -0,0 +1,96 @@
+package com.lucasmoraist.register_telecentro.infra.google.local;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A partial response field mask, as accepted by the {@code fields} parameter of the Google APIs, e.g.
+ * {@code valueRanges(range,values)} or {@code updates.updatedRange}. Used by the local stand-in so that the payload
+ * sizes it reports match what Sheets would send.
+ *
+ * @author lucasmoraist
+ */
+final class FieldMask {
+
+    private final Map<String, FieldMask> children = new LinkedHashMap<>();
+
+    private FieldMask() {
+    }
+
+    /**
+     * Parses a field mask.
+     *
+     * @param mask the mask, or null for the full response
+     * @return the parsed mask
+     * @throws IllegalArgumentException if the mask is malformed
+     */
+    static FieldMask parse(String mask) {
+        FieldMask root = new FieldMask();
+        if (mask == null || mask.isBlank()) {
+            return root;
+        }
+        int end = root.parseList(mask, 0);
+        if (end != mask.length()) {
+            throw new IllegalArgumentException("Invalid field mask: " + mask);
+        }
+        return root;
+    }
+
+    /**
+     * Keeps only the selected fields of a JSON value made of maps and lists.
+     *
+     * @param value the value to be filtered
+     * @return the filtered value
+     */
+    Object apply(Object value) {
+        if (this.children.isEmpty()) {
+            return value;
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> filtered = new LinkedHashMap<>();
+            this.children.forEach((name, child) -> {
+                if (map.containsKey(name)) {
+                    filtered.put(name, child.apply(map.get(name)));
+                }
+            });
+            return filtered;
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(this::apply).toList();
+        }
+        return value;
+    }
+
+    private int parseList(String mask, int index) {
+        int i = this.parseTerm(mask, index);
+        while (i < mask.length() && mask.charAt(i) == ',') {
+            i = this.parseTerm(mask, i + 1);
+        }
+        return i;
+    }
+
+    private int parseTerm(String mask, int index) {
+        int i = index;
+        while (i < mask.length() && ",.()".indexOf(mask.charAt(i)) < 0) {
+            i++;
+        }
+        String name = mask.substring(index, i).trim();
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Invalid field mask: " + mask);
+        }
+
+        FieldMask child = this.children.computeIfAbsent(name, key -> new FieldMask());
+        if (i < mask.length() && mask.charAt(i) == '.') {
+            return child.parseTerm(mask, i + 1);
+        }
+        if (i < mask.length() && mask.charAt(i) == '(') {
+            i = child.parseList(mask, i + 1);
+            if (i >= mask.length() || mask.charAt(i) != ')') {
+                throw new IllegalArgumentException("Invalid field mask: " + mask);
+            }
+            return i + 1;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,180 @@
+package com.lucasmoraist.register_telecentro.infra.google.local;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A spreadsheet held in memory: a grid of cell values per sheet. Reads follow the Sheets API conventions:
+ * trailing empty rows and cells are omitted and an empty row in the middle of a range is an empty list.
+ *
+ * @author lucasmoraist
+ */
+public class InMemorySpreadsheet {
+
+    private final Map<String, List<List<Object>>> sheets = new LinkedHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds a sheet with the given rows, the first one being row 1.
+     *
+     * @param title the sheet title
+     * @param rows  the initial rows
+     */
+    public void addSheet(String title, List<List<Object>> rows) {
+        this.lock.writeLock().lock();
+        try {
+            List<List<Object>> grid = new ArrayList<>(rows.size());
+            rows.forEach(row -> grid.add(new ArrayList<>(row)));
+            this.sheets.put(title, grid);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public List<String> titles() {
+        this.lock.readLock().lock();
+        try {
+            return List.copyOf(this.sheets.keySet());
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    public String defaultSheet() {
+        return this.titles().get(0);
+    }
+
+    /**
+     * Reads a range.
+     *
+     * @param range   the range to be read
+     * @param columns true to return the values column by column ({@code majorDimension=COLUMNS})
+     * @return the values of the range
+     */
+    public List<List<Object>> read(A1Range range, boolean columns) {
+        this.lock.readLock().lock();
+        try {
+            List<List<Object>> grid = this.sheet(range.sheet());
+            List<List<Object>> values = new ArrayList<>();
+            int lastRow = Math.min(range.endRow(), grid.size());
+            for (int row = range.startRow(); row <= lastRow; row++) {
+                List<Object> cells = grid.get(row - 1);
+                int lastColumn = Math.min(range.endColumn(), cells.size());
+                List<Object> slice = new ArrayList<>();
+                for (int column = range.startColumn(); column <= lastColumn; column++) {
+                    slice.add(cells.get(column - 1));
+                }
+                values.add(trimRow(slice));
+            }
+            while (!values.isEmpty() && values.get(values.size() - 1).isEmpty()) {
+                values.remove(values.size() - 1);
+            }
+            return columns ? transpose(values) : values;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes values starting at the top-left cell of the range.
+     *
+     * @param range  the range to be written
+     * @param values the values, row by row
+     * @return the range actually written
+     */
+    public A1Range write(A1Range range, List<List<Object>> values) {
+        this.lock.writeLock().lock();
+        try {
+            List<List<Object>> grid = this.sheet(range.sheet());
+            int width = 0;
+            for (int i = 0; i < values.size(); i++) {
+                List<Object> cells = row(grid, range.startRow() + i);
+                List<Object> source = values.get(i);
+                for (int j = 0; j < source.size(); j++) {
+                    int column = range.startColumn() + j;
+                    while (cells.size() < column) {
+                        cells.add("");
+                    }
+                    cells.set(column - 1, source.get(j) == null ? "" : source.get(j));
+                }
+                width = Math.max(width, source.size());
+            }
+            return new A1Range(range.sheet(), range.startRow(), range.startColumn(),
+                    range.startRow() + Math.max(values.size(), 1) - 1, range.startColumn() + Math.max(width, 1) - 1);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Appends values after the last non-empty row of the range's columns, like {@code INSERT_ROWS}.
+     *
+     * @param range  the range that delimits the table
+     * @param values the values, row by row
+     * @return the range actually written
+     */
+    public A1Range append(A1Range range, List<List<Object>> values) {
+        this.lock.writeLock().lock();
+        try {
+            List<List<Object>> grid = this.sheet(range.sheet());
+            int lastRow = range.startRow() - 1;
+            for (int row = range.startRow(); row <= grid.size(); row++) {
+                List<Object> cells = grid.get(row - 1);
+                for (int column = range.startColumn(); column <= Math.min(range.endColumn(), cells.size()); column++) {
+                    if (!isEmpty(cells.get(column - 1))) {
+                        lastRow = row;
+                        break;
+                    }
+                }
+            }
+            A1Range target = new A1Range(range.sheet(), lastRow + 1, range.startColumn(), A1Range.OPEN, range.endColumn());
+            return this.write(target, values);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private List<List<Object>> sheet(String title) {
+        List<List<Object>> grid = this.sheets.get(title);
+        if (grid == null) {
+            throw new IllegalArgumentException("Unable to parse range: " + title);
+        }
+        return grid;
+    }
+
+    private static List<Object> row(List<List<Object>> grid, int row) {
+        while (grid.size() < row) {
+            grid.add(new ArrayList<>());
+        }
+        return grid.get(row - 1);
+    }
+
+    private static List<Object> trimRow(List<Object> cells) {
+        int size = cells.size();
+        while (size > 0 && isEmpty(cells.get(size - 1))) {
+            size--;
+        }
+        return new ArrayList<>(cells.subList(0, size));
+    }
+
+    private static List<List<Object>> transpose(List<List<Object>> rows) {
+        int width = rows.stream().mapToInt(List::size).max().orElse(0);
+        List<List<Object>> columns = new ArrayList<>(width);
+        for (int column = 0; column < width; column++) {
+            List<Object> values = new ArrayList<>(rows.size());
+            for (List<Object> row : rows) {
+                values.add(column < row.size() ? row.get(column) : "");
+            }
+            columns.add(trimRow(values));
+        }
+        return columns;
+    }
+
+    private static boolean isEmpty(Object value) {
+        return value == null || value.toString().isEmpty();
+    }
+}
@@ -0,0 +1,50 @@
+package com.lucasmoraist.register_telecentro.infra.google.local;
+
+import com.google.api.services.sheets.v4.Sheets;
+import com.lucasmoraist.register_telecentro.infra.google.metrics.SheetsMetrics;
+import com.lucasmoraist.register_telecentro.infra.google.ratelimit.SheetsRateLimiter;
+import com.lucasmoraist.register_telecentro.repository.shard.RegistrationShards;
+import com.lucasmoraist.register_telecentro.repository.shard.Shard;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Replaces the Google Sheets client with the in-memory stand-in when the {@code local} profile is active,
+ * so the application can run, be load-tested and benchmarked without Secret Manager or network access. Every
+ * spreadsheet id is served by the same in-memory spreadsheet, which gets an empty tab for every registration shard.
+ *
+ * @author lucasmoraist
+ * @see LocalSheetsTransport
+ */
+@Slf4j
+@Configuration
+@Profile("local")
+public class LocalSheetsConfig {
+
+    @Bean
+    public Sheets service(SheetsMetrics sheetsMetrics,
+                          SheetsRateLimiter rateLimiter,
+                          RegistrationShards shards,
+                          @Value("${telecentro.local-sheets.seed-registrations:1000}") int seedRegistrations,
+                          @Value("${telecentro.local-sheets.latency-ms:0}") long latencyMs,
+                          @Value("${telecentro.local-sheets.error-rate:0.0}") double errorRate,
+                          @Value("${telecentro.local-sheets.requests-per-minute:0}") int requestsPerMinute) {
+        log.info("Using the local in-memory Sheets stand-in with {} registrations, {} ms latency, {} error rate and {} requests/min",
+                seedRegistrations, latencyMs, errorRate, requestsPerMinute);
+
+        InMemorySpreadsheet spreadsheet = LocalSheetsFixtures.spreadsheet(seedRegistrations);
+        for (Shard shard : shards.all()) {
+            if (!spreadsheet.titles().contains(shard.tab())) {
+                spreadsheet.addSheet(shard.tab(), LocalSheetsFixtures.registrationRows(0));
+            }
+        }
+
+        LocalSheetsTransport transport = new LocalSheetsTransport(spreadsheet, latencyMs, errorRate, requestsPerMinute);
+        return new Sheets.Builder(transport, sheetsMetrics.jsonFactory(), rateLimiter.initializer(null))
+                .setApplicationName("Register Telecentro")
+                .build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.lucasmoraist.register_telecentro.infra.google.local;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic sample data for the local Sheets stand-in: the courses tab and any number of registrations,
+ * laid out exactly like the production spreadsheet. Every course has two sessions; all but one have a capacity.
+ *
+ * @author lucasmoraist
+ */
+public final class LocalSheetsFixtures {
+
+    public static final String REGISTRATIONS_SHEET = "Incrições Telecentro";
+    public static final String COURSES_SHEET = "Cursos";
+
+    private static final List<List<Object>> COURSES = List.of(
+            List.of("Curso", "Turma 1", "Turma 2", "Vagas"),
+            List.of("Informática Básica", "Segunda-feira 09:00 - 11:00", "Segunda-feira 14:00 - 16:00", 200),
+            List.of("Excel", "Terça-feira 09:00 - 11:00", "Terça-feira 14:00 - 16:00", 150),
+            List.of("Internet Segura", "Quarta-feira 09:00 - 11:00", "Quarta-feira 14:00 - 16:00", 150),
+            List.of("Word", "Quinta-feira 09:00 - 11:00", "Quinta-feira 14:00 - 16:00")
+    );
+
+    private static final int SESSIONS_PER_COURSE = 2;
+
+    private LocalSheetsFixtures() {
+    }
+
+    /**
+     * Creates a spreadsheet with the registrations tab first and the courses tab second.
+     *
+     * @param registrations the number of registrations to generate
+     * @return the spreadsheet
+     */
+    public static InMemorySpreadsheet spreadsheet(int registrations) {
+        InMemorySpreadsheet spreadsheet = new InMemorySpreadsheet();
+        spreadsheet.addSheet(REGISTRATIONS_SHEET, registrationRows(registrations));
+        spreadsheet.addSheet(COURSES_SHEET, COURSES);
+        return spreadsheet;
+    }
+
+    /**
+     * Generates the registrations tab: a header row followed by {@code count} registrations.
+     *
+     * @param count the number of registrations
+     * @return the rows of the tab
+     */
+    public static List<List<Object>> registrationRows(int count) {
+        Random random = new Random(42);
+        List<List<Object>> rows = new ArrayList<>(count + 1);
+        rows.add(List.of("Curso", "Data e Hora", "Nome", "RG", "Data de Nascimento", "Idade", "Endereço", "E-mail",
+                "Telefone", "Confirmado"));
+
+        for (int i = 0; i < count; i++) {
+            List<Object> course = COURSES.get(1 + random.nextInt(COURSES.size() - 1));
+            LocalDate birthDate = LocalDate.of(1950 + random.nextInt(55), 1 + random.nextInt(12), 1 + random.nextInt(28));
+            rows.add(List.of(
+                    course.get(0),
+                    course.get(1 + random.nextInt(SESSIONS_PER_COURSE)),
+                    "Pessoa " + i,
+                    String.valueOf(10_000_000 + random.nextInt(count * 2 + 1)),
+                    birthDate.toString(),
+                    String.valueOf(2024 - birthDate.getYear()),
+                    "Rua " + random.nextInt(500) + ", " + random.nextInt(2000),
+                    "pessoa" + i + "@example.com",
+                    "(11) 9" + (10_000_000 + random.nextInt(90_000_000)),
+                    random.nextBoolean() ? "Sim" : "Não"
+            ));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,213 @@
+package com.lucasmoraist.register_telecentro.infra.google.local;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.google.api.services.sheets.v4.model.AppendValuesResponse;
+import com.google.api.services.sheets.v4.model.BatchGetValuesResponse;
+import com.google.api.services.sheets.v4.model.BatchUpdateValuesRequest;
+import com.google.api.services.sheets.v4.model.BatchUpdateValuesResponse;
+import com.google.api.services.sheets.v4.model.Sheet;
+import com.google.api.services.sheets.v4.model.SheetProperties;
+import com.google.api.services.sheets.v4.model.Spreadsheet;
+import com.google.api.services.sheets.v4.model.UpdateValuesResponse;
+import com.google.api.services.sheets.v4.model.ValueRange;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An {@link HttpTransport} that answers the Sheets API v4 calls used by the application from an
+ * {@link InMemorySpreadsheet}, without any network access. The real {@code Sheets} client runs on top of it,
+ * so request building and JSON parsing are exercised exactly as in production.
+ * <p>
+ * Supported calls: spreadsheet metadata, {@code values().get}, {@code batchGet}, {@code batchUpdate} and
+ * {@code append}. Every call can be delayed by a fixed latency and fail with {@code 429 RESOURCE_EXHAUSTED},
+ * either randomly or once the per-minute request quota is used up. {@code majorDimension}, {@code fields} masks and
+ * {@code prettyPrint} (true by default, as in Sheets) are honoured; value render options are ignored, since the
+ * stand-in stores what was written with RAW.
+ *
+ * @author lucasmoraist
+ */
+@Slf4j
+public class LocalSheetsTransport extends HttpTransport {
+
+    private static final JsonFactory JSON = GsonFactory.getDefaultInstance();
+
+    private final InMemorySpreadsheet spreadsheet;
+    private final long latencyMs;
+    private final double errorRate;
+    private final int requestsPerMinute;
+    private final Deque<Long> window = new ArrayDeque<>();
+
+    public LocalSheetsTransport(InMemorySpreadsheet spreadsheet, long latencyMs, double errorRate, int requestsPerMinute) {
+        this.spreadsheet = spreadsheet;
+        this.latencyMs = latencyMs;
+        this.errorRate = errorRate;
+        this.requestsPerMinute = requestsPerMinute;
+    }
+
+    @Override
+    protected LowLevelHttpRequest buildRequest(String method, String url) {
+        return new MockLowLevelHttpRequest(url) {
+            @Override
+            public LowLevelHttpResponse execute() throws IOException {
+                return handle(method, this.getUrl(), this.getContentAsString());
+            }
+        };
+    }
+
+    private MockLowLevelHttpResponse handle(String method, String url, String body) throws IOException {
+        this.simulateLatency();
+        if (this.quotaExceeded()) {
+            log.debug("Local Sheets rejecting {} {} with 429", method, url);
+            return error(429, "RESOURCE_EXHAUSTED", "Quota exceeded for quota metric 'Requests' of service 'sheets.googleapis.com'.");
+        }
+
+        GenericUrl parsed = new GenericUrl(url);
+        List<String> parts = parsed.getPathParts();
+        try {
+            FieldMask fields = FieldMask.parse((String) parsed.getFirst("fields"));
+            boolean prettyPrint = !"false".equals(String.valueOf(parsed.getFirst("prettyPrint")));
+            if (parts.size() == 4) {
+                return ok(fields, prettyPrint, this.metadata(parts.get(3)));
+            }
+            String operation = parts.get(4);
+            if ("values:batchGet".equals(operation)) {
+                return ok(fields, prettyPrint, this.batchGet(parts.get(3), parsed));
+            }
+            if ("values:batchUpdate".equals(operation)) {
+                return ok(fields, prettyPrint, this.batchUpdate(parts.get(3), JSON.fromString(body, BatchUpdateValuesRequest.class)));
+            }
+            if ("values".equals(operation) && parts.size() == 6) {
+                String range = parts.get(5);
+                if (range.endsWith(":append")) {
+                    ValueRange values = JSON.fromString(body, ValueRange.class);
+                    return ok(fields, prettyPrint, this.append(parts.get(3), range.substring(0, range.length() - ":append".length()), values));
+                }
+                return ok(fields, prettyPrint, this.get(range, parsed));
+            }
+            return error(404, "NOT_FOUND", "Unsupported local Sheets request: " + method + " " + url);
+        } catch (IllegalArgumentException e) {
+            return error(400, "INVALID_ARGUMENT", e.getMessage());
+        }
+    }
+
+    private Spreadsheet metadata(String spreadsheetId) {
+        List<Sheet> sheets = this.spreadsheet.titles().stream()
+                .map(title -> new Sheet().setProperties(new SheetProperties().setTitle(title)))
+                .toList();
+        return new Spreadsheet().setSpreadsheetId(spreadsheetId).setSheets(sheets);
+    }
+
+    private ValueRange get(String notation, GenericUrl url) {
+        A1Range range = A1Range.parse(notation, this.spreadsheet.defaultSheet());
+        boolean columns = "COLUMNS".equals(url.getFirst("majorDimension"));
+        List<List<Object>> values = this.spreadsheet.read(range, columns);
+        return new ValueRange()
+                .setRange(range.toA1())
+                .setMajorDimension(columns ? "COLUMNS" : "ROWS")
+                .setValues(values.isEmpty() ? null : values);
+    }
+
+    private BatchGetValuesResponse batchGet(String spreadsheetId, GenericUrl url) {
+        Collection<Object> ranges = url.getAll("ranges");
+        List<ValueRange> valueRanges = new ArrayList<>(ranges.size());
+        for (Object range : ranges) {
+            valueRanges.add(this.get(range.toString(), url));
+        }
+        return new BatchGetValuesResponse().setSpreadsheetId(spreadsheetId).setValueRanges(valueRanges);
+    }
+
+    private BatchUpdateValuesResponse batchUpdate(String spreadsheetId, BatchUpdateValuesRequest request) {
+        List<UpdateValuesResponse> responses = new ArrayList<>();
+        int updatedRows = 0;
+        for (ValueRange data : request.getData()) {
+            A1Range written = this.spreadsheet.write(A1Range.parse(data.getRange(), this.spreadsheet.defaultSheet()), data.getValues());
+            updatedRows += data.getValues().size();
+            responses.add(new UpdateValuesResponse()
+                    .setSpreadsheetId(spreadsheetId)
+                    .setUpdatedRange(written.toA1())
+                    .setUpdatedRows(data.getValues().size()));
+        }
+        return new BatchUpdateValuesResponse()
+                .setSpreadsheetId(spreadsheetId)
+                .setTotalUpdatedRows(updatedRows)
+                .setResponses(responses);
+    }
+
+    private AppendValuesResponse append(String spreadsheetId, String notation, ValueRange values) {
+        A1Range range = A1Range.parse(notation, this.spreadsheet.defaultSheet());
+        A1Range written = this.spreadsheet.append(range, values.getValues());
+        return new AppendValuesResponse()
+                .setSpreadsheetId(spreadsheetId)
+                .setTableRange(range.toA1())
+                .setUpdates(new UpdateValuesResponse()
+                        .setSpreadsheetId(spreadsheetId)
+                        .setUpdatedRange(written.toA1())
+                        .setUpdatedRows(values.getValues().size()));
+    }
+
+    private void simulateLatency() throws IOException {
+        if (this.latencyMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(this.latencyMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while simulating Sheets latency", e);
+        }
+    }
+
+    private boolean quotaExceeded() {
+        if (this.errorRate > 0 && ThreadLocalRandom.current().nextDouble() < this.errorRate) {
+            return true;
+        }
+        if (this.requestsPerMinute <= 0) {
+            return false;
+        }
+        long now = System.nanoTime();
+        synchronized (this.window) {
+            while (!this.window.isEmpty() && now - this.window.peekFirst() >= TimeUnit.MINUTES.toNanos(1)) {
+                this.window.pollFirst();
+            }
+            if (this.window.size() >= this.requestsPerMinute) {
+                return true;
+            }
+            this.window.addLast(now);
+            return false;
+        }
+    }
+
+    private static MockLowLevelHttpResponse ok(FieldMask fields, boolean prettyPrint, GenericJson content) throws IOException {
+        Object filtered = fields.apply(content);
+        return new MockLowLevelHttpResponse()
+                .setContentType("application/json; charset=UTF-8")
+                .setContent(prettyPrint ? JSON.toPrettyString(filtered) : JSON.toString(filtered));
+    }
+
+    private static MockLowLevelHttpResponse error(int code, String status, String message) throws IOException {
+        GenericJson error = new GenericJson();
+        error.set("error", Map.of("code", code, "message", message, "status", status));
+        return new MockLowLevelHttpResponse()
+                .setStatusCode(code)
+                .setReasonPhrase(status)
+                .setContentType("application/json; charset=UTF-8")
+                .setContent(JSON.toString(error));
+    }
+}
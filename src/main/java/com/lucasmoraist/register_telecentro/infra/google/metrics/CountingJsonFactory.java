@@ -0,0 +1,121 @@
+package com.lucasmoraist.register_telecentro.infra.google.metrics;
+
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.JsonGenerator;
+import com.google.api.client.json.JsonParser;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+
+/**
+ * JsonFactory that counts, per thread, the JSON bytes parsed from and generated to streams. The Sheets client
+ * serializes and parses on the thread that calls {@code execute()}, so the difference of the counters around a call
+ * is the payload of that call. The counts are of the decoded JSON: a gzip-compressed response is counted after it
+ * is decompressed.
+ *
+ * @author lucasmoraist
+ */
+class CountingJsonFactory extends JsonFactory {
+
+    private final JsonFactory delegate;
+    private final ThreadLocal<long[]> received = ThreadLocal.withInitial(() -> new long[1]);
+    private final ThreadLocal<long[]> sent = ThreadLocal.withInitial(() -> new long[1]);
+
+    CountingJsonFactory(JsonFactory delegate) {
+        this.delegate = delegate;
+    }
+
+    long receivedBytes() {
+        return this.received.get()[0];
+    }
+
+    long sentBytes() {
+        return this.sent.get()[0];
+    }
+
+    @Override
+    public JsonParser createJsonParser(InputStream in) throws IOException {
+        return this.delegate.createJsonParser(new CountingInputStream(in, this.received.get()));
+    }
+
+    @Override
+    public JsonParser createJsonParser(InputStream in, Charset charset) throws IOException {
+        return this.delegate.createJsonParser(new CountingInputStream(in, this.received.get()), charset);
+    }
+
+    @Override
+    public JsonParser createJsonParser(String value) throws IOException {
+        return this.delegate.createJsonParser(value);
+    }
+
+    @Override
+    public JsonParser createJsonParser(Reader reader) throws IOException {
+        return this.delegate.createJsonParser(reader);
+    }
+
+    @Override
+    public JsonGenerator createJsonGenerator(OutputStream out, Charset enc) throws IOException {
+        return this.delegate.createJsonGenerator(new CountingOutputStream(out, this.sent.get()), enc);
+    }
+
+    @Override
+    public JsonGenerator createJsonGenerator(Writer writer) throws IOException {
+        return this.delegate.createJsonGenerator(writer);
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private final long[] count;
+
+        CountingInputStream(InputStream in, long[] count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                this.count[0]++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                this.count[0] += n;
+            }
+            return n;
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private final long[] count;
+
+        CountingOutputStream(OutputStream out, long[] count) {
+            super(out);
+            this.count = count;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            super.write(b);
+            this.count[0]++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            this.count[0] += len;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.lucasmoraist.register_telecentro.infra.google.metrics;
+
+import com.google.api.client.googleapis.services.AbstractGoogleClientRequest;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.json.JsonFactory;
+import com.google.api.client.json.gson.GsonFactory;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Instruments every Google Sheets call made by the repositories:
+ * <ul>
+ *     <li>{@code telecentro.sheets.requests}: timer per operation, tab and outcome (success, HTTP status or
+ *     io_error), with a percentile histogram;</li>
+ *     <li>{@code telecentro.sheets.payload.decoded}: JSON bytes received and sent per operation and tab, as parsed
+ *     and generated by the client, i.e. after gzip decompression: the bytes on the wire are usually fewer;</li>
+ *     <li>{@code telecentro.sheets.errors}: responses that count against the quota or signal an outage
+ *     (429 and 5xx), per operation, tab and status.</li>
+ * </ul>
+ * The Sheets client must be built with {@link #jsonFactory()} for the payload sizes to be recorded.
+ *
+ * @author lucasmoraist
+ */
+@Component
+public class SheetsMetrics {
+
+    private final MeterRegistry registry;
+    private final CountingJsonFactory jsonFactory = new CountingJsonFactory(GsonFactory.getDefaultInstance());
+
+    public SheetsMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * The JSON factory the Sheets client must use, counting the payload of each call.
+     *
+     * @return the counting JSON factory
+     */
+    public JsonFactory jsonFactory() {
+        return this.jsonFactory;
+    }
+
+    /**
+     * Executes a Sheets request, recording its latency, payload and failures.
+     *
+     * @param request   the request to be executed
+     * @param operation the Sheets operation, e.g. get, batchGet, batchUpdate or append
+     * @param range     the A1 range of the request, or its first range for batch operations
+     * @param <T>       the type of the response
+     * @return the response of the request
+     * @throws IOException if the request fails
+     */
+    public <T> T execute(AbstractGoogleClientRequest<T> request, String operation, String range) throws IOException {
+        String tab = tabOf(range);
+        long receivedBefore = this.jsonFactory.receivedBytes();
+        long sentBefore = this.jsonFactory.sentBytes();
+        Timer.Sample sample = Timer.start(this.registry);
+        String outcome = "success";
+
+        try {
+            return request.execute();
+        } catch (HttpResponseException e) {
+            outcome = String.valueOf(e.getStatusCode());
+            if (e.getStatusCode() == 429 || e.getStatusCode() >= 500) {
+                this.registry.counter("telecentro.sheets.errors",
+                        "operation", operation, "tab", tab, "status", outcome).increment();
+            }
+            throw e;
+        } catch (IOException e) {
+            outcome = "io_error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("telecentro.sheets.requests")
+                    .description("Latency of Google Sheets API calls")
+                    .tags("operation", operation, "tab", tab, "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(this.registry));
+            this.recordPayload(operation, tab, "received", this.jsonFactory.receivedBytes() - receivedBefore);
+            this.recordPayload(operation, tab, "sent", this.jsonFactory.sentBytes() - sentBefore);
+        }
+    }
+
+    private void recordPayload(String operation, String tab, String direction, long bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+        DistributionSummary.builder("telecentro.sheets.payload.decoded")
+                .description("Decoded (uncompressed) JSON payload of Google Sheets API calls")
+                .baseUnit("bytes")
+                .tags("operation", operation, "tab", tab, "direction", direction)
+                .register(this.registry)
+                .record(bytes);
+    }
+
+    /**
+     * Extracts the tab of an A1 range, so that the row numbers of a range do not become tag values.
+     *
+     * @param range the A1 range, e.g. {@code 'Incrições Telecentro'!A2:J} or {@code Cursos!A2:Z}
+     * @return the tab name, without quotes
+     */
+    static String tabOf(String range) {
+        int separator = range.lastIndexOf('!');
+        String tab = separator < 0 ? range : range.substring(0, separator);
+        if (tab.length() > 1 && tab.startsWith("'") && tab.endsWith("'")) {
+            tab = tab.substring(1, tab.length() - 1).replace("''", "'");
+        }
+        return tab;
+    }
+}
@@ -0,0 +1,155 @@
+package com.lucasmoraist.register_telecentro.infra.google.ratelimit;
+
+import com.google.api.client.http.HttpBackOffUnsuccessfulResponseHandler;
+import com.google.api.client.http.HttpExecuteInterceptor;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpUnsuccessfulResponseHandler;
+import com.google.api.client.util.ExponentialBackOff;
+import com.lucasmoraist.register_telecentro.exceptions.SheetsQuotaExceeded;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the Sheets client within the project quota. Every HTTP request, retries included, takes a token from a
+ * bucket shared by all Sheets calls, waiting up to {@code max-wait-ms} for it. Responses 429 and 503 drain the bucket
+ * and are retried with jittered exponential backoff, so a burst of registrations queues briefly instead of failing.
+ * {@code retry.max-attempts} counts the first attempt too, so a request is retried at most {@code max-attempts - 1}
+ * times.
+ *
+ * @author lucasmoraist
+ */
+@Slf4j
+@Component
+public class SheetsRateLimiter {
+
+    private final TokenBucket bucket;
+    private final long maxWaitNanos;
+    private final int maxRetries;
+    private final int initialBackoffMs;
+    private final int maxBackoffMs;
+    private final Timer waits;
+    private final Counter rejected;
+    private final MeterRegistry registry;
+
+    public SheetsRateLimiter(@Value("${telecentro.sheets.rate-limit.requests-per-minute:60}") int requestsPerMinute,
+                             @Value("${telecentro.sheets.rate-limit.burst:10}") int burst,
+                             @Value("${telecentro.sheets.rate-limit.max-wait-ms:10000}") long maxWaitMs,
+                             @Value("${telecentro.sheets.retry.max-attempts:5}") int maxAttempts,
+                             @Value("${telecentro.sheets.retry.initial-backoff-ms:500}") int initialBackoffMs,
+                             @Value("${telecentro.sheets.retry.max-backoff-ms:16000}") int maxBackoffMs,
+                             MeterRegistry registry) {
+        this.bucket = requestsPerMinute > 0 ? new TokenBucket(burst, requestsPerMinute) : null;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+        this.maxRetries = Math.max(0, maxAttempts - 1);
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.registry = registry;
+        this.waits = Timer.builder("telecentro.sheets.rate-limit.wait")
+                .description("Time Sheets requests waited for a rate limit token")
+                .register(registry);
+        this.rejected = Counter.builder("telecentro.sheets.rate-limit.rejected")
+                .description("Sheets requests rejected because no token was available in time")
+                .register(registry);
+
+        if (this.bucket == null) {
+            log.info("Sheets rate limiter disabled, retrying 429/503 up to {} times", this.maxRetries);
+        } else {
+            log.info("Sheets rate limiter set to {} requests/min with bursts of {}", requestsPerMinute, burst);
+        }
+    }
+
+    /**
+     * Wraps a request initializer, usually the credentials adapter, adding the rate limit and the backoff on
+     * 429/503. The interceptor and unsuccessful response handler of the delegate are kept and run first.
+     *
+     * @param delegate the initializer to be wrapped, or null
+     * @return the initializer to build the Sheets client with
+     */
+    public HttpRequestInitializer initializer(HttpRequestInitializer delegate) {
+        return request -> {
+            if (delegate != null) {
+                delegate.initialize(request);
+            }
+
+            HttpExecuteInterceptor interceptor = request.getInterceptor();
+            HttpUnsuccessfulResponseHandler handler = request.getUnsuccessfulResponseHandler();
+            HttpBackOffUnsuccessfulResponseHandler backOff = new HttpBackOffUnsuccessfulResponseHandler(this.newBackOff())
+                    .setBackOffRequired(response -> isOverloaded(response.getStatusCode()));
+
+            request.setNumberOfRetries(this.maxRetries);
+            request.setInterceptor(r -> {
+                if (interceptor != null) {
+                    interceptor.intercept(r);
+                }
+                this.acquire();
+            });
+            request.setUnsuccessfulResponseHandler((r, response, supportsRetry) -> {
+                if (handler != null && handler.handleResponse(r, response, supportsRetry)) {
+                    return true;
+                }
+                return this.backOff(backOff, r, response, supportsRetry);
+            });
+        };
+    }
+
+    private boolean backOff(HttpBackOffUnsuccessfulResponseHandler backOff, HttpRequest request,
+                            HttpResponse response, boolean supportsRetry) throws IOException {
+        int status = response.getStatusCode();
+        if (!isOverloaded(status)) {
+            return false;
+        }
+        if (this.bucket != null) {
+            this.bucket.drain();
+        }
+
+        boolean retry = backOff.handleResponse(request, response, supportsRetry);
+        if (retry) {
+            log.warn("Sheets answered {} to {}, retrying with backoff", status, request.getRequestMethod());
+            this.registry.counter("telecentro.sheets.retries", "status", String.valueOf(status)).increment();
+        }
+        return retry;
+    }
+
+    private void acquire() throws IOException {
+        if (this.bucket == null) {
+            return;
+        }
+
+        long waited;
+        try {
+            waited = this.bucket.acquire(this.maxWaitNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the Sheets rate limit");
+        }
+
+        if (waited < 0) {
+            this.rejected.increment();
+            throw new SheetsQuotaExceeded();
+        }
+        this.waits.record(waited, TimeUnit.NANOSECONDS);
+    }
+
+    private ExponentialBackOff newBackOff() {
+        return new ExponentialBackOff.Builder()
+                .setInitialIntervalMillis(this.initialBackoffMs)
+                .setMaxIntervalMillis(this.maxBackoffMs)
+                .setMultiplier(2)
+                .setRandomizationFactor(0.5)
+                .build();
+    }
+
+    private static boolean isOverloaded(int status) {
+        return status == 429 || status == 503;
+    }
+}
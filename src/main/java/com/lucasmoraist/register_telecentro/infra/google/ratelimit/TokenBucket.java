@@ -0,0 +1,75 @@
+package com.lucasmoraist.register_telecentro.infra.google.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token bucket refilled continuously at a fixed rate. A caller that finds the bucket empty reserves the next token
+ * and sleeps until it is due, outside the lock, so waiters are served in arrival order without blocking each other.
+ *
+ * @author lucasmoraist
+ */
+class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(int capacity, int tokensPerMinute) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Takes a token, waiting for it if the bucket is empty.
+     *
+     * @param maxWaitNanos the longest the caller is willing to wait
+     * @return the time waited in nanoseconds, or -1 if the token would not be available within maxWaitNanos
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    long acquire(long maxWaitNanos) throws InterruptedException {
+        long waitNanos;
+        this.lock.lock();
+        try {
+            this.refill();
+            if (this.tokens >= 1) {
+                this.tokens -= 1;
+                return 0;
+            }
+            waitNanos = (long) Math.ceil((1 - this.tokens) / this.tokensPerNano);
+            if (waitNanos > maxWaitNanos) {
+                return -1;
+            }
+            this.tokens -= 1;
+        } finally {
+            this.lock.unlock();
+        }
+
+        TimeUnit.NANOSECONDS.sleep(waitNanos);
+        return waitNanos;
+    }
+
+    /**
+     * Empties the bucket, so that callers slow down to the refill rate after the server signalled it is overloaded.
+     */
+    void drain() {
+        this.lock.lock();
+        try {
+            this.refill();
+            this.tokens = Math.min(this.tokens, 0);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        this.tokens = Math.min(this.capacity, this.tokens + (now - this.lastRefill) * this.tokensPerNano);
+        this.lastRefill = now;
+    }
+}
@@ -0,0 +1,345 @@
+package com.lucasmoraist.register_telecentro.infra.google.transport;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * google-http-client transport backed by the JDK {@link HttpClient}. A single client is shared by every Sheets call,
+ * so connections are kept alive and reused, and HTTP/2 is negotiated with Google, multiplexing concurrent calls over
+ * one TLS connection. The number of requests in flight is bounded by a semaphore, whose permit is held until the
+ * response body is closed or disconnected. The read timeout bounds the wait for the response headers and then every
+ * wait for the next chunk of the body, so a response that stalls midway fails instead of blocking its caller.
+ *
+ * @author lucasmoraist
+ */
+public class JdkHttpTransport extends HttpTransport {
+
+    private static final Set<String> RESTRICTED_HEADERS = Set.of("connection", "content-length", "expect", "host", "upgrade");
+
+    private final HttpClient client;
+    private final Semaphore inFlight;
+
+    public JdkHttpTransport(HttpClient client, int maxConcurrentRequests) {
+        this.client = client;
+        this.inFlight = new Semaphore(maxConcurrentRequests, true);
+    }
+
+    @Override
+    protected LowLevelHttpRequest buildRequest(String method, String url) {
+        return new JdkRequest(method, url);
+    }
+
+    @Override
+    public void shutdown() {
+        this.client.close();
+    }
+
+    private final class JdkRequest extends LowLevelHttpRequest {
+
+        private final HttpRequest.Builder builder;
+        private final String method;
+        private long readTimeoutMs;
+
+        JdkRequest(String method, String url) {
+            this.method = method;
+            this.builder = HttpRequest.newBuilder(URI.create(url));
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!RESTRICTED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                this.builder.header(name, value);
+            }
+        }
+
+        @Override
+        public void setTimeout(int connectTimeout, int readTimeout) {
+            if (readTimeout > 0) {
+                this.builder.timeout(Duration.ofMillis(readTimeout));
+            }
+            this.readTimeoutMs = readTimeout;
+        }
+
+        @Override
+        public LowLevelHttpResponse execute() throws IOException {
+            if (this.getContentType() != null) {
+                this.builder.header("Content-Type", this.getContentType());
+            }
+            if (this.getContentEncoding() != null) {
+                this.builder.header("Content-Encoding", this.getContentEncoding());
+            }
+            this.builder.method(this.method, this.body());
+
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while calling " + this.method);
+            }
+
+            BodyStream body = new BodyStream(this.readTimeoutMs);
+            boolean sent = false;
+            try {
+                HttpResponse<InputStream> response = client.send(this.builder.build(), info -> body);
+                sent = true;
+                return new JdkResponse(response, "HEAD".equals(this.method));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while calling " + this.method);
+            } finally {
+                if (!sent) {
+                    body.close();
+                }
+            }
+        }
+
+        private HttpRequest.BodyPublisher body() throws IOException {
+            // google-http-client 1.44 hands the body over only as (deprecated) StreamingContent, gzip-wrapped by
+            // the Sheets client, so it is written without naming that type
+            if (this.getStreamingContent() == null) {
+                return HttpRequest.BodyPublishers.noBody();
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            this.getStreamingContent().writeTo(out);
+            return HttpRequest.BodyPublishers.ofByteArray(out.toByteArray());
+        }
+    }
+
+    private static final class JdkResponse extends LowLevelHttpResponse {
+
+        private final HttpResponse<InputStream> response;
+        private final List<String> headerNames = new ArrayList<>();
+        private final List<String> headerValues = new ArrayList<>();
+
+        JdkResponse(HttpResponse<InputStream> response, boolean head) throws IOException {
+            this.response = response;
+            response.headers().map().forEach((name, values) -> {
+                for (String value : values) {
+                    this.headerNames.add(name);
+                    this.headerValues.add(value);
+                }
+            });
+            // google-http-client never reads a response without a message body, so free its permit right away
+            int status = response.statusCode();
+            if (head || status == 204 || status == 304) {
+                response.body().close();
+            }
+        }
+
+        @Override
+        public InputStream getContent() {
+            return this.response.body();
+        }
+
+        @Override
+        public String getContentEncoding() {
+            return this.response.headers().firstValue("Content-Encoding").orElse(null);
+        }
+
+        @Override
+        public long getContentLength() {
+            return this.response.headers().firstValueAsLong("Content-Length").orElse(-1);
+        }
+
+        @Override
+        public String getContentType() {
+            return this.response.headers().firstValue("Content-Type").orElse(null);
+        }
+
+        @Override
+        public String getStatusLine() {
+            String version = this.response.version() == HttpClient.Version.HTTP_2 ? "HTTP/2" : "HTTP/1.1";
+            return version + " " + this.response.statusCode();
+        }
+
+        @Override
+        public int getStatusCode() {
+            return this.response.statusCode();
+        }
+
+        @Override
+        public String getReasonPhrase() {
+            return null;
+        }
+
+        @Override
+        public int getHeaderCount() {
+            return this.headerNames.size();
+        }
+
+        @Override
+        public String getHeaderName(int index) {
+            return this.headerNames.get(index);
+        }
+
+        @Override
+        public String getHeaderValue(int index) {
+            return this.headerValues.get(index);
+        }
+
+        @Override
+        public void disconnect() throws IOException {
+            this.response.body().close();
+        }
+    }
+
+    /**
+     * Response body handed to google-http-client. Chunks of the body are queued as they arrive and each read waits
+     * at most the read timeout for the next one. Closing the stream, by the caller or after a timeout, cancels the
+     * rest of the body and returns the in-flight permit of its request.
+     */
+    private final class BodyStream extends InputStream implements HttpResponse.BodySubscriber<InputStream> {
+
+        private static final List<ByteBuffer> END = List.of(ByteBuffer.allocate(0));
+
+        private final BlockingQueue<List<ByteBuffer>> chunks = new LinkedBlockingQueue<>();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final long readTimeoutMs;
+        private volatile Flow.Subscription subscription;
+        private volatile boolean closed;
+        private Throwable failure;
+        private Iterator<ByteBuffer> chunk = Collections.emptyIterator();
+        private ByteBuffer buffer;
+        private boolean ended;
+
+        BodyStream(long readTimeoutMs) {
+            this.readTimeoutMs = readTimeoutMs;
+        }
+
+        @Override
+        public CompletionStage<InputStream> getBody() {
+            return CompletableFuture.completedStage(this);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (this.closed) {
+                subscription.cancel();
+            } else {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            this.chunks.offer(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            this.failure = throwable;
+            this.chunks.offer(END);
+        }
+
+        @Override
+        public void onComplete() {
+            this.chunks.offer(END);
+        }
+
+        @Override
+        public int read() throws IOException {
+            ByteBuffer next = this.next();
+            return next == null ? -1 : next.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            ByteBuffer next = this.next();
+            if (next == null) {
+                return -1;
+            }
+            int read = Math.min(length, next.remaining());
+            next.get(bytes, offset, read);
+            return read;
+        }
+
+        @Override
+        public void close() {
+            this.closed = true;
+            Flow.Subscription current = this.subscription;
+            if (current != null) {
+                current.cancel();
+            }
+            this.chunks.offer(END);
+            if (this.released.compareAndSet(false, true)) {
+                inFlight.release();
+            }
+        }
+
+        private ByteBuffer next() throws IOException {
+            while (this.buffer == null || !this.buffer.hasRemaining()) {
+                if (this.closed) {
+                    throw new IOException("Response body already closed");
+                }
+                if (this.chunk.hasNext()) {
+                    this.buffer = this.chunk.next();
+                    continue;
+                }
+                if (this.ended) {
+                    return null;
+                }
+
+                List<ByteBuffer> item = this.take();
+                if (item == END) {
+                    this.ended = true;
+                    if (this.failure != null) {
+                        throw new IOException("Response body failed", this.failure);
+                    }
+                } else {
+                    this.chunk = item.iterator();
+                    this.subscription.request(1);
+                }
+            }
+            return this.buffer;
+        }
+
+        private List<ByteBuffer> take() throws IOException {
+            try {
+                if (this.readTimeoutMs <= 0) {
+                    return this.chunks.take();
+                }
+                List<ByteBuffer> item = this.chunks.poll(this.readTimeoutMs, TimeUnit.MILLISECONDS);
+                if (item == null) {
+                    this.close();
+                    throw new HttpTimeoutException("No response data received for " + this.readTimeoutMs + " ms");
+                }
+                return item;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                this.close();
+                throw new InterruptedIOException("Interrupted while reading the response body");
+            }
+        }
+    }
+}
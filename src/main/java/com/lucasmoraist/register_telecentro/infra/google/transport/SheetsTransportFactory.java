@@ -0,0 +1,81 @@
+package com.lucasmoraist.register_telecentro.infra.google.transport;
+
+import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpTransport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+
+/**
+ * Builds the HTTP transport of the Sheets client and applies the configured timeouts to its requests.
+ * {@code telecentro.sheets.http.client} selects the transport:
+ * <ul>
+ *     <li>{@code jdk} (default): {@link JdkHttpTransport}, a shared JDK HttpClient with keep-alive, HTTP/2 and a
+ *     bound on concurrent requests;</li>
+ *     <li>{@code net-http}: the former {@code GoogleNetHttpTransport}, backed by HttpURLConnection.</li>
+ * </ul>
+ * Responses are gzip-compressed with both, since the Google client sends {@code Accept-Encoding: gzip} on every
+ * request and decodes the response itself.
+ *
+ * @author lucasmoraist
+ */
+@Slf4j
+@Component
+public class SheetsTransportFactory {
+
+    @Value("${telecentro.sheets.http.client:jdk}")
+    private String client;
+    @Value("${telecentro.sheets.http.connect-timeout-ms:5000}")
+    private int connectTimeoutMs;
+    @Value("${telecentro.sheets.http.read-timeout-ms:30000}")
+    private int readTimeoutMs;
+    @Value("${telecentro.sheets.http.max-concurrent-requests:16}")
+    private int maxConcurrentRequests;
+
+    /**
+     * Creates the transport selected by {@code telecentro.sheets.http.client}.
+     *
+     * @return the transport to build the Sheets client with
+     * @throws GeneralSecurityException if the trusted key store of the net-http transport cannot be loaded
+     * @throws IOException              if the trusted key store of the net-http transport cannot be read
+     */
+    public HttpTransport transport() throws GeneralSecurityException, IOException {
+        if ("net-http".equals(this.client)) {
+            log.info("Using the HttpURLConnection transport for the Sheets client");
+            return GoogleNetHttpTransport.newTrustedTransport();
+        }
+
+        log.info("Using the JDK HttpClient transport for the Sheets client, with up to {} concurrent requests",
+                this.maxConcurrentRequests);
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(this.connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .proxy(ProxySelector.getDefault())
+                .build();
+        return new JdkHttpTransport(httpClient, this.maxConcurrentRequests);
+    }
+
+    /**
+     * Wraps a request initializer, setting the configured connect and read timeouts on every request.
+     *
+     * @param delegate the initializer to be wrapped, or null
+     * @return the initializer to build the Sheets client with
+     */
+    public HttpRequestInitializer initializer(HttpRequestInitializer delegate) {
+        return request -> {
+            if (delegate != null) {
+                delegate.initialize(request);
+            }
+            request.setConnectTimeout(this.connectTimeoutMs);
+            request.setReadTimeout(this.readTimeoutMs);
+        };
+    }
+}
@@ -0,0 +1,182 @@
+package com.lucasmoraist.register_telecentro.infra.idempotency;
+
+import com.lucasmoraist.register_telecentro.exceptions.IdempotencyKeyReused;
+import com.lucasmoraist.register_telecentro.infra.concurrent.BackgroundThreads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers the requests made with an {@code Idempotency-Key} header, so that a client retrying a request gets the
+ * original outcome instead of running it again. Concurrent requests with the same key are coalesced: the first one
+ * runs the operation and the others wait for it.
+ * <p>
+ * Only successful outcomes are kept, for {@code ttl-ms}; a failed operation forgets its key, so the retry runs it
+ * again. The store holds at most {@code max-keys} keys and evicts the oldest completed ones first; expired keys are
+ * swept every {@code sweep-interval-ms}.
+ *
+ * @author lucasmoraist
+ */
+@Slf4j
+@Component
+public class IdempotentRequests {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Map.Entry<String, Entry>> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final long ttlMs;
+    private final int maxKeys;
+    private final long sweepIntervalMs;
+    private final ScheduledExecutorService sweeper;
+    private final Counter replays;
+
+    public IdempotentRequests(@Value("${telecentro.idempotency.ttl-ms:86400000}") long ttlMs,
+                              @Value("${telecentro.idempotency.max-keys:10000}") int maxKeys,
+                              @Value("${telecentro.idempotency.sweep-interval-ms:60000}") long sweepIntervalMs,
+                              BackgroundThreads backgroundThreads,
+                              MeterRegistry registry) {
+        this.ttlMs = ttlMs;
+        this.maxKeys = maxKeys;
+        this.sweepIntervalMs = sweepIntervalMs;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(backgroundThreads.factory("idempotency-sweep"));
+        this.replays = Counter.builder("telecentro.idempotency.replays")
+                .description("Requests answered with the outcome of an earlier request with the same Idempotency-Key")
+                .register(registry);
+        Gauge.builder("telecentro.idempotency.keys", this.entries, Map::size)
+                .description("Idempotency keys currently remembered")
+                .register(registry);
+    }
+
+    @PostConstruct
+    public void start() {
+        this.sweeper.scheduleWithFixedDelay(this::sweep, this.sweepIntervalMs, this.sweepIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        this.sweeper.shutdownNow();
+    }
+
+    /**
+     * Runs an operation once per idempotency key.
+     *
+     * @param key         the value of the Idempotency-Key header
+     * @param fingerprint the request the key was sent with, compared with equals on every reuse of the key
+     * @param operation   the operation to be run
+     * @return true if the operation was not run because an earlier request with the same key succeeded
+     * @throws IdempotencyKeyReused if the key was already used with a different request
+     * @throws IOException          if the operation, or the request it was coalesced with, fails
+     */
+    public boolean execute(String key, Object fingerprint, Operation operation) throws IOException {
+        Entry mine = new Entry(fingerprint, new CompletableFuture<>(), System.currentTimeMillis());
+
+        Entry current = this.entries.putIfAbsent(key, mine);
+        while (current != null && current.isExpired(this.ttlMs)) {
+            this.forget(key, current);
+            current = this.entries.putIfAbsent(key, mine);
+        }
+
+        if (current != null) {
+            if (!Objects.equals(current.fingerprint(), fingerprint)) {
+                log.error("Idempotency-Key {} reused with a different request", key);
+                throw new IdempotencyKeyReused();
+            }
+            this.await(current);
+            this.replays.increment();
+            log.info("Replaying the outcome of Idempotency-Key {}", key);
+            return true;
+        }
+
+        this.insertionOrder.add(Map.entry(key, mine));
+        this.evict();
+        try {
+            operation.run();
+            mine.result().complete(null);
+            return false;
+        } catch (IOException | RuntimeException e) {
+            this.forget(key, mine);
+            mine.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void await(Entry entry) throws IOException {
+        try {
+            entry.result().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a request with the same Idempotency-Key");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("The request with the same Idempotency-Key failed", e.getCause());
+        }
+    }
+
+    /**
+     * Forgets the expired keys. Keys are kept in insertion order, so the sweep stops at the first one still valid.
+     */
+    void sweep() {
+        Map.Entry<String, Entry> oldest;
+        while ((oldest = this.insertionOrder.peek()) != null && oldest.getValue().isExpired(this.ttlMs)) {
+            this.insertionOrder.remove(oldest);
+            this.entries.remove(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    private void forget(String key, Entry entry) {
+        if (this.entries.remove(key, entry)) {
+            this.insertionOrder.remove(Map.entry(key, entry));
+        }
+    }
+
+    private void evict() {
+        while (this.entries.size() > this.maxKeys) {
+            Map.Entry<String, Entry> oldest = this.insertionOrder.peek();
+            if (oldest == null || !oldest.getValue().result().isDone()) {
+                return;
+            }
+            this.insertionOrder.remove(oldest);
+            this.entries.remove(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    /**
+     * An operation that may fail with an IOException.
+     */
+    @FunctionalInterface
+    public interface Operation {
+        void run() throws IOException;
+    }
+
+    private record Entry(Object fingerprint, CompletableFuture<Void> result, long createdAt) {
+
+        boolean isExpired(long ttlMs) {
+            return this.result.isDone() && System.currentTimeMillis() - this.createdAt > ttlMs;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.lucasmoraist.register_telecentro.infra.startup;
+
+import com.google.api.services.sheets.v4.Sheets;
+import com.lucasmoraist.register_telecentro.infra.concurrent.BackgroundThreads;
+import com.lucasmoraist.register_telecentro.infra.google.metrics.SheetsMetrics;
+import com.lucasmoraist.register_telecentro.repository.CourseRepository;
+import com.lucasmoraist.register_telecentro.repository.impl.IndexedPersonRepository;
+import com.lucasmoraist.register_telecentro.repository.shard.RegistrationShards;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Warms the application up before it reports itself ready: the Sheets client makes a cheap metadata call, which
+ * waits for the credentials and opens the connection, while the RG index and the course cache are loaded. The three
+ * tasks run in parallel and the readiness state only changes once they are done, since Spring Boot publishes it
+ * after the ApplicationReadyEvent listeners return.
+ * <p>
+ * The warm-up is recorded as the {@code telecentro.warmup} startup step, visible in {@code /actuator/startup},
+ * and each task in the {@code telecentro.startup.warmup} timer.
+ *
+ * @author lucasmoraist
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StartupWarmup {
+
+    private final Sheets sheetsService;
+    private final SheetsMetrics sheetsMetrics;
+    private final IndexedPersonRepository personRepository;
+    private final CourseRepository courseRepository;
+    private final RegistrationShards shards;
+    private final BackgroundThreads backgroundThreads;
+    private final ApplicationStartup applicationStartup;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${telecentro.startup.warmup-timeout-ms:30000}")
+    private long timeoutMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        StartupStep step = this.applicationStartup.start("telecentro.warmup");
+        long start = System.nanoTime();
+
+        Map<String, CompletableFuture<Long>> tasks = new LinkedHashMap<>();
+        tasks.put("sheets-metadata", this.run("sheets-metadata", this::prewarmSheets));
+        tasks.put("rg-index", this.run("rg-index", this.personRepository::buildIndex));
+        tasks.put("course-cache", this.run("course-cache", this.courseRepository::listAll));
+
+        try {
+            CompletableFuture.allOf(tasks.values().toArray(CompletableFuture[]::new))
+                    .get(this.timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Warm-up did not finish in {} ms, reporting ready anyway", this.timeoutMs);
+        } catch (ExecutionException e) {
+            log.warn("Warm-up failed, the remaining work will happen on first use: {}", e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        tasks.forEach((name, task) -> step.tag(name, describe(task)));
+        step.end();
+        log.info("Warm-up finished in {} ms: {}", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), tasks.keySet());
+    }
+
+    private void prewarmSheets() throws IOException {
+        for (String spreadsheetId : this.shards.spreadsheetIds()) {
+            this.sheetsMetrics.execute(this.sheetsService.spreadsheets()
+                    .get(spreadsheetId)
+                    .setPrettyPrint(false)
+                    .setFields("spreadsheetId"), "metadata", "");
+        }
+    }
+
+    private CompletableFuture<Long> run(String name, WarmupTask task) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } catch (IOException | RuntimeException e) {
+                this.record(name, "failure", start);
+                throw new IllegalStateException(name + " failed: " + e.getMessage(), e);
+            }
+            return this.record(name, "success", start);
+        }, runnable -> this.backgroundThreads.start("warmup-" + name, runnable));
+    }
+
+    private long record(String name, String outcome, long start) {
+        long nanos = System.nanoTime() - start;
+        this.meterRegistry.timer("telecentro.startup.warmup", "task", name, "outcome", outcome)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        log.info("Warm-up task {} finished with {} in {} ms", name, outcome, TimeUnit.NANOSECONDS.toMillis(nanos));
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static String describe(CompletableFuture<Long> task) {
+        if (!task.isDone()) {
+            return "timeout";
+        }
+        return task.isCompletedExceptionally() ? "failed" : task.join() + "ms";
+    }
+
+    @FunctionalInterface
+    private interface WarmupTask {
+        void run() throws IOException;
+    }
+}
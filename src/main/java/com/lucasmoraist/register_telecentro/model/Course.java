@@ -1,9 +1,12 @@
 package com.lucasmoraist.register_telecentro.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 /**
  * This class represents a course that will be registered in the system
  *
@@ -15,6 +18,28 @@ import lombok.NoArgsConstructor;
 public class Course {
 
     private String nameCourse;
+
+    /**
+     * The chosen session of a registration. When listing courses, every session joined with ", ", kept for the
+     * clients that do not read {@link #sessions} yet.
+     */
     private String dateAndTime;
 
+    /**
+     * Seats of every session of the course, or null when the courses tab gives it no capacity.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer capacity;
+
+    /**
+     * The sessions of the course, in the order of the courses tab. Only filled in when listing courses.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Session> sessions;
+
+    public Course(String nameCourse, String dateAndTime) {
+        this.nameCourse = nameCourse;
+        this.dateAndTime = dateAndTime;
+    }
+
 }
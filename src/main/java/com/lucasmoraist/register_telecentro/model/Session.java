@@ -0,0 +1,37 @@
+package com.lucasmoraist.register_telecentro.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * This class represents a session (class time slot) of a course, parsed from a cell of the courses tab such as
+ * {@code Segunda-feira 09:00 - 11:00}. The typed fields are null when the cell does not follow that format.
+ *
+ * @author lucasmoraist
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Session {
+
+    private int id;
+    private String dateAndTime;
+    private DayOfWeek dayOfWeek;
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime startTime;
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime endTime;
+
+    /**
+     * Seats left in the session, or null when the course has no capacity.
+     */
+    private Integer remainingSeats;
+
+}
@@ -0,0 +1,20 @@
+package com.lucasmoraist.register_telecentro.model.dto;
+
+/**
+ * Outcome of a single row of a bulk registration import.
+ *
+ * @param line    the line of the row in the CSV, or its position in the JSON array (both 1-based)
+ * @param rg      the RG of the row, if it could be read
+ * @param status  the outcome of the row
+ * @param message details about the outcome, or null when the row was saved
+ */
+public record BulkRowResult(int line, String rg, Status status, String message) {
+
+    public enum Status {
+        SAVED,
+        DUPLICATE,
+        FULL,
+        INVALID,
+        FAILED
+    }
+}
@@ -0,0 +1,25 @@
+package com.lucasmoraist.register_telecentro.model.dto;
+
+/**
+ * Criteria to filter registrations by. Every criterion is optional: a null value matches every registration, and
+ * text values are compared like the sheet lookups, ignoring case and surrounding spaces.
+ *
+ * @param courseName  the course name
+ * @param courseDate  the course date and time of the session
+ * @param rg          the RG
+ * @param isConfirmed the value of the confirmation column
+ * @param minAge      the minimum age, inclusive
+ * @param maxAge      the maximum age, inclusive
+ */
+public record RegistrationFilter(String courseName, String courseDate, String rg, String isConfirmed,
+                                 Integer minAge, Integer maxAge) {
+
+    /**
+     * Returns a filter that matches every registration.
+     *
+     * @return the filter
+     */
+    public static RegistrationFilter all() {
+        return new RegistrationFilter(null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,12 @@
+package com.lucasmoraist.register_telecentro.model.dto;
+
+/**
+ * Minimal view of a registration row used to build lookup indexes without downloading the whole row.
+ *
+ * @param row        the spreadsheet row number (1-based, header included)
+ * @param courseName the course name stored in the row
+ * @param rg         the RG stored in the row
+ * @param courseDate the course date and time stored in the row
+ */
+public record RegistrationKey(int row, String courseName, String rg, String courseDate) {
+}
@@ -1,6 +1,8 @@
 package com.lucasmoraist.register_telecentro.repository;
 
 import com.lucasmoraist.register_telecentro.model.Person;
+import com.lucasmoraist.register_telecentro.model.dto.RegistrationKey;
+import com.lucasmoraist.register_telecentro.repository.snapshot.RegistrationSnapshot;
 
 import java.io.IOException;
 import java.util.List;
@@ -12,8 +14,11 @@ import java.util.List;
  * @author lucasmoraist
  */
 public interface PersonRepository {
-    int getNextAvailableRow() throws IOException;
-    void savePersonData(Person person, String range) throws IOException;
+    int savePersonData(Person person) throws IOException;
+    int[] appendPersonData(List<Person> persons) throws IOException;
     List<Person> listPersonByRg(String rg) throws IOException;
     boolean isRgAndCourseDateAlreadyRegistered(String rg, String courseDate) throws IOException;
+    List<Person> listPersonByRows(List<Integer> rows) throws IOException;
+    List<RegistrationKey> listRegistrationKeys() throws IOException;
+    RegistrationSnapshot readSnapshot() throws IOException;
 }
@@ -0,0 +1,180 @@
+package com.lucasmoraist.register_telecentro.repository.impl;
+
+import com.lucasmoraist.register_telecentro.infra.concurrent.BackgroundThreads;
+import com.lucasmoraist.register_telecentro.model.Course;
+import com.lucasmoraist.register_telecentro.model.dto.UpdateCourse;
+import com.lucasmoraist.register_telecentro.repository.CourseRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * CourseRepository decorator that serves the courses from memory. A background thread refreshes the snapshot
+ * ahead of its expiration, so readers only wait on Google Sheets for the very first load. A refresh whose
+ * rows are equal to the previous ones skips the mapping and keeps the current snapshot. Every new snapshot
+ * updates the session capacities of {@link SessionSeats}.
+ * <p>
+ * Refreshes run one at a time, under the same lock as the first load, so a slow fetch started before a course
+ * update can never publish its older rows over the snapshot taken after the update.
+ *
+ * @author lucasmoraist
+ * @see CourseImpl
+ */
+@Slf4j
+@Primary
+@Service
+public class CachedCourseRepository implements CourseRepository {
+
+    private final CourseImpl delegate;
+    private final SessionSeats seats;
+    private final long ttlMs;
+    private final long refreshAheadMs;
+    private final ScheduledExecutorService refresher;
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder unchangedRefreshes = new LongAdder();
+
+    private volatile Snapshot snapshot;
+
+    public CachedCourseRepository(CourseImpl delegate,
+                                  SessionSeats seats,
+                                  MeterRegistry meterRegistry,
+                                  BackgroundThreads backgroundThreads,
+                                  @Value("${telecentro.courses.cache.ttl-ms:60000}") long ttlMs,
+                                  @Value("${telecentro.courses.cache.refresh-ahead-ms:45000}") long refreshAheadMs) {
+        this.delegate = delegate;
+        this.seats = seats;
+        this.ttlMs = ttlMs;
+        this.refreshAheadMs = refreshAheadMs;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(backgroundThreads.factory("course-cache-refresh"));
+
+        FunctionCounter.builder("telecentro.courses.cache.hits", this.hits, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("telecentro.courses.cache.misses", this.misses, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("telecentro.courses.cache.refreshes", this.refreshes, LongAdder::sum).register(meterRegistry);
+        FunctionCounter.builder("telecentro.courses.cache.refreshes.unchanged", this.unchangedRefreshes, LongAdder::sum)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Schedules the refresh ahead of expiration. The first load is done by the startup warm-up, through listAll.
+     */
+    @PostConstruct
+    public void start() {
+        this.refresher.scheduleWithFixedDelay(this::refreshQuietly, this.refreshAheadMs, this.refreshAheadMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        this.refresher.shutdownNow();
+    }
+
+    /**
+     * Returns the cached courses. Only the first call, normally made by the startup warm-up, reads
+     * Google Sheets; an expired snapshot is still served while a refresh runs in the background.
+     *
+     * @return the list of courses
+     * @throws IOException if the first load fails
+     */
+    @Override
+    public List<Course> listAll() throws IOException {
+        Snapshot current = this.snapshot;
+        if (current == null) {
+            this.misses.increment();
+            return this.loadOnMiss();
+        }
+
+        this.hits.increment();
+        if (System.currentTimeMillis() - current.loadedAt() > this.ttlMs && this.refreshing.compareAndSet(false, true)) {
+            log.debug("Course cache expired, refreshing in background");
+            this.refresher.execute(() -> {
+                try {
+                    this.refreshQuietly();
+                } finally {
+                    this.refreshing.set(false);
+                }
+            });
+        }
+        return current.courses();
+    }
+
+    /**
+     * Updates the course in the sheet and reloads the snapshot right away, so the change is visible on the next read.
+     *
+     * @param updateCourse the course name and its new sessions
+     * @throws IOException if the update or the reload fails
+     */
+    @Override
+    public void update(UpdateCourse updateCourse) throws IOException {
+        this.delegate.update(updateCourse);
+        this.refresh();
+    }
+
+    private List<Course> loadOnMiss() throws IOException {
+        this.loadLock.lock();
+        try {
+            if (this.snapshot == null) {
+                this.refresh();
+            }
+            return this.snapshot.courses();
+        } finally {
+            this.loadLock.unlock();
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            this.refresh();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to refresh the course cache, serving the previous snapshot: {}", e.getMessage());
+        }
+    }
+
+    private void refresh() throws IOException {
+        this.loadLock.lock();
+        try {
+            this.fetchAndPublish();
+        } finally {
+            this.loadLock.unlock();
+        }
+    }
+
+    private void fetchAndPublish() throws IOException {
+        List<List<Object>> fetched = this.delegate.fetchRows();
+        List<List<Object>> rows = fetched == null ? List.of() : fetched;
+        this.refreshes.increment();
+
+        Snapshot current = this.snapshot;
+        if (current != null && current.rows().equals(rows)) {
+            this.unchangedRefreshes.increment();
+            this.snapshot = new Snapshot(current.courses(), current.rows(), System.currentTimeMillis());
+            log.debug("Course payload unchanged, keeping the current snapshot");
+            return;
+        }
+
+        List<Course> courses = List.copyOf(this.delegate.toCourses(rows));
+        this.seats.updateCapacities(courses);
+        this.snapshot = new Snapshot(courses, rows, System.currentTimeMillis());
+        log.info("Course cache refreshed");
+    }
+
+    private record Snapshot(List<Course> courses, List<List<Object>> rows, long loadedAt) {
+    }
+}
@@ -1,8 +1,13 @@
 package com.lucasmoraist.register_telecentro.repository.impl;
 
 import com.google.api.services.sheets.v4.Sheets;
+import com.google.api.services.sheets.v4.model.BatchUpdateValuesRequest;
 import com.google.api.services.sheets.v4.model.ValueRange;
+import com.lucasmoraist.register_telecentro.exceptions.ResourceNotFound;
+import com.lucasmoraist.register_telecentro.infra.google.metrics.SheetsMetrics;
 import com.lucasmoraist.register_telecentro.model.Course;
+import com.lucasmoraist.register_telecentro.model.Session;
+import com.lucasmoraist.register_telecentro.model.dto.UpdateCourse;
 import com.lucasmoraist.register_telecentro.repository.CourseRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -10,18 +15,45 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class CourseImpl implements CourseRepository {
 
+    private static final String COURSES_RANGE = "Cursos!A1:Z";
+    /**
+     * Header of the column of the courses tab holding the capacity of the courses.
+     */
+    static final String CAPACITY_HEADER = "Vagas";
+    private static final Pattern SESSION_PATTERN = Pattern.compile("^(\\S+)\\s+(\\d{1,2}:\\d{2})\\s*-\\s*(\\d{1,2}:\\d{2})$");
+    private static final Map<String, DayOfWeek> DAYS = Map.of(
+            "SEGUNDA", DayOfWeek.MONDAY,
+            "TERÇA", DayOfWeek.TUESDAY,
+            "TERCA", DayOfWeek.TUESDAY,
+            "QUARTA", DayOfWeek.WEDNESDAY,
+            "QUINTA", DayOfWeek.THURSDAY,
+            "SEXTA", DayOfWeek.FRIDAY,
+            "SÁBADO", DayOfWeek.SATURDAY,
+            "SABADO", DayOfWeek.SATURDAY,
+            "DOMINGO", DayOfWeek.SUNDAY
+    );
+
     @Value("${google.sheets.spreadsheet.id}")
     private String spreadsheetId;
 
     private final Sheets sheetsService;
+    private final SheetsMetrics sheetsMetrics;
+    private final SessionDictionary dictionary;
 
     /**
      * Retrieve a list of course information containing name and date/time.
@@ -31,36 +63,124 @@ public class CourseImpl implements CourseRepository {
      */
     @Override
     public List<Course> listAll() throws IOException {
-        String range = "Cursos!A2:Z";
+        return this.toCourses(this.fetchRows());
+    }
+
+    /**
+     * Retrieve the raw rows of the courses tab, header included, without mapping them.
+     *
+     * @return the rows of the courses tab, or null if the tab is empty
+     * @throws IOException if an error occurs while retrieving data from the Google Sheets
+     */
+    public List<List<Object>> fetchRows() throws IOException {
+        String range = COURSES_RANGE;
         log.info("Retrieving course information from range: {}", range);
 
-        ValueRange response = sheetsService.spreadsheets().values()
+        ValueRange response = sheetsMetrics.execute(sheetsService.spreadsheets().values()
                 .get(spreadsheetId, range)
-                .execute();
+                .setValueRenderOption("UNFORMATTED_VALUE")
+                .setDateTimeRenderOption("FORMATTED_STRING")
+                .setPrettyPrint(false)
+                .setFields("values"), "get", range);
+
+        return response.getValues();
+    }
 
-        List<List<Object>> values = response.getValues();
+    /**
+     * Replace the morning and afternoon sessions of a course, i.e. columns B and C of its row in the courses tab.
+     * A null time keeps the current session.
+     *
+     * @param updateCourse the course name and its new sessions
+     * @throws IOException if an error occurs while reading or writing the courses tab
+     */
+    @Override
+    public void update(UpdateCourse updateCourse) throws IOException {
+        if (updateCourse.courseName() == null || (updateCourse.morningTime() == null && updateCourse.afternoonTime() == null)) {
+            throw new IllegalArgumentException("The course name and at least one session are required");
+        }
+
+        int row = this.findRow(updateCourse.courseName());
+        List<ValueRange> data = new ArrayList<>(2);
+        if (updateCourse.morningTime() != null) {
+            data.add(new ValueRange().setRange("Cursos!B" + row).setValues(List.of(List.of(updateCourse.morningTime()))));
+        }
+        if (updateCourse.afternoonTime() != null) {
+            data.add(new ValueRange().setRange("Cursos!C" + row).setValues(List.of(List.of(updateCourse.afternoonTime()))));
+        }
+
+        log.info("Updating sessions of course: {} at row {}", updateCourse.courseName(), row);
+        BatchUpdateValuesRequest request = new BatchUpdateValuesRequest()
+                .setValueInputOption("RAW")
+                .setData(data);
+        sheetsMetrics.execute(sheetsService.spreadsheets().values()
+                .batchUpdate(spreadsheetId, request)
+                .setPrettyPrint(false)
+                .setFields("totalUpdatedCells"), "batchUpdate", data.get(0).getRange());
+    }
+
+    private int findRow(String courseName) throws IOException {
+        List<List<Object>> rows = this.fetchRows();
+        String normalizedName = RgIndex.normalize(courseName);
+        if (rows != null) {
+            for (int i = 1; i < rows.size(); i++) {
+                List<Object> row = rows.get(i);
+                if (!row.isEmpty() && RgIndex.normalize(row.get(0).toString()).equals(normalizedName)) {
+                    return i + 1;
+                }
+            }
+        }
+        log.error("Course: {} not found in the courses tab", courseName);
+        throw new ResourceNotFound("Course not found");
+    }
+
+    /**
+     * Map the raw rows of the courses tab to courses with their parsed sessions. Column A holds the course name and
+     * the column headed {@link #CAPACITY_HEADER} the capacity of every session of the course; every other non-blank
+     * cell is a session. Without that header the courses have no capacity. A capacity that is not a non-negative
+     * whole number is ignored with a warning, leaving the course without capacity. The sessions are also joined
+     * into {@code dateAndTime}, as before.
+     *
+     * @param values the rows of the courses tab, header first
+     * @return a list of CourseInfo objects containing course name and date/time
+     */
+    public List<Course> toCourses(List<List<Object>> values) {
         List<Course> courseInfoList = new ArrayList<>();
 
-        if (values == null || values.isEmpty()) {
+        if (values == null || values.size() < 2) {
             log.info("No course information found in the specified range.");
             return courseInfoList;
         }
 
-        for (List<Object> row : values) {
+        int capacityColumn = capacityColumn(values.get(0));
+        if (capacityColumn < 0) {
+            log.warn("No {} column in the header of the courses tab, the courses have no capacity", CAPACITY_HEADER);
+        }
+
+        for (List<Object> row : values.subList(1, values.size())) {
             if (!row.isEmpty()) {
                 String courseName = row.get(0).toString();
                 StringBuilder dateTimesBuilder = new StringBuilder();
+                List<Session> sessions = new ArrayList<>(row.size() - 1);
+                Integer capacity = null;
 
                 for (int i = 1; i < row.size(); i++) {
-                    if (i > 1) {
+                    if (i == capacityColumn) {
+                        capacity = capacityOf(courseName, row.get(i));
+                        continue;
+                    }
+                    if (row.get(i).toString().isBlank()) {
+                        continue;
+                    }
+                    if (!sessions.isEmpty()) {
                         dateTimesBuilder.append(", ");
                     }
-                    dateTimesBuilder.append(row.get(i).toString());
+                    String dateAndTime = row.get(i).toString();
+                    dateTimesBuilder.append(dateAndTime);
+                    sessions.add(toSession(this.dictionary.sessionId(courseName, dateAndTime), dateAndTime));
                 }
 
                 String dateTimes = dateTimesBuilder.toString();
-                Course courseInfo = new Course(courseName, dateTimes);
-                courseInfoList.add(courseInfo);
+                courseInfoList.add(new Course(courseName, dateTimes, capacity, List.copyOf(sessions)));
             }
         }
 
@@ -68,6 +188,78 @@ public class CourseImpl implements CourseRepository {
         return courseInfoList;
     }
 
+    /**
+     * Parses a session cell such as {@code Segunda-feira 09:00 - 11:00}. Cells in other formats keep only their text.
+     *
+     * @param id          the session id
+     * @param dateAndTime the session cell
+     * @return the session
+     */
+    static Session toSession(int id, String dateAndTime) {
+        Session session = new Session();
+        session.setId(id);
+        session.setDateAndTime(dateAndTime);
 
-}
+        Matcher matcher = SESSION_PATTERN.matcher(dateAndTime.trim());
+        if (!matcher.matches()) {
+            return session;
+        }
+
+        String day = matcher.group(1).toUpperCase(Locale.ROOT);
+        int suffix = day.indexOf('-');
+        session.setDayOfWeek(DAYS.get(suffix < 0 ? day : day.substring(0, suffix)));
+        try {
+            session.setStartTime(LocalTime.parse(padHour(matcher.group(2))));
+            session.setEndTime(LocalTime.parse(padHour(matcher.group(3))));
+        } catch (DateTimeParseException e) {
+            log.debug("Invalid time in session: {}", dateAndTime);
+        }
+        return session;
+    }
 
+    private static String padHour(String time) {
+        return time.length() == 4 ? "0" + time : time;
+    }
+
+    /**
+     * Finds the capacity column by its {@link #CAPACITY_HEADER} header.
+     *
+     * @param header the header row of the courses tab
+     * @return the index of the capacity column, or -1 if the header has none
+     */
+    static int capacityColumn(List<Object> header) {
+        for (int i = 1; i < header.size(); i++) {
+            if (RgIndex.normalize(header.get(i).toString()).equals(RgIndex.normalize(CAPACITY_HEADER))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads the capacity cell of a course: a number, as returned for unformatted values, or a string of digits.
+     *
+     * @param courseName the course name, for the warning
+     * @param cell       the capacity cell of the courses tab
+     * @return the capacity, or null if the cell is blank or not a non-negative whole number
+     */
+    static Integer capacityOf(String courseName, Object cell) {
+        if (cell instanceof Number number) {
+            double value = number.doubleValue();
+            if (value >= 0 && value <= Integer.MAX_VALUE && value == Math.rint(value)) {
+                return (int) value;
+            }
+        } else {
+            String value = cell.toString().trim();
+            if (value.isEmpty()) {
+                return null;
+            }
+            if (value.length() <= 9 && value.chars().allMatch(Character::isDigit)) {
+                return Integer.parseInt(value);
+            }
+        }
+        log.warn("Ignoring the capacity of course: {}, {} is not a whole number of seats", courseName, cell);
+        return null;
+    }
+
+}
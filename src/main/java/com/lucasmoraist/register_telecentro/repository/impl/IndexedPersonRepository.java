@@ -0,0 +1,197 @@
+package com.lucasmoraist.register_telecentro.repository.impl;
+
+import com.lucasmoraist.register_telecentro.exceptions.AppendPartiallyFailed;
+import com.lucasmoraist.register_telecentro.exceptions.ResourceNotFound;
+import com.lucasmoraist.register_telecentro.infra.concurrent.BackgroundThreads;
+import com.lucasmoraist.register_telecentro.model.Person;
+import com.lucasmoraist.register_telecentro.model.dto.RegistrationKey;
+import com.lucasmoraist.register_telecentro.repository.PersonRepository;
+import com.lucasmoraist.register_telecentro.repository.shard.RegistrationShards;
+import com.lucasmoraist.register_telecentro.repository.snapshot.RegistrationSnapshot;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * PersonRepository decorator that answers RG lookups from an in-memory {@link RgIndex} instead of scanning
+ * the RG column on every request. The index is built once at startup and kept up to date on every save; the same
+ * read seeds the seat counters of {@link SessionSeats}. Rows added or edited by hand in the sheet are picked up by
+ * an incremental {@link RegistrationSync} per shard every {@code telecentro.registrations.sync.interval-ms}.
+ *
+ * @author lucasmoraist
+ * @see PersonImpl
+ * @see RgIndex
+ */
+@Slf4j
+@Primary
+@Service
+public class IndexedPersonRepository implements PersonRepository {
+
+    private final PersonImpl delegate;
+    private final RgIndex index;
+    private final RegistrationShards shards;
+    private final List<RegistrationSync> syncs;
+    private final long syncIntervalMs;
+    private final ScheduledExecutorService syncer;
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile boolean loaded;
+
+    public IndexedPersonRepository(PersonImpl delegate,
+                                   RegistrationShards shards,
+                                   SessionSeats seats,
+                                   SessionDictionary dictionary,
+                                   BackgroundThreads backgroundThreads,
+                                   @Value("${telecentro.registrations.sync.interval-ms:30000}") long syncIntervalMs,
+                                   @Value("${telecentro.registrations.sync.window-rows:500}") int windowRows,
+                                   @Value("${telecentro.registrations.sync.max-appended-rows:1000}") int maxAppendedRows) {
+        this.delegate = delegate;
+        this.index = new RgIndex(dictionary);
+        this.shards = shards;
+        this.syncs = shards.all().stream()
+                .map(shard -> new RegistrationSync(delegate, shard, this.index, seats, windowRows, maxAppendedRows))
+                .toList();
+        this.syncIntervalMs = syncIntervalMs;
+        this.syncer = Executors.newSingleThreadScheduledExecutor(backgroundThreads.factory("registration-sync"));
+    }
+
+    /**
+     * Schedules the incremental sync. It only starts syncing once the index is built.
+     */
+    @PostConstruct
+    public void start() {
+        if (this.syncIntervalMs > 0) {
+            this.syncer.scheduleWithFixedDelay(this::syncQuietly, this.syncIntervalMs, this.syncIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        this.syncer.shutdownNow();
+    }
+
+    /**
+     * Builds the index; called by the startup warm-up before the application reports itself ready. If the sheet
+     * is unreachable the index is built on the first lookup instead.
+     */
+    public void buildIndex() {
+        try {
+            this.ensureLoaded();
+        } catch (IOException e) {
+            log.warn("Could not build the RG index at startup, it will be built on first use: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public int savePersonData(Person person) throws IOException {
+        return this.appendPersonData(List.of(person))[0];
+    }
+
+    /**
+     * Appends the persons and records their rows in the index. When the append fails on some shards only, the rows
+     * written to the others are recorded before the error is rethrown, so a retry finds them registered.
+     */
+    @Override
+    public int[] appendPersonData(List<Person> persons) throws IOException {
+        int[] rows;
+        try {
+            rows = this.delegate.appendPersonData(persons);
+        } catch (AppendPartiallyFailed e) {
+            this.recordAppended(persons, e.rows());
+            throw e;
+        }
+        this.recordAppended(persons, rows);
+        return rows;
+    }
+
+    @Override
+    public List<Person> listPersonByRg(String rg) throws IOException {
+        this.ensureLoaded();
+
+        List<Integer> rows = this.index.rowsOf(rg);
+        if (rows.isEmpty()) {
+            log.error("Person with RG: {} not found", rg);
+            throw new ResourceNotFound("Person with RG not found");
+        }
+
+        log.info("Found RG: {} at rows {}", rg, rows);
+        return this.delegate.listPersonByRows(rows);
+    }
+
+    @Override
+    public boolean isRgAndCourseDateAlreadyRegistered(String rg, String courseDate) throws IOException {
+        this.ensureLoaded();
+
+        boolean registered = this.index.contains(rg, courseDate);
+        log.info("RG: {} and Course Date: {} registered: {}", rg, courseDate, registered);
+        return registered;
+    }
+
+    @Override
+    public List<Person> listPersonByRows(List<Integer> rows) throws IOException {
+        return this.delegate.listPersonByRows(rows);
+    }
+
+    @Override
+    public List<RegistrationKey> listRegistrationKeys() throws IOException {
+        return this.delegate.listRegistrationKeys();
+    }
+
+    @Override
+    public RegistrationSnapshot readSnapshot() throws IOException {
+        return this.delegate.readSnapshot();
+    }
+
+    private void syncQuietly() {
+        if (!this.loaded) {
+            return;
+        }
+        for (RegistrationSync sync : this.syncs) {
+            try {
+                sync.sync();
+            } catch (IOException | RuntimeException e) {
+                log.warn("Failed to sync the registrations sheet, retrying on the next run: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void ensureLoaded() throws IOException {
+        if (this.loaded) {
+            return;
+        }
+        this.loadLock.lock();
+        try {
+            if (!this.loaded) {
+                int registrations = this.shards.fanOut(this.shards.all(), shard -> this.syncs.get(shard.index()).load())
+                        .stream().mapToInt(Integer::intValue).sum();
+                this.loaded = true;
+                log.info("RG index built with {} distinct RGs from {} registrations", this.index.size(), registrations);
+            }
+        } finally {
+            this.loadLock.unlock();
+        }
+    }
+
+    private void recordAppended(List<Person> persons, int[] rows) {
+        if (!this.loaded) {
+            return;
+        }
+        for (int i = 0; i < persons.size(); i++) {
+            if (rows[i] == 0) {
+                continue;
+            }
+            Person person = persons.get(i);
+            this.syncs.get(this.shards.shardOf(rows[i]).index()).recordAppended(new RegistrationKey(rows[i],
+                    person.getCourse().getNameCourse(), person.getRg(), person.getCourse().getDateAndTime()));
+        }
+    }
+}
@@ -1,27 +1,38 @@
 package com.lucasmoraist.register_telecentro.repository.impl;
 
 import com.google.api.services.sheets.v4.Sheets;
-import com.google.api.services.sheets.v4.model.BatchUpdateValuesRequest;
+import com.google.api.services.sheets.v4.model.AppendValuesResponse;
+import com.google.api.services.sheets.v4.model.BatchGetValuesResponse;
 import com.google.api.services.sheets.v4.model.ValueRange;
+import com.lucasmoraist.register_telecentro.exceptions.AppendPartiallyFailed;
 import com.lucasmoraist.register_telecentro.exceptions.ResourceNotFound;
 import com.lucasmoraist.register_telecentro.exceptions.SendMailException;
+import com.lucasmoraist.register_telecentro.infra.google.metrics.SheetsMetrics;
 import com.lucasmoraist.register_telecentro.model.Course;
 import com.lucasmoraist.register_telecentro.model.Person;
+import com.lucasmoraist.register_telecentro.model.dto.RegistrationKey;
 import com.lucasmoraist.register_telecentro.repository.PersonRepository;
+import com.lucasmoraist.register_telecentro.repository.shard.RegistrationShards;
+import com.lucasmoraist.register_telecentro.repository.shard.Shard;
+import com.lucasmoraist.register_telecentro.repository.shard.ShardResult;
+import com.lucasmoraist.register_telecentro.repository.snapshot.RegistrationSnapshot;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
- * Implementation of the PersonRepository interface that uses Google Sheets as the data source.
+ * Implementation of the PersonRepository interface that uses Google Sheets as the data source. Registrations are
+ * written to the shard picked by {@link RegistrationShards}, and reads that may hit several shards run on all of
+ * them in parallel; with a single shard every method makes the same Sheets calls as an unsharded repository.
  *
  * @author lucasmoraist
  * @see PersonRepository
@@ -31,192 +42,412 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class PersonImpl implements PersonRepository {
 
-    @Value("${google.sheets.spreadsheet.id}")
-    private String spreadsheetId;
+    private static final Pattern ROW_PATTERN = Pattern.compile("![A-Z]+(\\d+)");
+    private static final String RG_CELLS = "D2:D";
+    private static final String COURSE_DATE_CELLS = "B2:B";
+    private static final String REGISTRATION_CELLS = "A2:J";
 
     private final Sheets sheetsService;
+    private final SheetsMetrics sheetsMetrics;
+    private final RegistrationShards shards;
 
     /**
-     * Retrieve next available line
+     * Saves a person at the end of the Google Sheets. The row is allocated by the Sheets API itself
+     * (append with INSERT_ROWS), so concurrent saves can never overwrite each other.
      *
-     * @return the next available line
-     * @throws IOException if an error occurs while retrieving the next available line
+     * @param person the person to be saved
+     * @return the row where the person was written
+     * @throws IOException       if an error occurs while saving the person
+     * @throws SendMailException if an error occurs while sending the email
      */
     @Override
-    public int getNextAvailableRow() throws IOException {
-        String initialRange = "'Incrições Telecentro'!A2:J";
-        log.debug("Retrieving the next available row in the spreadsheet");
-
-        try {
-            ValueRange response = sheetsService.spreadsheets().values()
-                    .get(spreadsheetId, initialRange)
-                    .execute();
-
-            List<List<Object>> values = response.getValues();
-            int nextRow = (values != null ? values.size() : 0) + 2;
-
-            log.debug("Next available row calculated: {}", nextRow);
-            return nextRow;
-        } catch (Exception e) {
-            log.error("An unexpected error occurred", e);
-            throw e;
-        }
+    public int savePersonData(Person person) throws IOException {
+        return this.appendPersonData(List.of(person))[0];
     }
 
     /**
-     * Saves a person in the Google Sheets.
+     * Appends several persons to the end of their shards, with a single append call per shard.
      *
-     * @param person the person to be saved
-     * @throws IOException       if an error occurs while saving the person
-     * @throws SendMailException if an error occurs while sending the email
+     * @param persons the persons to be saved, in the order they must be written
+     * @return the row where every person was written, in the same order
+     * @throws AppendPartiallyFailed if some shards failed after others were written
+     * @throws IOException           if an error occurs while saving the persons and none were written
      */
     @Override
-    public void savePersonData(Person person, String range) throws IOException {
-        log.debug("Building BatchUpdateValuesRequest for person: {} at range: {}", person.getName(), range);
-
-        List<List<Object>> data = new ArrayList<>();
-        data.add(List.of(
-                person.getCourse().getNameCourse(),
-                person.getCourse().getDateAndTime(),
-                person.getName(),
-                person.getRg(),
-                person.getBirthDate().toString(),
-                String.valueOf(person.getAge()),
-                person.getAddress(),
-                person.getEmail(),
-                person.getPhoneNumber(),
-                person.getIsConfirmed()
-        ));
+    public int[] appendPersonData(List<Person> persons) throws IOException {
+        log.debug("Appending {} persons to the registrations sheet", persons.size());
+
+        Map<Shard, List<Integer>> byShard = new LinkedHashMap<>();
+        for (int i = 0; i < persons.size(); i++) {
+            Person person = persons.get(i);
+            byShard.computeIfAbsent(this.shards.shardFor(person.getCourse().getNameCourse(), person.getRg()),
+                    shard -> new ArrayList<>()).add(i);
+        }
 
+        List<ShardResult<Integer>> results = this.shards.fanOutEach(List.copyOf(byShard.keySet()), shard -> {
+            List<Integer> indexes = byShard.get(shard);
+            return this.append(shard, indexes.stream().map(persons::get).toList());
+        });
+
+        int[] rows = new int[persons.size()];
+        Exception failure = null;
+        int written = 0;
+        for (ShardResult<Integer> result : results) {
+            if (result.failed()) {
+                failure = failure == null ? result.failure() : failure;
+                continue;
+            }
+            List<Integer> indexes = byShard.get(result.shard());
+            for (int j = 0; j < indexes.size(); j++) {
+                rows[indexes.get(j)] = result.value() + j;
+            }
+            written += indexes.size();
+        }
+
+        if (failure == null) {
+            return rows;
+        }
+        if (written > 0) {
+            log.error("Appended {} of {} persons, the other shards failed", written, persons.size());
+            throw new AppendPartiallyFailed(rows, failure);
+        }
+        if (failure instanceof IOException ioException) {
+            throw ioException;
+        }
+        throw (RuntimeException) failure;
+    }
+
+    private int append(Shard shard, List<Person> persons) throws IOException {
+        List<List<Object>> data = new ArrayList<>(persons.size());
+        for (Person person : persons) {
+            data.add(this.toRow(person));
+        }
+
+        AppendValuesResponse response;
         try {
-            BatchUpdateValuesRequest request = new BatchUpdateValuesRequest()
+            String range = shard.range("A:J");
+            response = sheetsMetrics.execute(sheetsService.spreadsheets().values()
+                    .append(shard.spreadsheetId(), range, new ValueRange().setValues(data))
                     .setValueInputOption("RAW")
-                    .setData(Collections.singletonList(
-                            new ValueRange()
-                                    .setRange(range)
-                                    .setValues(data)
-                    ));
-
-            sheetsService.spreadsheets().values()
-                    .batchUpdate(spreadsheetId, request)
-                    .execute();
+                    .setInsertDataOption("INSERT_ROWS")
+                    .setPrettyPrint(false)
+                    .setFields("updates.updatedRange"), "append", range);
         } catch (IOException e) {
-            log.error("Failed to save person data", e);
+            log.error("Failed to append person data", e);
             throw e;
         }
 
-        log.debug("Successfully saved person data at range: {}", range);
+        String updatedRange = response.getUpdates().getUpdatedRange();
+        Matcher matcher = ROW_PATTERN.matcher(updatedRange);
+        if (!matcher.find()) {
+            throw new IOException("Unexpected range returned by append: " + updatedRange);
+        }
+
+        log.debug("Successfully appended {} persons at range: {}", persons.size(), updatedRange);
+        return RegistrationShards.row(shard, Integer.parseInt(matcher.group(1)));
     }
 
     /**
-     * Retrieves a person by their RG.
+     * Retrieves every registration of a person by their RG. The RG column of every shard that can hold the RG is
+     * read once and all matching rows are fetched with a single batchGet per spreadsheet, so on a single shard the
+     * lookup costs two Sheets calls regardless of the number of matches.
      *
      * @param rg the RG of the person to be retrieved
-     * @return the person with the specified RG
+     * @return the registrations with the specified RG
      * @throws IOException      if an error occurs while searching for the person
      * @throws ResourceNotFound if the person with the specified RG is not found
      */
     @Override
     public List<Person> listPersonByRg(String rg) throws IOException {
+        log.info("Searching for person with RG: {}", rg);
 
-        Optional<Person> personOptional = this.findPersonByRg(rg);
-        if (personOptional.isEmpty()) {
+        List<Integer> rows = new ArrayList<>();
+        for (List<Integer> shardRows : this.shards.fanOut(this.shards.shardsForRg(rg), shard -> this.findRg(shard, rg))) {
+            rows.addAll(shardRows);
+        }
+
+        if (rows.isEmpty()) {
             log.error("Person with RG: {} not found", rg);
             throw new ResourceNotFound("Person with RG not found");
         }
 
-        log.info("Searching for person with RG: {}", rg);
-
-        ValueRange response = sheetsService.spreadsheets().values()
-                .get(spreadsheetId, "D2:D")
-                .execute();
+        List<Person> persons = this.listPersonByRows(rows);
+        log.info("Found {} persons with RG: {}", persons.size(), rg);
+        return persons;
+    }
 
-        List<List<Object>> values = response.getValues();
-        List<Person> persons = new ArrayList<>();
+    private List<Integer> findRg(Shard shard, String rg) throws IOException {
+        List<Object> rgColumn = this.readColumns(shard, List.of(shard.range(RG_CELLS))).get(0);
+        List<Integer> rows = new ArrayList<>();
 
-        for (int i = 0; i < values.size(); i++) {
-            String currentRg = values.get(i).get(0).toString().trim();
+        for (int i = 0; i < rgColumn.size(); i++) {
+            String currentRg = rgColumn.get(i).toString().trim();
+            if (currentRg.isEmpty()) {
+                continue;
+            }
             log.debug("Comparing RG: {} with found RG: {}", rg, currentRg);
 
             if (currentRg.equalsIgnoreCase(rg.trim())) {
-                log.info("Found person with RG: {} at row {}", rg, i + 2);
-                Person person = this.getValues("A" + (i + 2) + ":J" + (i + 2));
-                persons.add(person);
+                int row = RegistrationShards.row(shard, i + RegistrationShards.FIRST_ROW);
+                log.info("Found person with RG: {} at row {}", rg, row);
+                rows.add(row);
             }
         }
+        return rows;
+    }
 
-        if (persons.isEmpty()) {
-            log.info("No person found with RG: {}", rg);
-        } else {
-            log.info("Found {} persons with RG: {}", persons.size(), rg);
+    /**
+     * Retrieve the persons stored at the given rows with a single batchGet call per spreadsheet.
+     *
+     * @param rows the spreadsheet rows to be retrieved
+     * @return the persons found, in the same order as the rows when they are all in the same spreadsheet
+     * @throws IOException if an error occurs while retrieving the values
+     */
+    @Override
+    public List<Person> listPersonByRows(List<Integer> rows) throws IOException {
+        List<Person> persons = new ArrayList<>();
+        if (rows.isEmpty()) {
+            return persons;
+        }
+
+        Map<String, List<String>> rangesBySpreadsheet = new LinkedHashMap<>();
+        Map<String, Shard> spreadsheets = new LinkedHashMap<>();
+        for (int row : rows) {
+            Shard shard = this.shards.shardOf(row);
+            int tabRow = RegistrationShards.tabRow(row);
+            spreadsheets.putIfAbsent(shard.spreadsheetId(), shard);
+            rangesBySpreadsheet.computeIfAbsent(shard.spreadsheetId(), id -> new ArrayList<>())
+                    .add(shard.range(String.format("A%d:J%d", tabRow, tabRow)));
+        }
+        log.debug("Retrieving {} rows with a single batchGet per spreadsheet", rows.size());
+
+        List<List<ValueRange>> responses = this.shards.fanOut(List.copyOf(spreadsheets.values()),
+                shard -> this.readRows(shard.spreadsheetId(), rangesBySpreadsheet.get(shard.spreadsheetId())));
+        for (List<ValueRange> valueRanges : responses) {
+            for (ValueRange valueRange : valueRanges) {
+                List<List<Object>> values = valueRange.getValues();
+                if (values != null && !values.isEmpty()) {
+                    persons.add(toPerson(values.get(0)));
+                }
+            }
         }
 
         return persons;
     }
 
-    private Optional<Person> findPersonByRg(String rg) throws IOException {
-        log.info("Searching for person with RG: {}", rg);
-
-        ValueRange response = sheetsService.spreadsheets().values()
-                .get(spreadsheetId, "D2:D")
-                .execute();
-
-        List<List<Object>> values = response.getValues();
-        for (int i = 0; i < values.size(); i++) {
-            String currentRg = values.get(i).get(0).toString().trim();
-            log.debug("Comparing RG: {} with found RG: {}", rg, currentRg);
+    private List<ValueRange> readRows(String spreadsheetId, List<String> ranges) throws IOException {
+        BatchGetValuesResponse response = sheetsMetrics.execute(sheetsService.spreadsheets().values()
+                .batchGet(spreadsheetId)
+                .setRanges(ranges)
+                .setValueRenderOption("UNFORMATTED_VALUE")
+                .setDateTimeRenderOption("FORMATTED_STRING")
+                .setPrettyPrint(false)
+                .setFields("valueRanges.values"), "batchGet", ranges.get(0));
+        return response.getValueRanges();
+    }
 
-            if (currentRg.equalsIgnoreCase(rg.trim())) {
-                log.info("Found person with RG: {} at row {}", rg, i + 2);
-                return Optional.of(this.getValues("A" + (i + 2) + ":J" + (i + 2)));
+    /**
+     * Retrieve the course name, course date and RG of every registration, fetching the three columns of every
+     * shard in a single batchGet call.
+     *
+     * @return a key for every non-empty registration row
+     * @throws IOException if an error occurs while retrieving the values
+     */
+    @Override
+    public List<RegistrationKey> listRegistrationKeys() throws IOException {
+        log.info("Retrieving Course, Course Date and RG columns of every registration");
+
+        List<RegistrationKey> keys = new ArrayList<>();
+        for (List<RegistrationKey> shardKeys : this.shards.fanOut(this.shards.all(), this::listRegistrationKeys)) {
+            for (RegistrationKey key : shardKeys) {
+                if (key != null) {
+                    keys.add(key);
+                }
             }
         }
 
-        return Optional.empty();
+        log.info("Retrieved {} registration keys", keys.size());
+        return keys;
+    }
+
+    /**
+     * Retrieve the course name, course date and RG of every row of a shard.
+     *
+     * @param shard the shard
+     * @return one element per row from the first registration up to the last row with values, null for empty rows
+     * @throws IOException if an error occurs while retrieving the values
+     */
+    public List<RegistrationKey> listRegistrationKeys(Shard shard) throws IOException {
+        int firstRow = RegistrationShards.FIRST_ROW;
+        return this.readKeys(shard, List.of(
+                shard.range("A" + firstRow + ":A"),
+                shard.range("B" + firstRow + ":B"),
+                shard.range("D" + firstRow + ":D")), RegistrationShards.row(shard, firstRow));
     }
 
     /**
-     * Retrieve values within a range
+     * Retrieve the course name, course date and RG of a bounded range of rows of a single shard, for incremental
+     * syncs.
      *
-     * @param range the range to be retrieved
-     * @return the person with the specified range
+     * @param firstRow the first row to be read, as returned by this repository
+     * @param lastRow  the last row to be read, in the same shard
+     * @return one element per row from {@code firstRow} up to the last row with values, null for empty rows
      * @throws IOException if an error occurs while retrieving the values
      */
-    private Person getValues(String range) throws IOException {
-        log.debug("Retrieving values from range: {}", range);
+    public List<RegistrationKey> listRegistrationKeys(int firstRow, int lastRow) throws IOException {
+        log.debug("Retrieving registration keys of rows {} to {}", firstRow, lastRow);
+        Shard shard = this.shards.shardOf(firstRow);
+        int firstTabRow = RegistrationShards.tabRow(firstRow);
+        int lastTabRow = firstTabRow + lastRow - firstRow;
+        return this.readKeys(shard, List.of(
+                shard.range(boundedRange("A", firstTabRow, lastTabRow)),
+                shard.range(boundedRange("B", firstTabRow, lastTabRow)),
+                shard.range(boundedRange("D", firstTabRow, lastTabRow))), firstRow);
+    }
+
+    /**
+     * Retrieve every registration (columns A to J) with a single call per shard and pack it into a columnar
+     * snapshot, shard after shard. Every response is dropped as soon as its rows are added, so only the compact
+     * copy stays in memory.
+     *
+     * @return the snapshot of the registrations sheet
+     * @throws IOException if an error occurs while retrieving the values
+     */
+    @Override
+    public RegistrationSnapshot readSnapshot() throws IOException {
+        log.info("Retrieving every registration for a snapshot");
+
+        List<Shard> all = this.shards.all();
+        List<List<List<Object>>> responses = new ArrayList<>(this.shards.fanOut(all, this::readRegistrations));
+        RegistrationSnapshot.Builder builder = RegistrationSnapshot.builder(responses.stream().mapToInt(List::size).sum());
+        for (int s = 0; s < all.size(); s++) {
+            List<List<Object>> values = responses.set(s, List.of());
+            for (int i = 0; i < values.size(); i++) {
+                builder.add(RegistrationShards.row(all.get(s), i + RegistrationShards.FIRST_ROW), values.get(i));
+            }
+        }
+
+        RegistrationSnapshot snapshot = builder.build();
+        log.info("Snapshot built with {} registrations", snapshot.size());
+        return snapshot;
+    }
+
+    private List<RegistrationKey> readKeys(Shard shard, List<String> ranges, int firstRow) throws IOException {
+        List<List<Object>> columns = this.readColumns(shard, ranges);
+        List<Object> courseNameColumn = columns.get(0);
+        List<Object> courseDateColumn = columns.get(1);
+        List<Object> rgColumn = columns.get(2);
+
+        int size = Math.max(courseNameColumn.size(), Math.max(courseDateColumn.size(), rgColumn.size()));
+        List<RegistrationKey> keys = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String currentRg = i < rgColumn.size() ? rgColumn.get(i).toString() : "";
+            String currentCourseDate = i < courseDateColumn.size() ? courseDateColumn.get(i).toString() : "";
+            String currentCourseName = i < courseNameColumn.size() ? courseNameColumn.get(i).toString() : "";
+            keys.add(currentRg.isEmpty() || currentCourseDate.isEmpty()
+                    ? null
+                    : new RegistrationKey(firstRow + i, currentCourseName, currentRg, currentCourseDate));
+        }
+        return keys;
+    }
+
+    private List<List<Object>> readRegistrations(Shard shard) throws IOException {
+        String range = shard.range(REGISTRATION_CELLS);
+        ValueRange response = sheetsMetrics.execute(sheetsService.spreadsheets().values()
+                .get(shard.spreadsheetId(), range)
+                .setValueRenderOption("UNFORMATTED_VALUE")
+                .setDateTimeRenderOption("FORMATTED_STRING")
+                .setPrettyPrint(false)
+                .setFields("values"), "get", range);
+        return response.getValues() == null ? List.of() : response.getValues();
+    }
 
-        ValueRange response = sheetsService.spreadsheets().values()
-                .get(spreadsheetId, range)
-                .execute();
+    private static String boundedRange(String column, int firstRow, int lastRow) {
+        return String.format("%s%d:%s%d", column, firstRow, column, lastRow);
+    }
 
-        List<List<Object>> values = response.getValues();
-        if (values == null || values.isEmpty()) {
-            log.error("No data found at range: {}", range);
-            throw new ResourceNotFound("No data found at specified range");
+    /**
+     * Read whole columns with a single batchGet call. Values are requested column-major and unformatted, with only
+     * the values in the response, so that a column costs one JSON array instead of one array per row.
+     *
+     * @param shard  the shard the ranges belong to
+     * @param ranges the single-column ranges to be read
+     * @return the cells of every range, in the same order, empty cells as empty strings; empty if the range has no values
+     * @throws IOException if an error occurs while retrieving the values
+     */
+    private List<List<Object>> readColumns(Shard shard, List<String> ranges) throws IOException {
+        BatchGetValuesResponse response = sheetsMetrics.execute(sheetsService.spreadsheets().values()
+                .batchGet(shard.spreadsheetId())
+                .setRanges(ranges)
+                .setMajorDimension("COLUMNS")
+                .setValueRenderOption("UNFORMATTED_VALUE")
+                .setDateTimeRenderOption("FORMATTED_STRING")
+                .setPrettyPrint(false)
+                .setFields("valueRanges.values"), "batchGet", ranges.get(0));
+
+        List<List<Object>> columns = new ArrayList<>(ranges.size());
+        for (ValueRange valueRange : response.getValueRanges()) {
+            List<List<Object>> values = valueRange.getValues();
+            columns.add(values == null || values.isEmpty() ? List.of() : values.get(0));
         }
+        return columns;
+    }
 
-        log.debug("Mapping retrieved data to Person object");
-        List<Object> row = values.get(0);
-        Course course = new Course(
-                !row.isEmpty() ? row.get(0).toString() : null,
-                row.size() > 1 ? row.get(1).toString() : null
+    private List<Object> toRow(Person person) {
+        return List.of(
+                cell(person.getCourse().getNameCourse()),
+                cell(person.getCourse().getDateAndTime()),
+                cell(person.getName()),
+                cell(person.getRg()),
+                cell(person.getBirthDate()),
+                String.valueOf(person.getAge()),
+                cell(person.getAddress()),
+                cell(person.getEmail()),
+                cell(person.getPhoneNumber()),
+                cell(person.getIsConfirmed())
         );
+    }
+
+    private static String cell(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    /**
+     * Map a row of the registrations sheet (columns A to J) to a person. Blank cells, such as the optional fields
+     * a registration was saved without, are mapped to null (0 for the age).
+     *
+     * @param row the cells of the row, possibly shorter than ten columns
+     * @return the mapped person
+     */
+    static Person toPerson(List<Object> row) {
+        Course course = new Course(text(row, 0), text(row, 1));
 
+        String birthDate = text(row, 4);
+        String age = text(row, 5);
         return new Person(
                 course,
-                row.size() > 2 ? row.get(2).toString() : null,
-                row.size() > 3 ? row.get(3).toString() : null,
-                row.size() > 4 ? LocalDate.parse(row.get(4).toString()) : null,
-                row.size() > 5 ? Integer.parseInt(row.get(5).toString()) : 0,
-                row.size() > 6 ? row.get(6).toString() : null,
-                row.size() > 7 ? row.get(7).toString() : null,
-                row.size() > 8 ? row.get(8).toString() : null,
-                row.size() > 9 ? row.get(9).toString() : null
+                text(row, 2),
+                text(row, 3),
+                birthDate == null ? null : LocalDate.parse(birthDate),
+                age == null ? 0 : Integer.parseInt(age),
+                text(row, 6),
+                text(row, 7),
+                text(row, 8),
+                text(row, 9)
         );
     }
 
+    private static String text(List<Object> row, int column) {
+        if (column >= row.size() || row.get(column) == null) {
+            return null;
+        }
+        String value = row.get(column).toString();
+        return value.isBlank() ? null : value;
+    }
+
     /**
-     * Checks if a person with the specified RG and Course Date is already registered.
+     * Checks if a person with the specified RG and Course Date is already registered. Both columns of every shard
+     * that can hold the RG are read with a single batchGet call per shard.
      *
      * @param rg         the RG to be checked
      * @param courseDate the Course Date to be checked
@@ -227,31 +458,34 @@ public class PersonImpl implements PersonRepository {
     public boolean isRgAndCourseDateAlreadyRegistered(String rg, String courseDate) throws IOException {
         log.info("Checking if RG: {} and Course Date: {} are already registered", rg, courseDate);
 
-        String rgRange = "'Incrições Telecentro'!D2:D";
-        String courseDateRange = "'Incrições Telecentro'!B2:B";
-
-        ValueRange rgResponse = sheetsService.spreadsheets().values()
-                .get(spreadsheetId, rgRange)
-                .execute();
-
-        ValueRange courseDateResponse = sheetsService.spreadsheets().values()
-                .get(spreadsheetId, courseDateRange)
-                .execute();
-
-        List<List<Object>> rgValues = rgResponse.getValues();
-        List<List<Object>> courseDateValues = courseDateResponse.getValues();
-
-        if (rgValues == null || courseDateValues == null) {
-            log.debug("No data found for RG or Course Date");
-            return false;
+        for (boolean found : this.shards.fanOut(this.shards.shardsForRg(rg), shard -> {
+            List<List<Object>> columns = this.readColumns(shard, List.of(shard.range(RG_CELLS), shard.range(COURSE_DATE_CELLS)));
+            return containsRegistration(columns.get(0), columns.get(1), rg, courseDate);
+        })) {
+            if (found) {
+                return true;
+            }
         }
+        return false;
+    }
 
-        int maxSize = Math.min(rgValues.size(), courseDateValues.size());
+    /**
+     * Scan the RG and Course Date columns, both starting at row 2, for a registration matching the given key.
+     *
+     * @param rgColumn         the cells of the RG column
+     * @param courseDateColumn the cells of the Course Date column
+     * @param rg               the RG to be checked
+     * @param courseDate       the Course Date to be checked
+     * @return true if a row matches both values, false otherwise
+     */
+    static boolean containsRegistration(List<Object> rgColumn, List<Object> courseDateColumn,
+                                        String rg, String courseDate) {
+        int maxSize = Math.min(rgColumn.size(), courseDateColumn.size());
 
         for (int i = 0; i < maxSize; i++) {
-            if (!rgValues.get(i).isEmpty() && !courseDateValues.get(i).isEmpty()) {
-                String currentRg = rgValues.get(i).get(0).toString().trim();
-                String currentCourseDate = courseDateValues.get(i).get(0).toString().trim();
+            String currentRg = rgColumn.get(i).toString().trim();
+            String currentCourseDate = courseDateColumn.get(i).toString().trim();
+            if (!currentRg.isEmpty() && !currentCourseDate.isEmpty()) {
 
                 log.debug("Comparing RG: {} and Course Date: {} with found RG: {} and Course Date: {}", rg, courseDate, currentRg, currentCourseDate);
 
@@ -0,0 +1,318 @@
+package com.lucasmoraist.register_telecentro.repository.impl;
+
+import com.lucasmoraist.register_telecentro.model.dto.RegistrationKey;
+import com.lucasmoraist.register_telecentro.repository.shard.RegistrationShards;
+import com.lucasmoraist.register_telecentro.repository.shard.Shard;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the {@link RgIndex} and the {@link SessionSeats} counters in sync with one shard of the registrations, which
+ * staff also edit by hand, without downloading it again. A local mirror holds the key columns (course, course date and RG)
+ * of every row, with a content hash per row and a checksum per window of {@code windowRows} rows. Every sync:
+ * <ul>
+ *     <li>reads the rows after the last one seen, in bounded ranges of at most {@code maxAppendedRows} rows;</li>
+ *     <li>re-reads one window, in rotation, and compares its checksum; only the rows whose hash changed are applied.</li>
+ * </ul>
+ * A window where most rows changed usually means rows were inserted or deleted above it, so the whole mirror is
+ * reloaded instead. Columns the caches do not hold, such as {@code isConfirmed}, are not synced: the full rows are
+ * always read from the sheet when a person is looked up.
+ * <p>
+ * The sheet is read without holding the lock, so a registration can be recorded while a read is in flight. Every
+ * recorded row is stamped with a sequence number, and a read never overwrites a row recorded after it started: the
+ * sheet it saw was older than the row.
+ * <p>
+ * Not a bean: it is owned by {@link IndexedPersonRepository}, which keeps one per shard and runs {@link #sync()}
+ * from a single thread.
+ *
+ * @author lucasmoraist
+ */
+@Slf4j
+class RegistrationSync {
+
+    private final PersonImpl delegate;
+    private final Shard shard;
+    private final int firstRow;
+    private final RgIndex index;
+    private final SessionSeats seats;
+    private final int windowRows;
+    private final int maxAppendedRows;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<RegistrationKey> rows = new ArrayList<>();
+    private final List<Integer> windowChecksums = new ArrayList<>();
+    private final Map<Integer, Long> recordedRows = new HashMap<>();
+    private long recordSequence;
+    private int nextWindow;
+
+    RegistrationSync(PersonImpl delegate, Shard shard, RgIndex index, SessionSeats seats, int windowRows, int maxAppendedRows) {
+        this.delegate = delegate;
+        this.shard = shard;
+        this.firstRow = RegistrationShards.row(shard, RegistrationShards.FIRST_ROW);
+        this.index = index;
+        this.seats = seats;
+        this.windowRows = windowRows;
+        this.maxAppendedRows = maxAppendedRows;
+    }
+
+    /**
+     * Reads the key columns of the whole shard and applies every row that differs from the mirror, so the entries
+     * of the other shards in the shared index and seat counters are left untouched.
+     *
+     * @return the number of registrations read
+     * @throws IOException if the shard cannot be read
+     */
+    int load() throws IOException {
+        long readStart = this.locked(() -> this.recordSequence);
+        List<RegistrationKey> keys = this.delegate.listRegistrationKeys(this.shard);
+
+        this.lock.lock();
+        try {
+            int lastRow = Math.max(this.lastRow(), this.firstRow + keys.size() - 1);
+            int size = keys.size();
+            for (int row = this.firstRow; row <= lastRow; row++) {
+                if (!this.applyRead(row, keyAt(keys, row - this.firstRow), readStart) && this.get(row) != null) {
+                    size = Math.max(size, row - this.firstRow + 1);
+                }
+            }
+            if (this.rows.size() > size) {
+                this.rows.subList(size, this.rows.size()).clear();
+            }
+            this.windowChecksums.clear();
+            this.recomputeChecksumsFrom(0);
+            this.forgetRecordedBefore(readStart);
+        } finally {
+            this.lock.unlock();
+        }
+        return (int) keys.stream().filter(Objects::nonNull).count();
+    }
+
+    /**
+     * Records a registration written by this application. Its seat was already taken by the caller, so when the
+     * sync got to the row first the seat it took is given back.
+     *
+     * @param key the registration written
+     */
+    void recordAppended(RegistrationKey key) {
+        this.lock.lock();
+        try {
+            this.apply(key.row(), key);
+            this.recordedRows.put(key.row(), this.recordSequence++);
+            this.seats.release(key.courseName(), key.courseDate());
+            this.recomputeChecksumsFrom(this.windowOf(key.row()));
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the rows appended since the last sync and re-checks the next window. The sheet is read without holding
+     * the lock, so saves recording their rows never wait on a Sheets call; rows are then applied one by one, which
+     * is a no-op for a row that already has the key read.
+     *
+     * @return the number of rows that were added or changed
+     * @throws IOException if the sheet cannot be read
+     */
+    int sync() throws IOException {
+        return this.syncAppended() + this.verifyNextWindow();
+    }
+
+    private int syncAppended() throws IOException {
+        int applied = 0;
+        List<RegistrationKey> appended;
+        do {
+            long readStart = this.locked(() -> this.recordSequence);
+            int firstRow = this.locked(() -> this.lastRow() + 1);
+            appended = this.delegate.listRegistrationKeys(firstRow, firstRow + this.maxAppendedRows - 1);
+
+            List<RegistrationKey> read = appended;
+            applied += this.locked(() -> {
+                int count = 0;
+                for (int i = 0; i < read.size(); i++) {
+                    if (this.applyRead(firstRow + i, read.get(i), readStart)) {
+                        count++;
+                    }
+                }
+                this.recomputeChecksumsFrom(this.windowOf(firstRow));
+                this.forgetRecordedBefore(readStart);
+                return count;
+            });
+        } while (appended.size() == this.maxAppendedRows);
+
+        if (applied > 0) {
+            log.info("Registration sync found {} new rows", applied);
+        }
+        return applied;
+    }
+
+    private int verifyNextWindow() throws IOException {
+        long readStart = this.locked(() -> this.recordSequence);
+        int[] bounds = this.locked(() -> {
+            if (this.windowChecksums.isEmpty()) {
+                return null;
+            }
+            int window = this.nextWindow % this.windowChecksums.size();
+            this.nextWindow = window + 1;
+            int firstRow = this.firstRow + window * this.windowRows;
+            return new int[]{window, firstRow, Math.min(firstRow + this.windowRows - 1, this.lastRow())};
+        });
+        if (bounds == null) {
+            return 0;
+        }
+
+        int window = bounds[0];
+        int firstRow = bounds[1];
+        int lastRow = bounds[2];
+        List<RegistrationKey> current = this.delegate.listRegistrationKeys(firstRow, lastRow);
+
+        List<Integer> changedRows = this.locked(() -> {
+            List<Integer> changed = new ArrayList<>();
+            if (checksum(current) == this.windowChecksums.get(window)) {
+                return changed;
+            }
+            for (int row = firstRow; row <= lastRow; row++) {
+                if (!Objects.equals(keyAt(current, row - firstRow), this.get(row)) && !this.isRecordedSince(row, readStart)) {
+                    changed.add(row);
+                }
+            }
+            if (changed.size() <= this.windowRows / 2) {
+                changed.forEach(row -> this.apply(row, keyAt(current, row - firstRow)));
+                this.recomputeChecksum(window);
+                this.forgetRecordedBefore(readStart);
+            }
+            return changed;
+        });
+
+        if (changedRows.size() > this.windowRows / 2) {
+            log.warn("Rows {} to {} of {} were moved, reloading the whole tab", firstRow, lastRow, this.shard.tab());
+            return this.load();
+        }
+        if (!changedRows.isEmpty()) {
+            log.info("Registration sync found {} edited rows between rows {} and {}", changedRows.size(), firstRow, lastRow);
+        }
+        return changedRows.size();
+    }
+
+    private <T> T locked(Supplier<T> action) {
+        this.lock.lock();
+        try {
+            return action.get();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private static RegistrationKey keyAt(List<RegistrationKey> keys, int offset) {
+        return offset < keys.size() ? keys.get(offset) : null;
+    }
+
+    /**
+     * Applies a row read from the sheet, unless the row was recorded after the read started.
+     *
+     * @return false if the row was left as it was
+     */
+    private boolean applyRead(int row, RegistrationKey key, long readStart) {
+        return !this.isRecordedSince(row, readStart) && this.apply(row, key);
+    }
+
+    private boolean isRecordedSince(int row, long readStart) {
+        return this.recordedRows.getOrDefault(row, -1L) >= readStart;
+    }
+
+    /**
+     * Drops the rows recorded before a read started, which the read already saw. Reads run from a single thread, so
+     * no later read needs them.
+     */
+    private void forgetRecordedBefore(long readStart) {
+        this.recordedRows.values().removeIf(sequence -> sequence < readStart);
+    }
+
+    /**
+     * Replaces the key of a row, moving its index entry and its seat.
+     *
+     * @return false if the row already had this key
+     */
+    private boolean apply(int row, RegistrationKey key) {
+        RegistrationKey previous = this.get(row);
+        if (Objects.equals(previous, key)) {
+            return false;
+        }
+
+        if (previous != null) {
+            this.index.remove(row, previous.rg(), previous.courseDate());
+            this.seats.release(previous.courseName(), previous.courseDate());
+        }
+        if (key != null) {
+            this.index.add(row, key.rg(), key.courseDate());
+            this.seats.occupy(key.courseName(), key.courseDate());
+        }
+        this.set(row, key);
+        return true;
+    }
+
+    private RegistrationKey get(int row) {
+        int offset = row - this.firstRow;
+        return offset < this.rows.size() ? this.rows.get(offset) : null;
+    }
+
+    private void set(int row, RegistrationKey key) {
+        int offset = row - this.firstRow;
+        while (this.rows.size() <= offset) {
+            this.rows.add(null);
+        }
+        this.rows.set(offset, key);
+    }
+
+    private int lastRow() {
+        return this.firstRow + this.rows.size() - 1;
+    }
+
+    private int windowOf(int row) {
+        return (row - this.firstRow) / this.windowRows;
+    }
+
+    private void recomputeChecksumsFrom(int firstWindow) {
+        int windows = (this.rows.size() + this.windowRows - 1) / this.windowRows;
+        for (int window = firstWindow; window < windows; window++) {
+            this.recomputeChecksum(window);
+        }
+    }
+
+    private void recomputeChecksum(int window) {
+        int from = window * this.windowRows;
+        int checksum = checksum(this.rows.subList(from, Math.min(this.rows.size(), from + this.windowRows)));
+        while (this.windowChecksums.size() <= window) {
+            this.windowChecksums.add(0);
+        }
+        this.windowChecksums.set(window, checksum);
+    }
+
+    /**
+     * Checksum of a window, combining the hash of every row. Trailing empty rows do not change it, since the sheet
+     * does not return them.
+     */
+    private static int checksum(List<RegistrationKey> keys) {
+        int last = keys.size() - 1;
+        while (last >= 0 && keys.get(last) == null) {
+            last--;
+        }
+
+        int checksum = 1;
+        for (int i = 0; i <= last; i++) {
+            checksum = 31 * checksum + rowHash(keys.get(i));
+        }
+        return checksum;
+    }
+
+    private static int rowHash(RegistrationKey key) {
+        return key == null ? 0 : Objects.hash(key.courseName(), key.courseDate(), key.rg());
+    }
+}
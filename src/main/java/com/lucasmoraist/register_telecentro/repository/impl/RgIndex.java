@@ -0,0 +1,108 @@
+package com.lucasmoraist.register_telecentro.repository.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory hash index of the registrations sheet, mapping a normalized RG to the rows where it appears.
+ * Course dates are stored as their {@link SessionDictionary} ids, so duplicate checks compare ints.
+ * Reads are lock-free; writes are serialized and publish immutable row lists.
+ *
+ * @author lucasmoraist
+ */
+public class RgIndex {
+
+    private final SessionDictionary dictionary;
+    private final Map<String, List<Entry>> entries = new ConcurrentHashMap<>();
+
+    public RgIndex(SessionDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Normalizes a value the same way the sheet lookups compare it (trimmed, case-insensitive).
+     *
+     * @param value the value to be normalized
+     * @return the normalized value
+     */
+    public static String normalize(String value) {
+        return value == null ? "" : value.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Adds a single registration to the index.
+     *
+     * @param row        the row where the registration was written
+     * @param rg         the RG of the registration
+     * @param courseDate the course date of the registration
+     */
+    public synchronized void add(int row, String rg, String courseDate) {
+        Entry entry = new Entry(row, this.dictionary.dateId(courseDate));
+        this.entries.merge(normalize(rg), List.of(entry), (current, added) -> {
+            if (current.contains(entry)) {
+                return current;
+            }
+            List<Entry> rows = new ArrayList<>(current);
+            rows.addAll(added);
+            return List.copyOf(rows);
+        });
+    }
+
+    /**
+     * Removes a single registration from the index, e.g. after the row was edited in the sheet.
+     *
+     * @param row        the row of the registration
+     * @param rg         the RG the row had
+     * @param courseDate the course date the row had
+     */
+    public synchronized void remove(int row, String rg, String courseDate) {
+        Entry entry = new Entry(row, this.dictionary.dateId(courseDate));
+        this.entries.computeIfPresent(normalize(rg), (key, current) -> {
+            List<Entry> rows = new ArrayList<>(current);
+            rows.remove(entry);
+            return rows.isEmpty() ? null : List.copyOf(rows);
+        });
+    }
+
+    /**
+     * Returns the rows where the given RG is registered.
+     *
+     * @param rg the RG to be searched
+     * @return the rows in insertion order, or an empty list
+     */
+    public List<Integer> rowsOf(String rg) {
+        return this.entries.getOrDefault(normalize(rg), List.of()).stream()
+                .map(Entry::row)
+                .toList();
+    }
+
+    /**
+     * Checks whether the given RG is already registered in the given course date.
+     *
+     * @param rg         the RG to be checked
+     * @param courseDate the course date to be checked
+     * @return true if a matching registration exists
+     */
+    public boolean contains(String rg, String courseDate) {
+        int courseDateId = this.dictionary.findDateId(courseDate);
+        if (courseDateId == SessionDictionary.UNKNOWN) {
+            return false;
+        }
+        for (Entry entry : this.entries.getOrDefault(normalize(rg), List.of())) {
+            if (entry.courseDateId() == courseDateId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return this.entries.size();
+    }
+
+    private record Entry(int row, int courseDateId) {
+    }
+}
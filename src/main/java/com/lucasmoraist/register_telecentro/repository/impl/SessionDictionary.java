@@ -0,0 +1,78 @@
+package com.lucasmoraist.register_telecentro.repository.impl;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dictionary encoding of the free-form course strings of the spreadsheet. Every distinct course date, and every
+ * distinct course + course date pair (a session), is given a small integer the first time it is seen, so the
+ * indexes compare and store ints instead of strings. Values are normalized like {@link RgIndex#normalize}, and an
+ * id is never reassigned while the application runs.
+ * <p>
+ * Course dates are interned from the registrations sheet, sessions only from the courses tab. Values coming from
+ * requests are looked up with the {@code find} methods, which never assign an id.
+ *
+ * @author lucasmoraist
+ */
+@Component
+public class SessionDictionary {
+
+    /**
+     * Returned by the lookups for a value that was never interned.
+     */
+    public static final int UNKNOWN = -1;
+
+    private final Map<String, Integer> dateIds = new ConcurrentHashMap<>();
+    private final Map<String, Integer> sessionIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextDateId = new AtomicInteger();
+    private final AtomicInteger nextSessionId = new AtomicInteger();
+
+    /**
+     * Returns the id of a course date, assigning one if needed.
+     *
+     * @param courseDate the course date and time, as stored in the sheet
+     * @return the id of the course date
+     */
+    public int dateId(String courseDate) {
+        return this.dateIds.computeIfAbsent(RgIndex.normalize(courseDate), k -> this.nextDateId.getAndIncrement());
+    }
+
+    /**
+     * Returns the id of a course date without assigning one, so lookups of unknown values do not grow the dictionary.
+     *
+     * @param courseDate the course date and time
+     * @return the id of the course date, or {@link #UNKNOWN}
+     */
+    public int findDateId(String courseDate) {
+        return this.dateIds.getOrDefault(RgIndex.normalize(courseDate), UNKNOWN);
+    }
+
+    /**
+     * Returns the id of a session of the courses tab, assigning one if needed.
+     *
+     * @param courseName the course name
+     * @param courseDate the course date and time of the session
+     * @return the id of the session
+     */
+    public int sessionId(String courseName, String courseDate) {
+        return this.sessionIds.computeIfAbsent(sessionKey(courseName, courseDate), k -> this.nextSessionId.getAndIncrement());
+    }
+
+    /**
+     * Returns the id of a session without assigning one.
+     *
+     * @param courseName the course name
+     * @param courseDate the course date and time of the session
+     * @return the id of the session, or {@link #UNKNOWN} if the courses tab never had it
+     */
+    public int find(String courseName, String courseDate) {
+        return this.sessionIds.getOrDefault(sessionKey(courseName, courseDate), UNKNOWN);
+    }
+
+    static String sessionKey(String courseName, String courseDate) {
+        return RgIndex.normalize(courseName) + '|' + RgIndex.normalize(courseDate);
+    }
+}
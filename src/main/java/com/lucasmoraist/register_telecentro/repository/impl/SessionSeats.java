@@ -0,0 +1,188 @@
+package com.lucasmoraist.register_telecentro.repository.impl;
+
+import com.lucasmoraist.register_telecentro.model.Course;
+import com.lucasmoraist.register_telecentro.model.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory seat counters per course session, keyed by the {@link SessionDictionary} id of the session. The number of registrations of each
+ * session is seeded from the registrations sheet together with the RG index, and every accepted registration
+ * takes a seat with a compare-and-set, so a full session is rejected without reading the sheet.
+ * <p>
+ * Only the sessions of the courses tab have counters, and a session without capacity there is never full. A
+ * session the courses tab does not offer cannot be reserved. Registrations of such sessions found in the sheet
+ * or the journal are counted aside, by session, and carried over if the courses tab starts offering the session.
+ *
+ * @author lucasmoraist
+ */
+@Slf4j
+@Component
+public class SessionSeats {
+
+    private static final int UNLIMITED = -1;
+
+    private final SessionDictionary dictionary;
+    private final Map<Integer, Seats> sessions = new ConcurrentHashMap<>();
+    /**
+     * Registrations of sessions the courses tab does not offer, by session key. Also guards the changes to the
+     * sessions, so a registration is never counted twice or lost while they are replaced.
+     */
+    private final Map<String, Integer> uncatalogued = new HashMap<>();
+
+    public SessionSeats(SessionDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Replaces the sessions and capacities with the ones of the given courses. Sessions no longer in the courses tab
+     * can no longer be reserved.
+     *
+     * @param courses the courses, with their sessions
+     */
+    public void updateCapacities(Collection<Course> courses) {
+        synchronized (this.uncatalogued) {
+            this.replaceSessions(courses);
+        }
+    }
+
+    private void replaceSessions(Collection<Course> courses) {
+        Map<Integer, Seats> offered = new HashMap<>();
+        for (Course course : courses) {
+            if (course.getSessions() == null) {
+                continue;
+            }
+            int capacity = course.getCapacity() == null ? UNLIMITED : course.getCapacity();
+            for (Session session : course.getSessions()) {
+                Seats seats = offered.getOrDefault(session.getId(), this.sessions.get(session.getId()));
+                if (seats == null) {
+                    seats = new Seats(SessionDictionary.sessionKey(course.getNameCourse(), session.getDateAndTime()));
+                    Integer taken = this.uncatalogued.remove(seats.key);
+                    seats.taken.set(taken == null ? 0 : taken);
+                }
+                seats.capacity = capacity;
+                offered.put(session.getId(), seats);
+            }
+        }
+
+        this.sessions.forEach((session, seats) -> {
+            if (!offered.containsKey(session)) {
+                seats.capacity = 0;
+                this.park(seats.key, seats.taken.get());
+            }
+        });
+        this.sessions.keySet().retainAll(offered.keySet());
+        this.sessions.putAll(offered);
+    }
+
+    /**
+     * Tells whether a session is offered by the courses tab.
+     *
+     * @param courseName  the course name
+     * @param dateAndTime the date and time of the session
+     * @return false if the session is unknown
+     */
+    public boolean isOffered(String courseName, String dateAndTime) {
+        return this.find(courseName, dateAndTime) != null;
+    }
+
+    /**
+     * Takes a seat in a session.
+     *
+     * @param courseName  the course name
+     * @param dateAndTime the date and time of the session
+     * @return false if the session is full or not offered
+     */
+    public boolean tryReserve(String courseName, String dateAndTime) {
+        Seats seats = this.find(courseName, dateAndTime);
+        if (seats == null) {
+            return false;
+        }
+        while (true) {
+            int taken = seats.taken.get();
+            int capacity = seats.capacity;
+            if (capacity != UNLIMITED && taken >= capacity) {
+                return false;
+            }
+            if (seats.taken.compareAndSet(taken, taken + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Takes a seat regardless of the capacity, for registrations that were accepted before a restart.
+     *
+     * @param courseName  the course name
+     * @param dateAndTime the date and time of the session
+     */
+    public void occupy(String courseName, String dateAndTime) {
+        synchronized (this.uncatalogued) {
+            Seats seats = this.find(courseName, dateAndTime);
+            if (seats != null) {
+                seats.taken.incrementAndGet();
+            } else {
+                this.park(SessionDictionary.sessionKey(courseName, dateAndTime), 1);
+            }
+        }
+    }
+
+    /**
+     * Gives back a seat taken by a registration that was not saved.
+     *
+     * @param courseName  the course name
+     * @param dateAndTime the date and time of the session
+     */
+    public void release(String courseName, String dateAndTime) {
+        synchronized (this.uncatalogued) {
+            Seats seats = this.find(courseName, dateAndTime);
+            if (seats != null) {
+                seats.taken.updateAndGet(taken -> Math.max(0, taken - 1));
+            } else {
+                this.uncatalogued.computeIfPresent(SessionDictionary.sessionKey(courseName, dateAndTime),
+                        (key, taken) -> taken > 1 ? taken - 1 : null);
+            }
+        }
+    }
+
+    /**
+     * Returns the seats left in a session.
+     *
+     * @param sessionId the id of the session
+     * @return the seats left, or null if the session has no capacity
+     */
+    public Integer remaining(int sessionId) {
+        Seats seats = this.sessions.get(sessionId);
+        if (seats == null || seats.capacity == UNLIMITED) {
+            return null;
+        }
+        return Math.max(0, seats.capacity - seats.taken.get());
+    }
+
+    private Seats find(String courseName, String dateAndTime) {
+        int sessionId = this.dictionary.find(courseName, dateAndTime);
+        return sessionId == SessionDictionary.UNKNOWN ? null : this.sessions.get(sessionId);
+    }
+
+    private void park(String key, int taken) {
+        if (taken > 0) {
+            this.uncatalogued.merge(key, taken, Integer::sum);
+        }
+    }
+
+    private static final class Seats {
+        private final String key;
+        private final AtomicInteger taken = new AtomicInteger();
+        private volatile int capacity = UNLIMITED;
+
+        Seats(String key) {
+            this.key = key;
+        }
+    }
+}
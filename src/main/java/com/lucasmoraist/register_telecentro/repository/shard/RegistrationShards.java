@@ -0,0 +1,271 @@
+package com.lucasmoraist.register_telecentro.repository.shard;
+
+import com.lucasmoraist.register_telecentro.infra.concurrent.BackgroundThreads;
+import com.lucasmoraist.register_telecentro.repository.impl.RgIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The spreadsheet + tab pairs the registrations are split across, configured by {@code telecentro.registrations.shards}
+ * as comma-separated {@code [spreadsheetId!]tab} entries (the spreadsheet defaults to {@code google.sheets.spreadsheet.id}),
+ * and the {@link ShardRouter} picked by {@code telecentro.registrations.sharding.routing}: {@code term}, {@code course}
+ * (with {@code telecentro.registrations.sharding.courses} as {@code course=shard} entries) or {@code rg-hash}.
+ * <p>
+ * Rows keep being passed around as a single int: the row of a registration is
+ * {@code shard * ROWS_PER_SHARD + row in the tab}, so the rows of the first shard are the plain row numbers and the
+ * indexes built on rows need no change. The shards and their ranges are built once at startup, so a call routed to a
+ * single shard costs the same as without sharding; calls that have to read every shard run in parallel, on one
+ * thread per shard started for that call, so concurrent requests never queue behind each other. How many Sheets
+ * requests are in flight at once is bounded by the transport and the rate limiter, not here.
+ *
+ * @author lucasmoraist
+ */
+@Slf4j
+@Component
+public class RegistrationShards {
+
+    /**
+     * Rows reserved for every shard. A spreadsheet holds at most 10 million cells, so no tab can reach it.
+     */
+    public static final int ROWS_PER_SHARD = 10_000_000;
+
+    /**
+     * Row of the first registration of a tab, below the header.
+     */
+    public static final int FIRST_ROW = 2;
+
+    private final List<Shard> shards;
+    private final ShardRouter router;
+    private final ThreadFactory fanOutThreads;
+
+    public RegistrationShards(@Value("${google.sheets.spreadsheet.id}") String defaultSpreadsheetId,
+                              @Value("${telecentro.registrations.shards:Incrições Telecentro}") String shards,
+                              @Value("${telecentro.registrations.sharding.routing:term}") String routing,
+                              @Value("${telecentro.registrations.sharding.courses:}") String courses,
+                              BackgroundThreads backgroundThreads) {
+        this.shards = parseShards(defaultSpreadsheetId, shards);
+        this.router = switch (routing) {
+            case "term" -> ShardRouter.term(this.shards.size());
+            case "course" -> ShardRouter.course(parseCourses(courses, this.shards.size()));
+            case "rg-hash" -> ShardRouter.rgHash(this.shards.size());
+            default -> throw new IllegalArgumentException("Unknown registration sharding routing: " + routing);
+        };
+        this.fanOutThreads = backgroundThreads.factory("sheets-fan-out");
+        log.info("Registrations stored in {} shards routed by {}: {}", this.shards.size(), routing,
+                this.shards.stream().map(shard -> shard.spreadsheetId() + '!' + shard.tab()).toList());
+    }
+
+    public List<Shard> all() {
+        return this.shards;
+    }
+
+    /**
+     * Returns the distinct spreadsheets of the shards.
+     *
+     * @return the spreadsheet ids
+     */
+    public Set<String> spreadsheetIds() {
+        Set<String> ids = new LinkedHashSet<>();
+        this.shards.forEach(shard -> ids.add(shard.spreadsheetId()));
+        return ids;
+    }
+
+    /**
+     * Returns the shard a new registration is written to.
+     *
+     * @param courseName the course of the registration
+     * @param rg         the RG of the registration
+     * @return the shard
+     */
+    public Shard shardFor(String courseName, String rg) {
+        return this.shards.get(this.router.shardFor(courseName, rg));
+    }
+
+    /**
+     * Returns the shards that can hold the registrations of an RG.
+     *
+     * @param rg the RG
+     * @return a single shard when the routing allows it, every shard otherwise
+     */
+    public List<Shard> shardsForRg(String rg) {
+        int shard = this.router.shardForRg(rg);
+        return shard == ShardRouter.ANY ? this.shards : List.of(this.shards.get(shard));
+    }
+
+    /**
+     * Returns the shard of a row.
+     *
+     * @param row the row, as returned by the repository
+     * @return the shard
+     */
+    public Shard shardOf(int row) {
+        return this.shards.get(row / ROWS_PER_SHARD);
+    }
+
+    /**
+     * Converts a row of a tab to a row as returned by the repository.
+     *
+     * @param shard    the shard of the tab
+     * @param tabRow   the row in the tab (1-based, header included)
+     * @return the row
+     */
+    public static int row(Shard shard, int tabRow) {
+        return shard.index() * ROWS_PER_SHARD + tabRow;
+    }
+
+    /**
+     * Converts a row as returned by the repository to the row in its tab.
+     *
+     * @param row the row
+     * @return the row in the tab (1-based, header included)
+     */
+    public static int tabRow(int row) {
+        return row % ROWS_PER_SHARD;
+    }
+
+    /**
+     * Runs a call on several shards, in parallel when there is more than one.
+     *
+     * @param shards the shards
+     * @param call   the call to be run on every shard
+     * @return the results, in the order of the shards
+     * @throws IOException if the call fails on any shard
+     */
+    public <T> List<T> fanOut(List<Shard> shards, ShardCall<T> call) throws IOException {
+        if (shards.size() == 1) {
+            return List.of(call.call(shards.get(0)));
+        }
+
+        List<Future<T>> futures = this.submit(shards, call);
+        List<T> results = new ArrayList<>(shards.size());
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading the registration shards");
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Failed to read the registration shards", e.getCause());
+        }
+        return results;
+    }
+
+    /**
+     * Runs a call on several shards, in parallel when there is more than one, and waits for every shard even when
+     * some fail, for writes that must keep what succeeded on the other shards.
+     *
+     * @param shards the shards
+     * @param call   the call to be run on every shard
+     * @return the outcome on every shard, in the order of the shards
+     * @throws InterruptedIOException if interrupted while waiting for the shards
+     */
+    public <T> List<ShardResult<T>> fanOutEach(List<Shard> shards, ShardCall<T> call) throws InterruptedIOException {
+        if (shards.size() == 1) {
+            Shard shard = shards.get(0);
+            try {
+                return List.of(new ShardResult<>(shard, call.call(shard), null));
+            } catch (IOException | RuntimeException e) {
+                return List.of(new ShardResult<>(shard, null, e));
+            }
+        }
+
+        List<Future<T>> futures = this.submit(shards, call);
+        List<ShardResult<T>> results = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            try {
+                results.add(new ShardResult<>(shards.get(i), futures.get(i).get(), null));
+            } catch (InterruptedException e) {
+                futures.forEach(future -> future.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while writing the registration shards");
+            } catch (ExecutionException e) {
+                Exception failure = e.getCause() instanceof Exception cause
+                        ? cause
+                        : new IOException("Failed to write the registration shards", e.getCause());
+                results.add(new ShardResult<>(shards.get(i), null, failure));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Starts the call on every shard, each on its own thread. The executor is shut down right away: the threads end
+     * with their call, so nothing outlives the request.
+     */
+    private <T> List<Future<T>> submit(List<Shard> shards, ShardCall<T> call) {
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(this.fanOutThreads);
+        try {
+            List<Future<T>> futures = new ArrayList<>(shards.size());
+            for (Shard shard : shards) {
+                futures.add(executor.submit(() -> call.call(shard)));
+            }
+            return futures;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static List<Shard> parseShards(String defaultSpreadsheetId, String value) {
+        List<Shard> shards = new ArrayList<>();
+        for (String entry : value.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('!');
+            String spreadsheetId = separator > 0 ? entry.substring(0, separator).trim() : defaultSpreadsheetId;
+            shards.add(new Shard(shards.size(), spreadsheetId, entry.substring(separator + 1).trim()));
+        }
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("telecentro.registrations.shards must list at least one tab");
+        }
+        return List.copyOf(shards);
+    }
+
+    private static Map<String, Integer> parseCourses(String value, int shards) {
+        Map<String, Integer> shardsByCourse = new HashMap<>();
+        for (String entry : value.split(",")) {
+            int separator = entry.lastIndexOf('=');
+            if (separator < 0) {
+                continue;
+            }
+            int shard = Integer.parseInt(entry.substring(separator + 1).trim());
+            if (shard < 0 || shard >= shards) {
+                throw new IllegalArgumentException("No registration shard " + shard + " for course " + entry);
+            }
+            shardsByCourse.put(RgIndex.normalize(entry.substring(0, separator)), shard);
+        }
+        return Map.copyOf(shardsByCourse);
+    }
+
+    /**
+     * A Sheets call on a single shard.
+     */
+    @FunctionalInterface
+    public interface ShardCall<T> {
+        T call(Shard shard) throws IOException;
+    }
+}
@@ -0,0 +1,28 @@
+package com.lucasmoraist.register_telecentro.repository.shard;
+
+/**
+ * A spreadsheet + tab pair holding part of the registrations. The quoted tab prefix of its A1 ranges is built
+ * once, so routing a call to a shard costs a string concatenation.
+ *
+ * @param index         the position of the shard in {@code telecentro.registrations.shards}
+ * @param spreadsheetId the id of the spreadsheet
+ * @param tab           the title of the tab
+ * @param rangePrefix   the quoted tab title followed by {@code !}
+ * @author lucasmoraist
+ */
+public record Shard(int index, String spreadsheetId, String tab, String rangePrefix) {
+
+    public Shard(int index, String spreadsheetId, String tab) {
+        this(index, spreadsheetId, tab, "'" + tab.replace("'", "''") + "'!");
+    }
+
+    /**
+     * Returns an A1 range of the tab.
+     *
+     * @param cells the cells, e.g. {@code D2:D}
+     * @return the range, e.g. {@code 'Incrições Telecentro'!D2:D}
+     */
+    public String range(String cells) {
+        return this.rangePrefix + cells;
+    }
+}
@@ -0,0 +1,16 @@
+package com.lucasmoraist.register_telecentro.repository.shard;
+
+/**
+ * The outcome of a call on one shard of {@link RegistrationShards#fanOutEach}: its value, or the error it failed with.
+ *
+ * @param shard   the shard
+ * @param value   the value returned by the call, null if it failed
+ * @param failure the error of the call, null if it succeeded
+ * @author lucasmoraist
+ */
+public record ShardResult<T>(Shard shard, T value, Exception failure) {
+
+    public boolean failed() {
+        return this.failure != null;
+    }
+}
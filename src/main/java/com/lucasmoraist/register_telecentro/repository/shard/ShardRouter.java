@@ -0,0 +1,77 @@
+package com.lucasmoraist.register_telecentro.repository.shard;
+
+import com.lucasmoraist.register_telecentro.repository.impl.RgIndex;
+
+import java.util.Map;
+
+/**
+ * Decides which shard a registration is written to, and which shard a lookup by RG has to read.
+ *
+ * @author lucasmoraist
+ */
+public interface ShardRouter {
+
+    /**
+     * Returned by {@link #shardForRg} when the registrations of an RG may be in any shard.
+     */
+    int ANY = -1;
+
+    /**
+     * Returns the shard a new registration is written to.
+     *
+     * @param courseName the course of the registration
+     * @param rg         the RG of the registration
+     * @return the index of the shard
+     */
+    int shardFor(String courseName, String rg);
+
+    /**
+     * Returns the only shard that can hold the registrations of an RG.
+     *
+     * @param rg the RG
+     * @return the index of the shard, or {@link #ANY}
+     */
+    default int shardForRg(String rg) {
+        return ANY;
+    }
+
+    /**
+     * Writes to the last shard, e.g. a new tab opened every term, and looks up every shard.
+     *
+     * @param shards the number of shards
+     * @return the router
+     */
+    static ShardRouter term(int shards) {
+        return (courseName, rg) -> shards - 1;
+    }
+
+    /**
+     * Writes every course to its configured shard, the courses without one to the first shard.
+     *
+     * @param shardsByCourse the shard of every course, keyed by the course name normalized like {@link RgIndex#normalize}
+     * @return the router
+     */
+    static ShardRouter course(Map<String, Integer> shardsByCourse) {
+        return (courseName, rg) -> shardsByCourse.getOrDefault(RgIndex.normalize(courseName), 0);
+    }
+
+    /**
+     * Spreads the registrations by a hash of the RG, so every registration of an RG is in the same shard.
+     *
+     * @param shards the number of shards
+     * @return the router
+     */
+    static ShardRouter rgHash(int shards) {
+        return new ShardRouter() {
+            @Override
+            public int shardFor(String courseName, String rg) {
+                return this.shardForRg(rg);
+            }
+
+            @Override
+            public int shardForRg(String rg) {
+                return Math.floorMod(RgIndex.normalize(rg).hashCode(), shards);
+            }
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.lucasmoraist.register_telecentro.repository.snapshot;
+
+import com.lucasmoraist.register_telecentro.model.Person;
+
+/**
+ * A page of registrations, kept as positions in the snapshot it was read from so that every {@link Person} is only
+ * built while the page is written out.
+ *
+ * @param snapshot   the snapshot the page was read from
+ * @param positions  the positions of the registrations in the snapshot
+ * @param nextCursor the cursor of the next page, or null if this is the last one
+ */
+public record RegistrationPage(RegistrationSnapshot snapshot, int[] positions, String nextCursor) {
+
+    /**
+     * Returns the number of registrations in the page.
+     *
+     * @return the number of registrations
+     */
+    public int size() {
+        return this.positions.length;
+    }
+
+    /**
+     * Builds the person of a registration of the page.
+     *
+     * @param index the index of the registration in the page
+     * @return the person
+     */
+    public Person person(int index) {
+        return this.snapshot.materialize(this.positions[index]);
+    }
+}
@@ -0,0 +1,553 @@
+package com.lucasmoraist.register_telecentro.repository.snapshot;
+
+import com.lucasmoraist.register_telecentro.model.Course;
+import com.lucasmoraist.register_telecentro.model.Person;
+import com.lucasmoraist.register_telecentro.model.dto.RegistrationFilter;
+import com.lucasmoraist.register_telecentro.repository.impl.RgIndex;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, column-oriented copy of the registrations sheet, for holding the whole sheet in memory without one
+ * {@link Person}, {@link Course} and ten boxed cells per row:
+ * <ul>
+ *     <li>course, course date and confirmation, which have few distinct values, are dictionary-encoded into
+ *     {@code int[]} columns;</li>
+ *     <li>age is an {@code int[]} and birth date an {@code int[]} of epoch days;</li>
+ *     <li>name, RG, address, e-mail and phone are stored as UTF-8 in a single byte arena, addressed by offsets.</li>
+ * </ul>
+ * Registrations are addressed by their position in the snapshot, which follows the sheet order. The positions of
+ * every course and every session are indexed, so a {@link Query} on a course or a session only visits the
+ * registrations of that course or session; the other criteria are checked on the columns without decoding any
+ * string. {@link #materialize(int)} builds the {@link Person} only for the rows that are returned.
+ *
+ * @author lucasmoraist
+ */
+public final class RegistrationSnapshot {
+
+    private static final int COURSE_NAME = 0;
+    private static final int COURSE_DATE = 1;
+    private static final int NAME = 2;
+    private static final int RG = 3;
+    private static final int BIRTH_DATE = 4;
+    private static final int AGE = 5;
+    private static final int ADDRESS = 6;
+    private static final int EMAIL = 7;
+    private static final int PHONE = 8;
+    private static final int IS_CONFIRMED = 9;
+
+    /**
+     * Columns stored in the byte arena, in the order of their offsets.
+     */
+    private static final int[] ARENA_COLUMNS = {NAME, RG, ADDRESS, EMAIL, PHONE};
+    private static final int ARENA_NAME = 0;
+    private static final int ARENA_RG = 1;
+    private static final int ARENA_ADDRESS = 2;
+    private static final int ARENA_EMAIL = 3;
+    private static final int ARENA_PHONE = 4;
+
+    private static final int MISSING = -1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final int size;
+    private final int[] rows;
+    private final byte[] widths;
+    private final int[] courseNames;
+    private final int[] courseDates;
+    private final int[] confirmations;
+    private final int[] ages;
+    private final int[] birthDates;
+    private final int[] offsets;
+    private final byte[] arena;
+    private final String[] courseNameValues;
+    private final String[] courseDateValues;
+    private final String[] confirmationValues;
+    private final int[][] courseNamePositions;
+    private final int[][] courseDatePositions;
+
+    private RegistrationSnapshot(Builder builder) {
+        this.size = builder.size;
+        this.rows = Arrays.copyOf(builder.rows, builder.size);
+        this.widths = Arrays.copyOf(builder.widths, builder.size);
+        this.courseNames = Arrays.copyOf(builder.courseNames, builder.size);
+        this.courseDates = Arrays.copyOf(builder.courseDates, builder.size);
+        this.confirmations = Arrays.copyOf(builder.confirmations, builder.size);
+        this.ages = Arrays.copyOf(builder.ages, builder.size);
+        this.birthDates = Arrays.copyOf(builder.birthDates, builder.size);
+        this.offsets = Arrays.copyOf(builder.offsets, builder.size * ARENA_COLUMNS.length + 1);
+        this.arena = Arrays.copyOf(builder.arena, builder.arenaSize);
+        this.courseNameValues = builder.courseNameValues.values();
+        this.courseDateValues = builder.courseDateValues.values();
+        this.confirmationValues = builder.confirmationValues.values();
+        this.courseNamePositions = positions(this.courseNames, this.courseNameValues.length);
+        this.courseDatePositions = positions(this.courseDates, this.courseDateValues.length);
+    }
+
+    /**
+     * Creates a builder for a snapshot.
+     *
+     * @param expectedRows the number of rows expected, used to size the columns
+     * @return the builder
+     */
+    public static Builder builder(int expectedRows) {
+        return new Builder(expectedRows);
+    }
+
+    /**
+     * Returns the number of registrations in the snapshot.
+     *
+     * @return the number of registrations
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the spreadsheet row of a registration.
+     *
+     * @param index the position of the registration in the snapshot
+     * @return the spreadsheet row (1-based, header included)
+     */
+    public int sheetRow(int index) {
+        return this.rows[index];
+    }
+
+    /**
+     * Returns the position of the first registration stored after a spreadsheet row.
+     *
+     * @param row the spreadsheet row
+     * @return the position, or {@link #size()} if no registration comes after the row
+     */
+    public int positionAfterRow(int row) {
+        int low = 0;
+        int high = this.size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.rows[middle] <= row) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Builds the person of a registration, with the same values {@code PersonImpl} maps from the row.
+     *
+     * @param index the position of the registration in the snapshot
+     * @return the person
+     */
+    public Person materialize(int index) {
+        Course course = new Course(
+                decode(this.courseNameValues, this.courseNames[index]),
+                decode(this.courseDateValues, this.courseDates[index]));
+
+        int birthDate = this.birthDates[index];
+        return new Person(
+                course,
+                this.string(index, ARENA_NAME),
+                this.string(index, ARENA_RG),
+                birthDate == NO_DATE ? null : LocalDate.ofEpochDay(birthDate),
+                this.ages[index],
+                this.string(index, ARENA_ADDRESS),
+                this.string(index, ARENA_EMAIL),
+                this.string(index, ARENA_PHONE),
+                decode(this.confirmationValues, this.confirmations[index]));
+    }
+
+    /**
+     * Compiles a filter against the dictionaries of this snapshot.
+     *
+     * @param filter the filter
+     * @return the query, to scan the snapshot with
+     */
+    public Query query(RegistrationFilter filter) {
+        return new Query(filter);
+    }
+
+    private String string(int index, int arenaColumn) {
+        if (ARENA_COLUMNS[arenaColumn] >= this.widths[index]) {
+            return null;
+        }
+        int slot = index * ARENA_COLUMNS.length + arenaColumn;
+        int start = this.offsets[slot];
+        int length = this.offsets[slot + 1] - start;
+        return length == 0 ? null : new String(this.arena, start, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Inverts a dictionary-encoded column: the ascending positions of every id.
+     */
+    private static int[][] positions(int[] column, int distinct) {
+        int[] counts = new int[distinct];
+        for (int id : column) {
+            if (id != MISSING) {
+                counts[id]++;
+            }
+        }
+
+        int[][] positions = new int[distinct][];
+        for (int id = 0; id < distinct; id++) {
+            positions[id] = new int[counts[id]];
+        }
+        int[] filled = new int[distinct];
+        for (int index = 0; index < column.length; index++) {
+            int id = column[index];
+            if (id != MISSING) {
+                positions[id][filled[id]++] = index;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Merges the positions of the accepted ids, in ascending order.
+     *
+     * @return null if every id is accepted
+     */
+    private static int[] candidates(int[][] positions, boolean[] accepted) {
+        if (accepted == null) {
+            return null;
+        }
+        int total = 0;
+        int matchedIds = 0;
+        for (int id = 0; id < accepted.length; id++) {
+            if (accepted[id]) {
+                total += positions[id].length;
+                matchedIds++;
+            }
+        }
+
+        int[] candidates = new int[total];
+        int filled = 0;
+        for (int id = 0; id < accepted.length; id++) {
+            if (accepted[id]) {
+                System.arraycopy(positions[id], 0, candidates, filled, positions[id].length);
+                filled += positions[id].length;
+            }
+        }
+        if (matchedIds > 1) {
+            Arrays.sort(candidates);
+        }
+        return candidates;
+    }
+
+    private static String decode(String[] values, int id) {
+        return id == MISSING ? null : values[id];
+    }
+
+    /**
+     * Marks the ids of a dictionary whose value matches the filter value.
+     *
+     * @return null if the filter value is null, i.e. every id matches
+     */
+    private static boolean[] accepted(String[] values, String filterValue) {
+        if (filterValue == null) {
+            return null;
+        }
+        String normalized = RgIndex.normalize(filterValue);
+        boolean[] accepted = new boolean[values.length];
+        for (int id = 0; id < values.length; id++) {
+            accepted[id] = RgIndex.normalize(values[id]).equals(normalized);
+        }
+        return accepted;
+    }
+
+    /**
+     * A filter compiled against the snapshot: the text criteria with few distinct values become sets of dictionary
+     * ids, and the RG becomes normalized bytes compared in the arena, so a scan allocates nothing. With a course or
+     * a session criterion, only the positions of the smallest of the two are visited.
+     */
+    public final class Query {
+
+        private final boolean[] courseNames;
+        private final boolean[] courseDates;
+        private final boolean[] confirmations;
+        private final byte[] rg;
+        private final int minAge;
+        private final int maxAge;
+        private final int[] candidates;
+
+        private Query(RegistrationFilter filter) {
+            RegistrationSnapshot snapshot = RegistrationSnapshot.this;
+            this.courseNames = accepted(snapshot.courseNameValues, filter.courseName());
+            this.courseDates = accepted(snapshot.courseDateValues, filter.courseDate());
+            this.confirmations = accepted(snapshot.confirmationValues, filter.isConfirmed());
+            this.rg = filter.rg() == null ? null : RgIndex.normalize(filter.rg()).getBytes(StandardCharsets.UTF_8);
+            this.minAge = filter.minAge() == null ? Integer.MIN_VALUE : filter.minAge();
+            this.maxAge = filter.maxAge() == null ? Integer.MAX_VALUE : filter.maxAge();
+
+            int[] byCourseName = candidates(snapshot.courseNamePositions, this.courseNames);
+            int[] byCourseDate = candidates(snapshot.courseDatePositions, this.courseDates);
+            if (byCourseName == null || byCourseDate != null && byCourseDate.length < byCourseName.length) {
+                this.candidates = byCourseDate;
+            } else {
+                this.candidates = byCourseName;
+            }
+        }
+
+        /**
+         * Returns the first registration matching the filter at or after a position.
+         *
+         * @param from the position to start the scan at
+         * @return the position of the registration, or -1 if none is left
+         */
+        public int next(int from) {
+            if (this.candidates == null) {
+                for (int index = Math.max(from, 0); index < RegistrationSnapshot.this.size; index++) {
+                    if (this.test(index)) {
+                        return index;
+                    }
+                }
+                return -1;
+            }
+
+            int candidate = Arrays.binarySearch(this.candidates, from);
+            for (int i = candidate < 0 ? -candidate - 1 : candidate; i < this.candidates.length; i++) {
+                if (this.test(this.candidates[i])) {
+                    return this.candidates[i];
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Counts the registrations matching the filter.
+         *
+         * @return the number of registrations
+         */
+        public int count() {
+            int count = 0;
+            for (int index = this.next(0); index >= 0; index = this.next(index + 1)) {
+                count++;
+            }
+            return count;
+        }
+
+        /**
+         * Tests a single registration.
+         *
+         * @param index the position of the registration in the snapshot
+         * @return true if it matches the filter
+         */
+        public boolean test(int index) {
+            RegistrationSnapshot snapshot = RegistrationSnapshot.this;
+            int age = snapshot.ages[index];
+            return age >= this.minAge && age <= this.maxAge
+                    && accepts(this.courseNames, snapshot.courseNames[index])
+                    && accepts(this.courseDates, snapshot.courseDates[index])
+                    && accepts(this.confirmations, snapshot.confirmations[index])
+                    && (this.rg == null || this.rgMatches(index));
+        }
+
+        private static boolean accepts(boolean[] accepted, int id) {
+            return accepted == null || id != MISSING && accepted[id];
+        }
+
+        /**
+         * Compares the RG of a registration with the filter, normalized like {@link RgIndex#normalize}. ASCII RGs
+         * are compared in the arena; an RG with any other character is decoded and normalized, as upper-casing it
+         * may change its length.
+         */
+        private boolean rgMatches(int index) {
+            RegistrationSnapshot snapshot = RegistrationSnapshot.this;
+            int slot = index * ARENA_COLUMNS.length + ARENA_RG;
+            int start = snapshot.offsets[slot];
+            int end = snapshot.offsets[slot + 1];
+            for (int i = start; i < end; i++) {
+                if (snapshot.arena[i] < 0) {
+                    String value = new String(snapshot.arena, start, end - start, StandardCharsets.UTF_8);
+                    return Arrays.equals(RgIndex.normalize(value).getBytes(StandardCharsets.UTF_8), this.rg);
+                }
+            }
+            while (start < end && snapshot.arena[start] <= ' ') {
+                start++;
+            }
+            while (end > start && snapshot.arena[end - 1] <= ' ') {
+                end--;
+            }
+            if (end - start != this.rg.length) {
+                return false;
+            }
+            for (int i = 0; i < this.rg.length; i++) {
+                byte b = snapshot.arena[start + i];
+                if ((b >= 'a' && b <= 'z' ? b - ('a' - 'A') : b) != this.rg[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Appends the rows of the registrations sheet to growable columns. Not thread-safe.
+     */
+    public static final class Builder {
+
+        private int size;
+        private int[] rows;
+        private byte[] widths;
+        private int[] courseNames;
+        private int[] courseDates;
+        private int[] confirmations;
+        private int[] ages;
+        private int[] birthDates;
+        private int[] offsets;
+        private byte[] arena;
+        private int arenaSize;
+        private final Dictionary courseNameValues = new Dictionary();
+        private final Dictionary courseDateValues = new Dictionary();
+        private final Dictionary confirmationValues = new Dictionary();
+
+        private Builder(int expectedRows) {
+            int capacity = Math.max(expectedRows, 16);
+            this.rows = new int[capacity];
+            this.widths = new byte[capacity];
+            this.courseNames = new int[capacity];
+            this.courseDates = new int[capacity];
+            this.confirmations = new int[capacity];
+            this.ages = new int[capacity];
+            this.birthDates = new int[capacity];
+            this.offsets = new int[capacity * ARENA_COLUMNS.length + 1];
+            this.arena = new byte[capacity * 64];
+        }
+
+        /**
+         * Adds a row of the registrations sheet (columns A to J). Rows without any value are skipped.
+         *
+         * @param row   the spreadsheet row (1-based, header included)
+         * @param cells the cells of the row, possibly shorter than ten columns
+         * @return this builder
+         */
+        public Builder add(int row, List<Object> cells) {
+            if (isBlank(cells)) {
+                return this;
+            }
+            this.ensureCapacity();
+
+            int index = this.size;
+            int width = Math.min(cells.size(), IS_CONFIRMED + 1);
+            this.rows[index] = row;
+            this.widths[index] = (byte) width;
+            this.courseNames[index] = this.courseNameValues.id(cell(cells, COURSE_NAME));
+            this.courseDates[index] = this.courseDateValues.id(cell(cells, COURSE_DATE));
+            this.confirmations[index] = this.confirmationValues.id(cell(cells, IS_CONFIRMED));
+            this.ages[index] = parseAge(cell(cells, AGE));
+            this.birthDates[index] = parseEpochDay(cell(cells, BIRTH_DATE));
+
+            int slot = index * ARENA_COLUMNS.length;
+            for (int column : ARENA_COLUMNS) {
+                String value = cell(cells, column);
+                if (value != null) {
+                    this.appendToArena(value.getBytes(StandardCharsets.UTF_8));
+                }
+                this.offsets[++slot] = this.arenaSize;
+            }
+
+            this.size++;
+            return this;
+        }
+
+        /**
+         * Builds the snapshot, trimming the columns to the rows added.
+         *
+         * @return the snapshot
+         */
+        public RegistrationSnapshot build() {
+            return new RegistrationSnapshot(this);
+        }
+
+        private void ensureCapacity() {
+            if (this.size < this.rows.length) {
+                return;
+            }
+            int capacity = this.rows.length * 2;
+            this.rows = Arrays.copyOf(this.rows, capacity);
+            this.widths = Arrays.copyOf(this.widths, capacity);
+            this.courseNames = Arrays.copyOf(this.courseNames, capacity);
+            this.courseDates = Arrays.copyOf(this.courseDates, capacity);
+            this.confirmations = Arrays.copyOf(this.confirmations, capacity);
+            this.ages = Arrays.copyOf(this.ages, capacity);
+            this.birthDates = Arrays.copyOf(this.birthDates, capacity);
+            this.offsets = Arrays.copyOf(this.offsets, capacity * ARENA_COLUMNS.length + 1);
+        }
+
+        private void appendToArena(byte[] bytes) {
+            if (this.arenaSize + bytes.length > this.arena.length) {
+                this.arena = Arrays.copyOf(this.arena, Math.max(this.arena.length * 2, this.arenaSize + bytes.length));
+            }
+            System.arraycopy(bytes, 0, this.arena, this.arenaSize, bytes.length);
+            this.arenaSize += bytes.length;
+        }
+
+        private static boolean isBlank(List<Object> cells) {
+            for (Object cell : cells) {
+                if (cell != null && !cell.toString().isBlank()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static String cell(List<Object> cells, int column) {
+            if (column >= cells.size() || cells.get(column) == null) {
+                return null;
+            }
+            String value = cells.get(column).toString();
+            return value.isBlank() ? null : value;
+        }
+
+        private static int parseAge(String value) {
+            if (value == null || value.isBlank()) {
+                return 0;
+            }
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        private static int parseEpochDay(String value) {
+            if (value == null || value.isBlank()) {
+                return NO_DATE;
+            }
+            try {
+                return (int) LocalDate.parse(value.trim()).toEpochDay();
+            } catch (DateTimeParseException e) {
+                return NO_DATE;
+            }
+        }
+    }
+
+    /**
+     * Assigns a small id to every distinct value of a column, in the order they are first seen.
+     */
+    private static final class Dictionary {
+
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int id(String value) {
+            if (value == null) {
+                return MISSING;
+            }
+            return this.ids.computeIfAbsent(value, v -> {
+                this.values.add(v);
+                return this.values.size() - 1;
+            });
+        }
+
+        String[] values() {
+            return this.values.toArray(String[]::new);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.lucasmoraist.register_telecentro.repository.snapshot;
+
+import com.lucasmoraist.register_telecentro.exceptions.InvalidCursor;
+import com.lucasmoraist.register_telecentro.exceptions.InvalidPageSize;
+import com.lucasmoraist.register_telecentro.infra.concurrent.BackgroundThreads;
+import com.lucasmoraist.register_telecentro.model.dto.RegistrationFilter;
+import com.lucasmoraist.register_telecentro.repository.PersonRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory, read-only view of the registrations sheet for the query API, backed by a {@link RegistrationSnapshot}.
+ * The snapshot is loaded on the first query and, once older than {@code ttl-ms}, reloaded in the background on
+ * the next query while the current one is still served, so only the first query waits on Google Sheets and the
+ * sheet is not downloaded while nobody queries it.
+ * <p>
+ * Pages are addressed by cursors holding the sheet row of the last registration returned, so a page keeps
+ * following the previous one when the snapshot is reloaded between them.
+ *
+ * @author lucasmoraist
+ */
+@Slf4j
+@Service
+public class RegistrationView {
+
+    private static final String CURSOR_PREFIX = "row:";
+
+    private final PersonRepository repository;
+    private final long ttlMs;
+    private final int maxPageSize;
+    private final ExecutorService refresher;
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile Loaded loaded;
+
+    public RegistrationView(PersonRepository repository,
+                            BackgroundThreads backgroundThreads,
+                            @Value("${telecentro.registrations.view.ttl-ms:60000}") long ttlMs,
+                            @Value("${telecentro.registrations.view.max-page-size:1000}") int maxPageSize) {
+        this.repository = repository;
+        this.ttlMs = ttlMs;
+        this.maxPageSize = maxPageSize;
+        this.refresher = Executors.newSingleThreadExecutor(backgroundThreads.factory("registration-view-refresh"));
+    }
+
+    @PreDestroy
+    public void stop() {
+        this.refresher.shutdownNow();
+    }
+
+    /**
+     * Returns a page of the registrations matching a filter, in sheet order.
+     *
+     * @param filter the filter
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the maximum number of registrations in the page, capped at {@code max-page-size}
+     * @return the page
+     * @throws InvalidCursor   if the cursor was not returned by this API
+     * @throws InvalidPageSize if the size is less than 1
+     * @throws IOException     if the first load of the snapshot fails
+     */
+    public RegistrationPage page(RegistrationFilter filter, String cursor, int size) throws IOException {
+        if (size < 1) {
+            throw new InvalidPageSize();
+        }
+        int afterRow = decodeCursor(cursor);
+        RegistrationSnapshot snapshot = this.snapshot();
+        RegistrationSnapshot.Query query = snapshot.query(filter);
+
+        int[] positions = new int[Math.min(size, Math.max(1, this.maxPageSize))];
+        int found = 0;
+        int position = query.next(snapshot.positionAfterRow(afterRow));
+        while (position >= 0 && found < positions.length) {
+            positions[found++] = position;
+            position = query.next(position + 1);
+        }
+
+        String nextCursor = position >= 0 ? encodeCursor(snapshot.sheetRow(positions[found - 1])) : null;
+        return new RegistrationPage(snapshot, Arrays.copyOf(positions, found), nextCursor);
+    }
+
+    private RegistrationSnapshot snapshot() throws IOException {
+        Loaded current = this.loaded;
+        if (current == null) {
+            return this.loadOnMiss();
+        }
+
+        if (System.currentTimeMillis() - current.loadedAt() > this.ttlMs && this.refreshing.compareAndSet(false, true)) {
+            log.debug("Registration view expired, reloading in background");
+            this.refresher.execute(() -> {
+                try {
+                    this.load();
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Failed to reload the registration view, serving the previous snapshot: {}", e.getMessage());
+                } finally {
+                    this.refreshing.set(false);
+                }
+            });
+        }
+        return current.snapshot();
+    }
+
+    private RegistrationSnapshot loadOnMiss() throws IOException {
+        this.loadLock.lock();
+        try {
+            if (this.loaded == null) {
+                this.load();
+            }
+            return this.loaded.snapshot();
+        } finally {
+            this.loadLock.unlock();
+        }
+    }
+
+    private void load() throws IOException {
+        this.loaded = new Loaded(this.repository.readSnapshot(), System.currentTimeMillis());
+    }
+
+    private static String encodeCursor(int row) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((CURSOR_PREFIX + row).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.startsWith(CURSOR_PREFIX)) {
+                int row = Integer.parseInt(decoded.substring(CURSOR_PREFIX.length()));
+                if (row >= 0) {
+                    return row;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            log.debug("Unreadable cursor {}: {}", cursor, e.getMessage());
+        }
+        throw new InvalidCursor();
+    }
+
+    private record Loaded(RegistrationSnapshot snapshot, long loadedAt) {
+    }
+}
@@ -1,22 +1,78 @@
 package com.lucasmoraist.register_telecentro.service;
 
 import com.lucasmoraist.register_telecentro.model.Course;
-import com.lucasmoraist.register_telecentro.repository.impl.CourseImpl;
+import com.lucasmoraist.register_telecentro.model.Session;
+import com.lucasmoraist.register_telecentro.model.dto.UpdateCourse;
+import com.lucasmoraist.register_telecentro.repository.CourseRepository;
+import com.lucasmoraist.register_telecentro.repository.impl.SessionSeats;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
 public class CourseService {
 
     @Autowired
-    private CourseImpl repository;
+    private CourseRepository repository;
 
+    @Autowired
+    private SessionSeats seats;
+
+    /**
+     * Lists the courses, with the seats left in every session of the courses that have a capacity. The cached
+     * courses are shared, so the seats are filled in on copies.
+     *
+     * @return the list of courses
+     * @throws IOException if the courses cannot be loaded
+     */
     public List<Course> findAll() throws IOException {
-        return this.repository.listAll();
+        return this.repository.listAll().stream()
+                .map(this::withRemainingSeats)
+                .toList();
+    }
+
+    /**
+     * Tells whether a course is offered at the given date and time. The courses are loaded first if they were never
+     * loaded, so a registration arriving before the first load is not turned away.
+     *
+     * @param courseName  the course name
+     * @param dateAndTime the date and time of the session
+     * @return false if the courses tab has no such session
+     * @throws IOException if the courses cannot be loaded
+     */
+    public boolean isOffered(String courseName, String dateAndTime) throws IOException {
+        if (this.seats.isOffered(courseName, dateAndTime)) {
+            return true;
+        }
+        this.repository.listAll();
+        return this.seats.isOffered(courseName, dateAndTime);
     }
 
+    /**
+     * Updates the morning and afternoon sessions of a course.
+     *
+     * @param updateCourse the course name and its new sessions
+     * @throws IOException if the courses tab cannot be updated
+     */
+    public void update(UpdateCourse updateCourse) throws IOException {
+        this.repository.update(updateCourse);
+    }
+
+    private Course withRemainingSeats(Course course) {
+        if (course.getCapacity() == null || course.getSessions() == null) {
+            return course;
+        }
+
+        List<Session> sessions = new ArrayList<>(course.getSessions().size());
+        for (Session session : course.getSessions()) {
+            Integer left = this.seats.remaining(session.getId());
+            sessions.add(new Session(session.getId(), session.getDateAndTime(), session.getDayOfWeek(),
+                    session.getStartTime(), session.getEndTime(), left == null ? course.getCapacity() : left));
+        }
+        return new Course(course.getNameCourse(), course.getDateAndTime(), course.getCapacity(), sessions);
+    }
 
 }
@@ -2,6 +2,9 @@ package com.lucasmoraist.register_telecentro.service;
 
 import com.lucasmoraist.register_telecentro.exceptions.SendMailException;
 import com.lucasmoraist.register_telecentro.model.Person;
+import com.lucasmoraist.register_telecentro.service.template.MailTemplateType;
+import com.lucasmoraist.register_telecentro.service.template.MailTemplates;
+import com.lucasmoraist.register_telecentro.service.template.RenderedMail;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
@@ -13,6 +16,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
 
 /**
  * Service class responsible for sending emails to people who registered for a course.
@@ -24,49 +28,54 @@ import java.time.format.DateTimeFormatter;
 @Slf4j
 public class EmailService {
 
+    private static final DateTimeFormatter SENT_AT_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
     @Autowired
     private JavaMailSender mailSender;
 
+    @Autowired
+    private MailDispatcher mailDispatcher;
+
+    @Autowired
+    private MailTemplates mailTemplates;
+
     @Value("${spring.mail.username}")
     private String from;
 
     /**
-     * Sends an email to the person who registered for the course.
+     * Builds the confirmation email to the person who registered for the course and queues it on the
+     * {@link MailDispatcher}, so the caller does not wait on the SMTP server.
      *
      * @param person the person who registered for the course
-     * @throws MessagingException if an error occurs while sending the email
+     * @throws MessagingException if an error occurs while building the email
      */
     public void sendEmail(Person person) throws MessagingException {
-        LocalDateTime now = LocalDateTime.now();
+        this.sendEmail(person, MailTemplateType.CONFIRMATION);
+    }
+
+    /**
+     * Builds the given email to the person and queues it on the {@link MailDispatcher}.
+     *
+     * @param person the person the email is about
+     * @param type   the email to be sent
+     * @throws MessagingException if an error occurs while building the email
+     */
+    public void sendEmail(Person person, MailTemplateType type) throws MessagingException {
+        RenderedMail mail = mailTemplates.render(type, Map.of(
+                "name", String.valueOf(person.getName()),
+                "courseName", String.valueOf(person.getCourse().getNameCourse()),
+                "dateAndTime", String.valueOf(person.getCourse().getDateAndTime()),
+                "sentAt", SENT_AT_FORMAT.format(LocalDateTime.now())
+        ));
+
         MimeMessage message = mailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
         helper.setTo(person.getEmail());
-        helper.setSubject("Inscrição no curso de %s feita com sucesso!".formatted(person.getCourse().getNameCourse()));
-
-        String htmlContent = """
-                <html>
-                <body>
-                    <h2>Curso de <strong>%s</strong></h2>
-                    <p>Data e hora: <strong>%s</strong></p>
-                            
-                    <p>Abraços,</p>
-                    <p>Agente de Inclusão Digital<br>(011) 5667-6272</p>
-                            
-                    <i>Data de envio: %s</>
-                </body>
-                </html>
-                """.formatted(
-                person.getCourse().getNameCourse(),
-                person.getCourse().getDateAndTime(),
-                now.format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"))
-        );
-
-
-        helper.setText(htmlContent, true);
-
+        helper.setSubject(mail.subject());
+        helper.setText(mail.htmlBody(), true);
         helper.setFrom(from);
-        mailSender.send(message);
 
+        mailDispatcher.dispatch(message, person.getEmail());
     }
 
 }
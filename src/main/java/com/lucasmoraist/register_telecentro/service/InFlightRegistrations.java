@@ -0,0 +1,50 @@
+package com.lucasmoraist.register_telecentro.service;
+
+import com.lucasmoraist.register_telecentro.model.Person;
+import com.lucasmoraist.register_telecentro.repository.impl.RgIndex;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RG + course date of the registrations being saved right now, by a single request or a bulk import, so that two
+ * concurrent saves of the same registration cannot both pass the duplicate check before either is written. A key
+ * is claimed before the duplicate check and released once the registration is in the sheet or rejected.
+ *
+ * @author lucasmoraist
+ */
+@Component
+public class InFlightRegistrations {
+
+    private final Set<String> keys = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Returns the key of a registration: its normalized RG and course date.
+     *
+     * @param person the person being registered
+     * @return the key
+     */
+    public static String key(Person person) {
+        return RgIndex.normalize(person.getRg()) + '|' + RgIndex.normalize(person.getCourse().getDateAndTime());
+    }
+
+    /**
+     * Claims a key.
+     *
+     * @param key the key of the registration
+     * @return false if the key is already claimed by another save
+     */
+    public boolean claim(String key) {
+        return this.keys.add(key);
+    }
+
+    /**
+     * Releases a claimed key.
+     *
+     * @param key the key of the registration
+     */
+    public void release(String key) {
+        this.keys.remove(key);
+    }
+}
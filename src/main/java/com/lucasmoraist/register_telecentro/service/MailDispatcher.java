@@ -0,0 +1,192 @@
+package com.lucasmoraist.register_telecentro.service;
+
+import com.lucasmoraist.register_telecentro.infra.concurrent.BackgroundThreads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends emails off the request thread. Messages are queued and a dispatcher thread sends them in batches
+ * through a single {@link JavaMailSender#send(MimeMessage...)} call, which reuses one SMTP connection for the
+ * whole batch. Failed messages are retried with exponential backoff and moved to a dead-letter list once
+ * {@code max-attempts} is reached. The list keeps only the last {@code dead-letter-capacity} messages; its size is
+ * published as the {@code telecentro.mail.dead.letters} gauge and every dead-lettered message is counted by
+ * {@code telecentro.mail.dead.lettered}. On shutdown the queued messages and the ones waiting for a retry are
+ * sent one last time instead of being dropped.
+ *
+ * @author lucasmoraist
+ */
+@Slf4j
+@Service
+public class MailDispatcher {
+
+    private final JavaMailSender mailSender;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final int deadLetterCapacity;
+    private final BlockingQueue<OutgoingMail> queue;
+    private final Deque<OutgoingMail> deadLetters = new ConcurrentLinkedDeque<>();
+    private final Set<OutgoingMail> scheduledRetries = ConcurrentHashMap.newKeySet();
+    private final BackgroundThreads backgroundThreads;
+    private final ScheduledExecutorService retryScheduler;
+    private final Counter deadLettered;
+
+    private volatile boolean running;
+    private Thread dispatcher;
+
+    public MailDispatcher(JavaMailSender mailSender,
+                          MeterRegistry meterRegistry,
+                          BackgroundThreads backgroundThreads,
+                          @Value("${telecentro.mail.queue-capacity:500}") int queueCapacity,
+                          @Value("${telecentro.mail.batch-size:20}") int batchSize,
+                          @Value("${telecentro.mail.max-attempts:5}") int maxAttempts,
+                          @Value("${telecentro.mail.initial-backoff-ms:1000}") long initialBackoffMs,
+                          @Value("${telecentro.mail.dead-letter-capacity:100}") int deadLetterCapacity) {
+        this.mailSender = mailSender;
+        this.backgroundThreads = backgroundThreads;
+        this.retryScheduler = Executors.newSingleThreadScheduledExecutor(backgroundThreads.factory("mail-retry"));
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.deadLetterCapacity = deadLetterCapacity;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("telecentro.mail.queue.size", this.queue, BlockingQueue::size).register(meterRegistry);
+        Gauge.builder("telecentro.mail.dead.letters", this.deadLetters, Deque::size).register(meterRegistry);
+        this.deadLettered = Counter.builder("telecentro.mail.dead.lettered")
+                .description("Emails moved to the dead-letter list, including the ones evicted from it since")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        this.running = true;
+        this.dispatcher = this.backgroundThreads.start("mail-dispatcher", this::run);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        this.running = false;
+        this.retryScheduler.shutdownNow();
+        this.dispatcher.interrupt();
+        this.dispatcher.join(TimeUnit.SECONDS.toMillis(10));
+        this.retryScheduler.awaitTermination(1, TimeUnit.SECONDS);
+
+        List<OutgoingMail> remaining = new ArrayList<>();
+        this.queue.drainTo(remaining);
+        for (OutgoingMail mail : List.copyOf(this.scheduledRetries)) {
+            if (this.scheduledRetries.remove(mail)) {
+                remaining.add(mail);
+            }
+        }
+        if (!remaining.isEmpty()) {
+            log.info("Sending {} queued or retrying emails before shutdown", remaining.size());
+            this.send(remaining);
+        }
+    }
+
+    /**
+     * Queues a message to be sent by the dispatcher thread.
+     *
+     * @param message   the message to be sent
+     * @param recipient the recipient, used for logging
+     */
+    public void dispatch(MimeMessage message, String recipient) {
+        OutgoingMail mail = new OutgoingMail(message, recipient, 0);
+        if (!this.queue.offer(mail)) {
+            log.error("Mail queue is full, moving email to {} to the dead-letter list", recipient);
+            this.deadLetter(mail);
+        }
+    }
+
+    private void run() {
+        while (this.running) {
+            try {
+                List<OutgoingMail> batch = new ArrayList<>(this.batchSize);
+                batch.add(this.queue.take());
+                this.queue.drainTo(batch, this.batchSize - 1);
+                this.send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void send(List<OutgoingMail> batch) {
+        MimeMessage[] messages = batch.stream().map(OutgoingMail::message).toArray(MimeMessage[]::new);
+        try {
+            this.mailSender.send(messages);
+            log.info("Sent {} emails", batch.size());
+        } catch (MailSendException e) {
+            Set<Object> failed = e.getFailedMessages().keySet();
+            log.warn("Failed to send {} of {} emails: {}", failed.isEmpty() ? batch.size() : failed.size(), batch.size(), e.getMessage());
+            for (OutgoingMail mail : batch) {
+                if (failed.isEmpty() || failed.contains(mail.message())) {
+                    this.retry(mail);
+                }
+            }
+        } catch (MailException e) {
+            log.warn("Failed to send {} emails: {}", batch.size(), e.getMessage());
+            batch.forEach(this::retry);
+        }
+    }
+
+    private void retry(OutgoingMail mail) {
+        OutgoingMail next = new OutgoingMail(mail.message(), mail.recipient(), mail.attempts() + 1);
+        if (next.attempts() >= this.maxAttempts || !this.running) {
+            log.error("Giving up on email to {} after {} attempts", mail.recipient(), next.attempts());
+            this.deadLetter(next);
+            return;
+        }
+
+        long backoff = this.initialBackoffMs << (next.attempts() - 1);
+        long delay = backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+        log.debug("Retrying email to {} in {} ms (attempt {})", mail.recipient(), delay, next.attempts() + 1);
+        this.scheduledRetries.add(next);
+        try {
+            this.retryScheduler.schedule(() -> {
+                if (this.scheduledRetries.remove(next) && !this.queue.offer(next)) {
+                    this.deadLetter(next);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("Shutting down, the email to {} is sent with the remaining ones", mail.recipient());
+        }
+    }
+
+    private void deadLetter(OutgoingMail mail) {
+        this.deadLettered.increment();
+        this.deadLetters.addLast(mail);
+        while (this.deadLetters.size() > this.deadLetterCapacity) {
+            this.deadLetters.pollFirst();
+        }
+    }
+
+    private record OutgoingMail(MimeMessage message, String recipient, int attempts) {
+    }
+}
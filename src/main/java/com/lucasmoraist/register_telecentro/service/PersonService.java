@@ -2,9 +2,14 @@ package com.lucasmoraist.register_telecentro.service;
 
 import com.lucasmoraist.register_telecentro.exceptions.ResourceNotFound;
 import com.lucasmoraist.register_telecentro.exceptions.RgRegistered;
-import com.lucasmoraist.register_telecentro.exceptions.SendMailException;
+import com.lucasmoraist.register_telecentro.exceptions.SessionFull;
 import com.lucasmoraist.register_telecentro.model.Person;
-import com.lucasmoraist.register_telecentro.repository.impl.PersonImpl;
+import com.lucasmoraist.register_telecentro.model.dto.RegistrationFilter;
+import com.lucasmoraist.register_telecentro.repository.PersonRepository;
+import com.lucasmoraist.register_telecentro.repository.impl.SessionSeats;
+import com.lucasmoraist.register_telecentro.repository.snapshot.RegistrationPage;
+import com.lucasmoraist.register_telecentro.repository.snapshot.RegistrationView;
+import com.lucasmoraist.register_telecentro.service.journal.RegistrationJournal;
 import jakarta.mail.MessagingException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -13,6 +18,7 @@ import org.springframework.stereotype.Service;
 import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Service class responsible for handling operations related to the Person entity.
@@ -25,46 +31,127 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class PersonService {
 
-    private final PersonImpl sheetsImpl;
+    private final PersonRepository repository;
+    private final RegistrationChecks checks;
     private final EmailService emailService;
+    private final CourseService courseService;
+    private final RegistrationWriteBehind writeBehind;
+    private final RegistrationJournal journal;
+    private final SessionSeats seats;
+    private final RegistrationView view;
+    private final InFlightRegistrations inFlight;
 
     public void save(Person person) throws IOException {
         log.info("Starting save operation for person: {}", person.getName());
 
-        this.verifyPerson(person);
-
-        int nextRow = sheetsImpl.getNextAvailableRow();
-        log.debug("Next available row for insertion: {}", nextRow);
-
-        String nextRange = String.format("'Incrições Telecentro'!A%d:J%d", nextRow, nextRow);
-        log.debug("Computed range for insertion: {}", nextRange);
+        this.checkRequiredFields(person);
+        String key = InFlightRegistrations.key(person);
+        if (!inFlight.claim(key)) {
+            log.error("RG: {} and Course Date: {} are already being saved by another request", person.getRg(), person.getCourse().getDateAndTime());
+            throw new RgRegistered();
+        }
 
-        sheetsImpl.savePersonData(person, nextRange);
-        log.info("Successfully saved person data at range: {}", nextRange);
+        try {
+            this.checkNotRegistered(person);
+            this.reserveSeat(person);
+            this.store(person);
+        } finally {
+            inFlight.release(key);
+        }
 
         try {
             emailService.sendEmail(person);
-            log.info("Email sent successfully to: {}", person.getEmail());
+            log.info("Email queued successfully to: {}", person.getEmail());
         } catch (MessagingException e) {
-            log.error("Failed to send email for person: {}", person.getName(), e);
-            throw new SendMailException();
+            // the registration is already saved, failing the request now would make the client's retry a duplicate
+            log.error("Person saved but the confirmation email could not be queued for: {}", person.getName(), e);
         }
     }
 
     public List<Person> listPersonByRg(String rg) throws IOException {
         log.info("Searching for person with RG: {}", rg);
 
-        return sheetsImpl.listPersonByRg(rg);
+        return repository.listPersonByRg(rg);
+    }
+
+    public RegistrationPage listRegistrations(RegistrationFilter filter, String cursor, int size) throws IOException {
+        log.info("Listing registrations matching: {}", filter);
+
+        RegistrationPage page = view.page(filter, cursor, size);
+        log.info("Found {} registrations, more pages: {}", page.size(), page.nextCursor() != null);
+        return page;
     }
 
-    private void verifyPerson(Person person) throws IOException {
-        if (person.getRg() == null || person.getCourse() == null || person.getCourse().getDateAndTime() == null) {
+    private void store(Person person) throws IOException {
+        try {
+            if (journal.isEnabled()) {
+                journal.append(person);
+                log.info("Person data journaled, it will be written to the sheet in the background");
+            } else if (writeBehind.isEnabled()) {
+                int row = this.awaitWriteBehind(person);
+                log.info("Successfully saved person data at row: {}", row);
+            } else {
+                int row = repository.savePersonData(person);
+                log.info("Successfully saved person data at row: {}", row);
+            }
+        } catch (IOException | RuntimeException e) {
+            seats.release(person.getCourse().getNameCourse(), person.getCourse().getDateAndTime());
+            throw e;
+        }
+    }
+
+    private void reserveSeat(Person person) throws IOException {
+        if (!courseService.isOffered(person.getCourse().getNameCourse(), person.getCourse().getDateAndTime())) {
+            log.error("Course: {} at {} is not offered. Aborting save operation.", person.getCourse().getNameCourse(), person.getCourse().getDateAndTime());
+            throw new ResourceNotFound("Course session not found");
+        }
+        if (!seats.tryReserve(person.getCourse().getNameCourse(), person.getCourse().getDateAndTime())) {
+            log.error("Course: {} at {} is full. Aborting save operation.", person.getCourse().getNameCourse(), person.getCourse().getDateAndTime());
+            throw new SessionFull();
+        }
+    }
+
+    private int awaitWriteBehind(Person person) throws IOException {
+        try {
+            return writeBehind.submit(person).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the registration to be saved", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Failed to save the registration", e.getCause());
+        }
+    }
+
+    private void checkRequiredFields(Person person) {
+        if (!RegistrationChecks.hasRequiredFields(person)) {
             log.error("Required fields are missing in the person object. Aborting save operation. RG: {}, Course: {}", person.getRg(), person.getCourse());
             throw new IllegalArgumentException("Required fields are missing in the person object");
         }
-        if (sheetsImpl.isRgAndCourseDateAlreadyRegistered(person.getRg(), person.getCourse().getDateAndTime())) {
+    }
+
+    private void checkNotRegistered(Person person) throws IOException {
+        if (this.isAlreadyRegistered(person)) {
             log.error("RG: {} and Course Date: {} are already registered. Aborting save operation.", person.getRg(), person.getCourse().getDateAndTime());
             throw new RgRegistered();
         }
     }
+
+    /**
+     * With the journal enabled a registration is still accepted when the sheet cannot be read, since the journal
+     * replay drops it if the sheet turns out to already have the same RG and course date.
+     */
+    private boolean isAlreadyRegistered(Person person) throws IOException {
+        try {
+            return checks.isAlreadyRegistered(person);
+        } catch (IOException e) {
+            if (!journal.isEnabled()) {
+                throw e;
+            }
+            log.warn("Could not check RG: {} against the sheet, journaling the registration anyway: {}", person.getRg(), e.getMessage());
+            return false;
+        }
+    }
 }
@@ -0,0 +1,50 @@
+package com.lucasmoraist.register_telecentro.service;
+
+import com.lucasmoraist.register_telecentro.model.Person;
+import com.lucasmoraist.register_telecentro.repository.PersonRepository;
+import com.lucasmoraist.register_telecentro.service.journal.RegistrationJournal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Checks shared by {@code POST /person} and the bulk import, so both accept and reject the same registrations.
+ * A registration is a duplicate when the sheet already has its RG and course date, and also while the journal or
+ * the write-behind queue hold it but have not written it to the sheet yet.
+ *
+ * @author lucasmoraist
+ */
+@Component
+@RequiredArgsConstructor
+public class RegistrationChecks {
+
+    private final PersonRepository repository;
+    private final RegistrationJournal journal;
+    private final RegistrationWriteBehind writeBehind;
+
+    /**
+     * Tells whether a registration has the fields every registration needs: the RG and the course date.
+     *
+     * @param person the person being registered
+     * @return false if a required field is missing
+     */
+    public static boolean hasRequiredFields(Person person) {
+        return person.getRg() != null && person.getCourse() != null && person.getCourse().getDateAndTime() != null;
+    }
+
+    /**
+     * Tells whether the RG is already registered in the course date, or waiting to be written to the sheet.
+     *
+     * @param person the person being registered, with the required fields
+     * @return true if the registration is a duplicate
+     * @throws IOException if the sheet cannot be read
+     */
+    public boolean isAlreadyRegistered(Person person) throws IOException {
+        String key = InFlightRegistrations.key(person);
+        if (this.journal.isPending(key) || this.writeBehind.isPending(key)) {
+            return true;
+        }
+        return this.repository.isRgAndCourseDateAlreadyRegistered(person.getRg(), person.getCourse().getDateAndTime());
+    }
+}
@@ -0,0 +1,200 @@
+package com.lucasmoraist.register_telecentro.service;
+
+import com.lucasmoraist.register_telecentro.exceptions.AppendPartiallyFailed;
+import com.lucasmoraist.register_telecentro.exceptions.RegistrationQueueFull;
+import com.lucasmoraist.register_telecentro.infra.concurrent.BackgroundThreads;
+import com.lucasmoraist.register_telecentro.exceptions.RgRegistered;
+import com.lucasmoraist.register_telecentro.model.Person;
+import com.lucasmoraist.register_telecentro.repository.PersonRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional write-behind mode for registrations. Accepted registrations are put in a bounded queue and a single
+ * flusher thread writes them to the sheet with one append call every {@code flush-interval-ms} or as soon as
+ * {@code max-batch-size} registrations are waiting, whichever comes first.
+ * <p>
+ * Every submission returns a future completed with the row the registration was written to, or completed
+ * exceptionally with the IOException of the failed batch, so callers still see the outcome of their own write.
+ * <p>
+ * A submission holds its RG + course date from the duplicate check until its batch is written, so two concurrent
+ * submissions for the same key cannot both pass the check before either is queued.
+ *
+ * @author lucasmoraist
+ */
+@Slf4j
+@Service
+public class RegistrationWriteBehind {
+
+    private final PersonRepository repository;
+    private final BackgroundThreads backgroundThreads;
+    private final boolean enabled;
+    private final long flushIntervalMs;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingRegistration> queue;
+    private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public RegistrationWriteBehind(PersonRepository repository,
+                                   BackgroundThreads backgroundThreads,
+                                   @Value("${telecentro.write-behind.enabled:false}") boolean enabled,
+                                   @Value("${telecentro.write-behind.capacity:1000}") int capacity,
+                                   @Value("${telecentro.write-behind.flush-interval-ms:500}") long flushIntervalMs,
+                                   @Value("${telecentro.write-behind.max-batch-size:50}") int maxBatchSize) {
+        this.repository = repository;
+        this.backgroundThreads = backgroundThreads;
+        this.enabled = enabled;
+        this.flushIntervalMs = flushIntervalMs;
+        this.maxBatchSize = maxBatchSize;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!this.enabled) {
+            return;
+        }
+        this.running = true;
+        this.flusher = this.backgroundThreads.start("registration-write-behind", this::run);
+        log.info("Registration write-behind enabled: flush every {} ms or {} rows", this.flushIntervalMs, this.maxBatchSize);
+    }
+
+    /**
+     * Stops the flusher and writes whatever is still queued before the application shuts down.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (this.flusher == null) {
+            return;
+        }
+        this.running = false;
+        this.flusher.interrupt();
+        this.flusher.join(TimeUnit.SECONDS.toMillis(10));
+
+        List<PendingRegistration> remaining = new ArrayList<>();
+        this.queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            log.info("Flushing {} queued registrations before shutdown", remaining.size());
+            this.flush(remaining);
+        }
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Tells whether a registration is queued and not yet written to the sheet.
+     *
+     * @param key the key of the registration, see {@link InFlightRegistrations#key}
+     * @return true if the registration is waiting in the queue
+     */
+    public boolean isPending(String key) {
+        return this.pendingKeys.contains(key);
+    }
+
+    /**
+     * Checks that a registration is not a duplicate and queues it to be written with the next batch. The RG and
+     * course date are claimed before the check and released once the batch is written, so the check and the
+     * enqueue are atomic for a given key.
+     *
+     * @param person the person to be saved
+     * @return a future completed with the row the person was written to
+     * @throws RgRegistered          if the same RG and course date is already registered or waiting in the queue
+     * @throws RegistrationQueueFull if the queue is full
+     * @throws IOException           if the duplicate check cannot read the sheet
+     */
+    public CompletableFuture<Integer> submit(Person person) throws IOException {
+        String key = InFlightRegistrations.key(person);
+        if (!this.pendingKeys.add(key)) {
+            log.error("RG: {} and Course Date: {} are already waiting to be saved", person.getRg(), person.getCourse().getDateAndTime());
+            throw new RgRegistered();
+        }
+
+        boolean queued = false;
+        try {
+            if (this.repository.isRgAndCourseDateAlreadyRegistered(person.getRg(), person.getCourse().getDateAndTime())) {
+                log.error("RG: {} and Course Date: {} are already registered", person.getRg(), person.getCourse().getDateAndTime());
+                throw new RgRegistered();
+            }
+
+            PendingRegistration pending = new PendingRegistration(person, key, new CompletableFuture<>());
+            if (!this.queue.offer(pending)) {
+                log.error("Write-behind queue is full, rejecting registration for: {}", person.getName());
+                throw new RegistrationQueueFull();
+            }
+            queued = true;
+            return pending.result();
+        } finally {
+            if (!queued) {
+                this.pendingKeys.remove(key);
+            }
+        }
+    }
+
+    private void run() {
+        while (this.running) {
+            try {
+                List<PendingRegistration> batch = new ArrayList<>(this.maxBatchSize);
+                batch.add(this.queue.take());
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(this.flushIntervalMs);
+                while (batch.size() < this.maxBatchSize) {
+                    PendingRegistration next = this.queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                this.flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void flush(List<PendingRegistration> batch) {
+        List<Person> persons = batch.stream().map(PendingRegistration::person).toList();
+        try {
+            int[] rows = this.repository.appendPersonData(persons);
+            log.info("Flushed {} registrations starting at row {}", batch.size(), rows[0]);
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(rows[i]);
+            }
+        } catch (AppendPartiallyFailed e) {
+            log.error("Failed to flush part of {} registrations", batch.size(), e);
+            for (int i = 0; i < batch.size(); i++) {
+                if (e.isWritten(i)) {
+                    batch.get(i).result().complete(e.rows()[i]);
+                } else {
+                    batch.get(i).result().completeExceptionally(e.failure());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to flush {} registrations", batch.size(), e);
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        } finally {
+            batch.forEach(pending -> this.pendingKeys.remove(pending.key()));
+        }
+    }
+
+    private record PendingRegistration(Person person, String key, CompletableFuture<Integer> result) {
+    }
+}
@@ -0,0 +1,317 @@
+package com.lucasmoraist.register_telecentro.service.bulk;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lucasmoraist.register_telecentro.exceptions.AppendPartiallyFailed;
+import com.lucasmoraist.register_telecentro.model.Course;
+import com.lucasmoraist.register_telecentro.model.Person;
+import com.lucasmoraist.register_telecentro.model.dto.BulkRowResult;
+import com.lucasmoraist.register_telecentro.model.dto.BulkRowResult.Status;
+import com.lucasmoraist.register_telecentro.repository.PersonRepository;
+import com.lucasmoraist.register_telecentro.repository.impl.SessionSeats;
+import com.lucasmoraist.register_telecentro.service.CourseService;
+import com.lucasmoraist.register_telecentro.service.EmailService;
+import com.lucasmoraist.register_telecentro.service.InFlightRegistrations;
+import com.lucasmoraist.register_telecentro.service.RegistrationChecks;
+import jakarta.mail.MessagingException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports many registrations at once. The body is streamed row by row, so it is never fully loaded in memory;
+ * rows are validated and deduplicated with the same {@link RegistrationChecks} as {@code POST /person}, against the
+ * rows already accepted and against the registrations other requests are saving right now, and the accepted ones
+ * are written with one append call per {@code telecentro.bulk.batch-size} rows.
+ * <p>
+ * A JSON element that is not an object is rejected on its own and the import goes on with the next element.
+ *
+ * @author lucasmoraist
+ */
+@Slf4j
+@Service
+public class BulkRegistrationService {
+
+    /**
+     * Columns of the CSV header, in the same order as the registrations sheet.
+     */
+    static final List<String> CSV_COLUMNS = List.of(
+            "nameCourse", "dateAndTime", "name", "rg", "birthDate", "age", "address", "email", "phoneNumber", "isConfirmed");
+
+    private final PersonRepository repository;
+    private final RegistrationChecks checks;
+    private final SessionSeats seats;
+    private final CourseService courseService;
+    private final EmailService emailService;
+    private final InFlightRegistrations inFlight;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+
+    public BulkRegistrationService(PersonRepository repository,
+                                   RegistrationChecks checks,
+                                   SessionSeats seats,
+                                   CourseService courseService,
+                                   EmailService emailService,
+                                   InFlightRegistrations inFlight,
+                                   ObjectMapper objectMapper,
+                                   @Value("${telecentro.bulk.batch-size:500}") int batchSize) {
+        this.repository = repository;
+        this.checks = checks;
+        this.seats = seats;
+        this.courseService = courseService;
+        this.emailService = emailService;
+        this.inFlight = inFlight;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports the registrations of a CSV body. The first line must be a header naming every column in
+     * {@link #CSV_COLUMNS}, in any order.
+     *
+     * @param body the CSV body
+     * @return the outcome of every row
+     * @throws IOException if the header is missing columns
+     */
+    public List<BulkRowResult> importCsv(InputStream body) throws IOException {
+        Import bulk = new Import();
+        int lineNumber = 1;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null) {
+                return bulk.results;
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            List<String> names = CsvLineParser.parse(header.replace("\uFEFF", ""));
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i), i);
+            }
+            List<String> missing = CSV_COLUMNS.stream().filter(column -> !columns.containsKey(column)).toList();
+            if (!missing.isEmpty()) {
+                throw new IOException("CSV header is missing the columns: " + String.join(", ", missing));
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    bulk.accept(lineNumber, this.toPerson(CsvLineParser.parse(line), columns));
+                } catch (IllegalArgumentException | DateTimeParseException e) {
+                    bulk.reject(lineNumber, null, Status.INVALID, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            if (lineNumber == 1) {
+                throw e;
+            }
+            bulk.reject(lineNumber, null, Status.INVALID, "Import interrupted: " + e.getMessage());
+        }
+        bulk.flush();
+        return bulk.results;
+    }
+
+    /**
+     * Imports the registrations of a JSON array of persons, in the same format accepted by {@code POST /person}.
+     * Each element is read and mapped on its own, so an invalid element, or one that is not an object, only
+     * rejects that element.
+     *
+     * @param body the JSON body
+     * @return the outcome of every element of the array
+     * @throws IOException if the body is not a JSON array
+     */
+    public List<BulkRowResult> importJson(InputStream body) throws IOException {
+        Import bulk = new Import();
+        int position = 0;
+        try (JsonParser parser = this.objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected a JSON array of persons");
+            }
+
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IOException("Unexpected end of the JSON array");
+                }
+                position++;
+                if (token != JsonToken.START_OBJECT) {
+                    parser.skipChildren();
+                    bulk.reject(position, null, Status.INVALID, "Expected a person object, found " + token.asString());
+                    continue;
+                }
+                JsonNode element = parser.readValueAsTree();
+                try {
+                    bulk.accept(position, this.objectMapper.treeToValue(element, Person.class));
+                } catch (JsonProcessingException e) {
+                    bulk.reject(position, element.path("rg").asText(null), Status.INVALID, e.getOriginalMessage());
+                }
+            }
+        } catch (IOException e) {
+            if (position == 0) {
+                throw e;
+            }
+            bulk.reject(position, null, Status.INVALID, "Import interrupted: " + e.getMessage());
+        }
+        bulk.flush();
+        return bulk.results;
+    }
+
+    private Person toPerson(List<String> fields, Map<String, Integer> columns) {
+        String age = field(fields, columns, "age");
+        String birthDate = field(fields, columns, "birthDate");
+        return new Person(
+                new Course(field(fields, columns, "nameCourse"), field(fields, columns, "dateAndTime")),
+                field(fields, columns, "name"),
+                field(fields, columns, "rg"),
+                birthDate == null ? null : LocalDate.parse(birthDate),
+                age == null ? 0 : Integer.parseInt(age),
+                field(fields, columns, "address"),
+                field(fields, columns, "email"),
+                field(fields, columns, "phoneNumber"),
+                field(fields, columns, "isConfirmed")
+        );
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+            return null;
+        }
+        return fields.get(index);
+    }
+
+    /**
+     * State of a single import: the keys of the rows already accepted, the rows waiting to be written with the in-flight keys
+     * they hold, and the report.
+     */
+    private final class Import {
+
+        private final List<BulkRowResult> results = new ArrayList<>();
+        private final Set<String> seenKeys = new HashSet<>();
+        private final List<Person> pending = new ArrayList<>();
+        private final List<Integer> pendingResults = new ArrayList<>();
+        private final List<String> pendingKeys = new ArrayList<>();
+
+        void accept(int line, Person person) throws IOException {
+            if (!RegistrationChecks.hasRequiredFields(person)) {
+                this.reject(line, person.getRg(), Status.INVALID, "Required fields are missing");
+                return;
+            }
+
+            String key = InFlightRegistrations.key(person);
+            if (this.seenKeys.contains(key)) {
+                this.reject(line, person.getRg(), Status.DUPLICATE, "This RG is already registered in this course date");
+                return;
+            }
+            if (!inFlight.claim(key)) {
+                this.reject(line, person.getRg(), Status.DUPLICATE, "This RG is already being registered in this course date");
+                return;
+            }
+
+            boolean accepted = false;
+            try {
+                if (checks.isAlreadyRegistered(person)) {
+                    this.reject(line, person.getRg(), Status.DUPLICATE, "This RG is already registered in this course date");
+                    return;
+                }
+                if (!courseService.isOffered(person.getCourse().getNameCourse(), person.getCourse().getDateAndTime())) {
+                    this.reject(line, person.getRg(), Status.INVALID, "This course date is not offered");
+                    return;
+                }
+                if (!seats.tryReserve(person.getCourse().getNameCourse(), person.getCourse().getDateAndTime())) {
+                    this.reject(line, person.getRg(), Status.FULL, "There are no seats left in this course date");
+                    return;
+                }
+                accepted = true;
+            } finally {
+                if (!accepted) {
+                    inFlight.release(key);
+                }
+            }
+
+            this.seenKeys.add(key);
+            this.pendingKeys.add(key);
+            this.pendingResults.add(this.results.size());
+            this.results.add(new BulkRowResult(line, person.getRg(), Status.SAVED, null));
+            this.pending.add(person);
+            if (this.pending.size() >= batchSize) {
+                this.flush();
+            }
+        }
+
+        void reject(int line, String rg, Status status, String message) {
+            log.debug("Rejecting bulk row {} (RG: {}): {}", line, rg, message);
+            this.results.add(new BulkRowResult(line, rg, status, message));
+        }
+
+        void flush() {
+            if (this.pending.isEmpty()) {
+                return;
+            }
+
+            try {
+                int[] rows = repository.appendPersonData(this.pending);
+                log.info("Bulk import saved {} registrations starting at row {}", this.pending.size(), rows[0]);
+                this.pending.forEach(this::sendEmail);
+            } catch (AppendPartiallyFailed e) {
+                log.error("Bulk import failed to save part of {} registrations", this.pending.size(), e);
+                for (int i = 0; i < this.pending.size(); i++) {
+                    if (e.isWritten(i)) {
+                        this.sendEmail(this.pending.get(i));
+                    } else {
+                        this.failed(i, e.failure());
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                log.error("Bulk import failed to save {} registrations", this.pending.size(), e);
+                for (int i = 0; i < this.pending.size(); i++) {
+                    this.failed(i, e);
+                }
+            } finally {
+                this.pendingKeys.forEach(inFlight::release);
+                this.pending.clear();
+                this.pendingResults.clear();
+                this.pendingKeys.clear();
+            }
+        }
+
+        private void failed(int pendingIndex, Exception e) {
+            Person person = this.pending.get(pendingIndex);
+            this.seenKeys.remove(this.pendingKeys.get(pendingIndex));
+            seats.release(person.getCourse().getNameCourse(), person.getCourse().getDateAndTime());
+            int index = this.pendingResults.get(pendingIndex);
+            BulkRowResult result = this.results.get(index);
+            this.results.set(index, new BulkRowResult(result.line(), result.rg(), Status.FAILED, e.getMessage()));
+        }
+
+        private void sendEmail(Person person) {
+            if (person.getEmail() == null) {
+                return;
+            }
+            try {
+                emailService.sendEmail(person);
+            } catch (MessagingException e) {
+                log.error("Failed to queue email for person: {}", person.getName(), e);
+            }
+        }
+    }
+}
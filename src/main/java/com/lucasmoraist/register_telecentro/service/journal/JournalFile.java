@@ -0,0 +1,189 @@
+package com.lucasmoraist.register_telecentro.service.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal file, memory-mapped at a fixed capacity. The layout is a 16-byte header followed by records:
+ * <pre>
+ * header: int magic | int reserved | long checkpoint
+ * record: int length | int crc32c  | byte[length] payload
+ * </pre>
+ * Every append writes a zero length after the new record, so the scan done on open stops at the end of the
+ * journal, and a torn record left by a crash fails its checksum and is dropped. The checkpoint is the offset
+ * of the first record not yet replayed; once every record has been replayed the journal is rewound to the header.
+ * While records keep coming in the journal may never drain, so a commit also compacts it: once the replayed prefix
+ * is larger than the records left, those are copied down to the header before the checkpoint moves, which keeps a
+ * crash at any point readable from either the old or the new checkpoint.
+ * <p>
+ * Not thread-safe, callers must hold a lock.
+ *
+ * @author lucasmoraist
+ */
+class JournalFile implements Closeable {
+
+    static final int HEADER_SIZE = 16;
+    private static final int MAGIC = 0x544A524E;
+    private static final int CHECKPOINT_OFFSET = 8;
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int writePosition;
+
+    JournalFile(Path path, int capacity) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(this.channel.size(), capacity);
+        this.buffer = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+
+        if (this.buffer.getInt(0) != MAGIC) {
+            this.buffer.putInt(0, MAGIC);
+            this.buffer.putInt(4, 0);
+            this.buffer.putInt(HEADER_SIZE, 0);
+            this.setCheckpoint(HEADER_SIZE);
+        }
+        this.writePosition = this.scan(this.checkpoint(), Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Appends a record and forces it to disk before returning.
+     *
+     * @param payload the record payload
+     * @return false if the journal has no room left for the record
+     */
+    boolean append(byte[] payload) {
+        int start = this.writePosition;
+        int end = start + RECORD_HEADER_SIZE + payload.length;
+        if (end + Integer.BYTES > this.buffer.capacity()) {
+            return false;
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        this.buffer.putInt(end, 0);
+        this.buffer.put(start + RECORD_HEADER_SIZE, payload);
+        this.buffer.putInt(start + Integer.BYTES, (int) crc.getValue());
+        this.buffer.putInt(start, payload.length);
+        this.buffer.force(start, end + Integer.BYTES - start);
+
+        this.writePosition = end;
+        return true;
+    }
+
+    /**
+     * Reads the records after the checkpoint.
+     *
+     * @param max the maximum number of records to read
+     * @return the records, in append order
+     */
+    List<Entry> pending(int max) {
+        List<Entry> entries = new ArrayList<>();
+        this.scan(this.checkpoint(), max, entries);
+        return entries;
+    }
+
+    /**
+     * Marks every record before {@code offset} as replayed, forcing the checkpoint to disk. The journal is rewound
+     * when nothing is left to replay, and compacted when the records left fit in the space already replayed.
+     * Offsets returned by earlier calls to {@link #pending(int)} are no longer valid afterwards.
+     *
+     * @param offset the end offset of the last replayed record
+     */
+    void commit(int offset) {
+        if (offset >= this.writePosition) {
+            this.buffer.putInt(HEADER_SIZE, 0);
+            this.buffer.force(HEADER_SIZE, Integer.BYTES);
+            this.writePosition = HEADER_SIZE;
+            this.setCheckpoint(HEADER_SIZE);
+            return;
+        }
+
+        this.setCheckpoint(offset);
+        int live = this.writePosition - offset;
+        if (offset - HEADER_SIZE >= live + Integer.BYTES) {
+            this.compact(offset, live);
+        }
+    }
+
+    boolean isEmpty() {
+        return this.writePosition == this.checkpoint();
+    }
+
+    int usedBytes() {
+        return this.writePosition - HEADER_SIZE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.buffer.force();
+        this.channel.close();
+    }
+
+    private int checkpoint() {
+        return (int) this.buffer.getLong(CHECKPOINT_OFFSET);
+    }
+
+    private void setCheckpoint(int offset) {
+        this.buffer.putLong(CHECKPOINT_OFFSET, offset);
+        this.buffer.force(0, HEADER_SIZE);
+    }
+
+    private void compact(int from, int live) {
+        byte[] records = new byte[live];
+        this.buffer.get(from, records);
+        this.buffer.put(HEADER_SIZE, records);
+        this.buffer.putInt(HEADER_SIZE + live, 0);
+        this.buffer.force(HEADER_SIZE, live + Integer.BYTES);
+
+        this.setCheckpoint(HEADER_SIZE);
+        this.writePosition = HEADER_SIZE + live;
+    }
+
+    private int scan(int from, int max, List<Entry> entries) {
+        int position = from;
+        int count = 0;
+        while (count < max && position + RECORD_HEADER_SIZE <= this.buffer.capacity()) {
+            int length = this.buffer.getInt(position);
+            int end = position + RECORD_HEADER_SIZE + length;
+            if (length <= 0 || end > this.buffer.capacity()) {
+                break;
+            }
+
+            byte[] payload = new byte[length];
+            this.buffer.get(position + RECORD_HEADER_SIZE, payload);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            if ((int) crc.getValue() != this.buffer.getInt(position + Integer.BYTES)) {
+                break;
+            }
+
+            if (entries != null) {
+                entries.add(new Entry(payload, end));
+            }
+            position = end;
+            count++;
+        }
+        return position;
+    }
+
+    /**
+     * A journal record.
+     *
+     * @param payload the record payload
+     * @param end     the offset right after the record, to be committed once it is replayed
+     */
+    record Entry(byte[] payload, int end) {
+    }
+}
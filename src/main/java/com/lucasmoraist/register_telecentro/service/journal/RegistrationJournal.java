@@ -0,0 +1,389 @@
+package com.lucasmoraist.register_telecentro.service.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.api.client.http.HttpResponseException;
+import com.lucasmoraist.register_telecentro.exceptions.AppendPartiallyFailed;
+import com.lucasmoraist.register_telecentro.exceptions.RegistrationQueueFull;
+import com.lucasmoraist.register_telecentro.exceptions.RgRegistered;
+import com.lucasmoraist.register_telecentro.infra.concurrent.BackgroundThreads;
+import com.lucasmoraist.register_telecentro.model.Person;
+import com.lucasmoraist.register_telecentro.repository.PersonRepository;
+import com.lucasmoraist.register_telecentro.repository.impl.SessionSeats;
+import com.lucasmoraist.register_telecentro.service.InFlightRegistrations;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional local write-ahead journal for registrations. An accepted registration is appended to a memory-mapped
+ * {@link JournalFile} and forced to disk before the request returns, so it survives a Sheets outage or a restart.
+ * A single replayer thread drains the journal into the sheet in batches of up to {@code max-batch-size}, retrying
+ * every {@code retry-interval-ms} while Sheets fails.
+ * <p>
+ * A batch that Sheets rejects outright (a 4xx answer or an unexpected exception, as opposed to an outage) is replayed
+ * one record at a time, and a record rejected {@code max-attempts} times in a row is moved to the
+ * {@code dead-letter-path} file, one JSON line per record, so it no longer blocks the records behind it.
+ * <p>
+ * Replay is idempotent on RG + course date: before writing a batch the replayer drops the registrations the sheet
+ * already has, so a crash between the append to the sheet and the checkpoint never duplicates a row. The seats
+ * those registrations took in {@link SessionSeats} are given back. When an append fails on some shards only, the
+ * registrations written to the others are remembered, and the retry of the batch only appends the rest.
+ *
+ * @author lucasmoraist
+ */
+@Slf4j
+@Service
+public class RegistrationJournal {
+
+    private final PersonRepository repository;
+    private final SessionSeats seats;
+    private final BackgroundThreads backgroundThreads;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final Path path;
+    private final int capacityBytes;
+    private final int maxBatchSize;
+    private final long retryIntervalMs;
+    private final int maxAttempts;
+    private final Path deadLetterPath;
+    private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+    /**
+     * Keys of the uncommitted records already appended by a replay that failed on other shards; replayer thread only.
+     */
+    private final Set<String> appended = new HashSet<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition nonEmpty = this.lock.newCondition();
+
+    private JournalFile file;
+    private Counter deadLettered;
+    private volatile boolean running;
+    private Thread replayer;
+    private boolean isolating;
+    private int rejections;
+
+    public RegistrationJournal(PersonRepository repository,
+                               SessionSeats seats,
+                               BackgroundThreads backgroundThreads,
+                               ObjectMapper objectMapper,
+                               MeterRegistry registry,
+                               @Value("${telecentro.journal.enabled:false}") boolean enabled,
+                               @Value("${telecentro.journal.path:data/registrations.journal}") String path,
+                               @Value("${telecentro.journal.capacity-bytes:16777216}") int capacityBytes,
+                               @Value("${telecentro.journal.replay.max-batch-size:50}") int maxBatchSize,
+                               @Value("${telecentro.journal.replay.retry-interval-ms:5000}") long retryIntervalMs,
+                               @Value("${telecentro.journal.replay.max-attempts:5}") int maxAttempts,
+                               @Value("${telecentro.journal.dead-letter-path:data/registrations.dead-letter}") String deadLetterPath) {
+        this.repository = repository;
+        this.seats = seats;
+        this.backgroundThreads = backgroundThreads;
+        this.objectMapper = objectMapper;
+        this.registry = registry;
+        this.enabled = enabled;
+        this.path = Path.of(path);
+        this.capacityBytes = capacityBytes;
+        this.maxBatchSize = maxBatchSize;
+        this.retryIntervalMs = retryIntervalMs;
+        this.maxAttempts = maxAttempts;
+        this.deadLetterPath = Path.of(deadLetterPath);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!this.enabled) {
+            return;
+        }
+        this.file = new JournalFile(this.path, this.capacityBytes);
+
+        List<JournalFile.Entry> pending = this.file.pending(Integer.MAX_VALUE);
+        for (JournalFile.Entry entry : pending) {
+            Person person = this.decode(entry);
+            if (person != null) {
+                this.pendingKeys.add(InFlightRegistrations.key(person));
+                this.seats.occupy(person.getCourse().getNameCourse(), person.getCourse().getDateAndTime());
+            }
+        }
+
+        Gauge.builder("telecentro.journal.pending", this.pendingKeys, Set::size)
+                .description("Registrations journaled but not yet written to the sheet")
+                .register(this.registry);
+        Gauge.builder("telecentro.journal.used", this, RegistrationJournal::usedBytes)
+                .description("Bytes used by the registration journal")
+                .baseUnit("bytes")
+                .register(this.registry);
+        this.deadLettered = Counter.builder("telecentro.journal.dead-lettered")
+                .description("Journaled registrations moved to the dead-letter file after being rejected by Sheets")
+                .register(this.registry);
+
+        this.running = true;
+        this.replayer = this.backgroundThreads.start("registration-journal", this::run);
+        log.info("Registration journal enabled at {}, {} registrations left to replay", this.path.toAbsolutePath(), pending.size());
+    }
+
+    /**
+     * Stops the replayer and closes the journal. Whatever was not replayed stays in the file for the next start.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (this.replayer == null) {
+            return;
+        }
+        this.running = false;
+        this.replayer.interrupt();
+        this.replayer.join(TimeUnit.SECONDS.toMillis(10));
+
+        this.lock.lock();
+        try {
+            this.file.close();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Tells whether a registration is in the journal and not yet written to the sheet.
+     *
+     * @param key the key of the registration, see {@link InFlightRegistrations#key}
+     * @return true if the registration is waiting to be replayed
+     */
+    public boolean isPending(String key) {
+        return this.pendingKeys.contains(key);
+    }
+
+    /**
+     * Durably records a registration, to be written to the sheet by the replayer.
+     *
+     * @param person the person to be saved
+     * @throws RgRegistered          if the same RG and course date is already waiting in the journal
+     * @throws RegistrationQueueFull if the journal is full
+     * @throws IOException           if the registration cannot be serialized
+     */
+    public void append(Person person) throws IOException {
+        String key = InFlightRegistrations.key(person);
+        if (!this.pendingKeys.add(key)) {
+            log.error("RG: {} and Course Date: {} are already waiting to be saved", person.getRg(), person.getCourse().getDateAndTime());
+            throw new RgRegistered();
+        }
+
+        boolean appended;
+        try {
+            byte[] payload = this.objectMapper.writeValueAsBytes(person);
+            this.lock.lock();
+            try {
+                appended = this.file.append(payload);
+                if (appended) {
+                    this.nonEmpty.signal();
+                }
+            } finally {
+                this.lock.unlock();
+            }
+        } catch (IOException | RuntimeException e) {
+            this.pendingKeys.remove(key);
+            throw e;
+        }
+
+        if (!appended) {
+            this.pendingKeys.remove(key);
+            log.error("Registration journal is full, rejecting registration for: {}", person.getName());
+            throw new RegistrationQueueFull();
+        }
+    }
+
+    private void run() {
+        while (this.running) {
+            try {
+                List<JournalFile.Entry> batch = this.awaitBatch(this.isolating ? 1 : this.maxBatchSize);
+                if (!this.replay(batch)) {
+                    Thread.sleep(this.retryIntervalMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private List<JournalFile.Entry> awaitBatch(int size) throws InterruptedException {
+        this.lock.lock();
+        try {
+            while (this.file.isEmpty()) {
+                this.nonEmpty.await();
+            }
+            return this.file.pending(size);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private boolean replay(List<JournalFile.Entry> batch) {
+        List<Person> persons = new ArrayList<>(batch.size());
+        List<String> keys = new ArrayList<>(batch.size());
+        List<Person> skipped = new ArrayList<>();
+        try {
+            for (JournalFile.Entry entry : batch) {
+                Person person = this.decode(entry);
+                if (person == null) {
+                    continue;
+                }
+                String key = InFlightRegistrations.key(person);
+                keys.add(key);
+                if (this.appended.contains(key)) {
+                    continue;
+                }
+                if (this.repository.isRgAndCourseDateAlreadyRegistered(person.getRg(), person.getCourse().getDateAndTime())) {
+                    log.info("RG: {} and Course Date: {} already in the sheet, skipping journaled registration",
+                            person.getRg(), person.getCourse().getDateAndTime());
+                    skipped.add(person);
+                    continue;
+                }
+                persons.add(person);
+            }
+
+            if (!persons.isEmpty()) {
+                int[] rows = this.repository.appendPersonData(persons);
+                log.info("Replayed {} journaled registrations starting at row {}", persons.size(), rows[0]);
+            }
+        } catch (AppendPartiallyFailed e) {
+            for (int i = 0; i < persons.size(); i++) {
+                if (e.isWritten(i)) {
+                    this.appended.add(InFlightRegistrations.key(persons.get(i)));
+                }
+            }
+            return this.rejected(batch, e.failure());
+        } catch (IOException | RuntimeException e) {
+            return this.rejected(batch, e);
+        }
+
+        this.rejections = 0;
+        this.isolating &= !this.commit(batch.get(batch.size() - 1));
+        keys.forEach(this.pendingKeys::remove);
+        keys.forEach(this.appended::remove);
+        skipped.forEach(person -> this.seats.release(person.getCourse().getNameCourse(), person.getCourse().getDateAndTime()));
+        return true;
+    }
+
+    /**
+     * Handles a failed replay. Outages are retried as they are; a rejected batch is split into single records, and
+     * a single record rejected {@code max-attempts} times is dead-lettered.
+     *
+     * @return true if the journal moved on and the next batch can be replayed right away
+     */
+    private boolean rejected(List<JournalFile.Entry> batch, Exception e) {
+        if (!isRejection(e)) {
+            log.warn("Failed to replay {} journaled registrations, retrying in {} ms: {}",
+                    batch.size(), this.retryIntervalMs, e.getMessage());
+            return false;
+        }
+        if (batch.size() > 1) {
+            log.warn("Sheets rejected a batch of {} journaled registrations, replaying them one at a time: {}",
+                    batch.size(), e.getMessage());
+            this.isolating = true;
+            return true;
+        }
+
+        this.rejections++;
+        if (this.rejections < this.maxAttempts) {
+            log.warn("Sheets rejected a journaled registration ({} of {} attempts), retrying in {} ms: {}",
+                    this.rejections, this.maxAttempts, this.retryIntervalMs, e.getMessage());
+            return false;
+        }
+        return this.deadLetter(batch.get(0), e);
+    }
+
+    private boolean deadLetter(JournalFile.Entry entry, Exception cause) {
+        byte[] line = new byte[entry.payload().length + 1];
+        System.arraycopy(entry.payload(), 0, line, 0, entry.payload().length);
+        line[line.length - 1] = '\n';
+        try {
+            Path parent = this.deadLetterPath.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.write(this.deadLetterPath, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+        } catch (IOException e) {
+            log.error("Could not write the dead-letter file {}, keeping the record in the journal", this.deadLetterPath, e);
+            return false;
+        }
+
+        this.rejections = 0;
+        this.isolating = false;
+        this.commit(entry);
+        this.deadLettered.increment();
+        Person person = this.decode(entry);
+        if (person != null) {
+            this.pendingKeys.remove(InFlightRegistrations.key(person));
+            this.seats.release(person.getCourse().getNameCourse(), person.getCourse().getDateAndTime());
+            log.error("Moved the journaled registration of RG: {} and Course Date: {} to {} after {} rejected attempts: {}",
+                    person.getRg(), person.getCourse().getDateAndTime(), this.deadLetterPath, this.maxAttempts,
+                    cause.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Marks the records up to {@code last} as replayed.
+     *
+     * @return true if nothing is left to replay
+     */
+    private boolean commit(JournalFile.Entry last) {
+        this.lock.lock();
+        try {
+            this.file.commit(last.end());
+            return this.file.isEmpty();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Tells a rejection of the registrations themselves, which will fail again however long the replayer waits,
+     * from an outage: a 4xx answer other than timeout or quota, or an unexpected exception.
+     */
+    private static boolean isRejection(Exception e) {
+        if (e instanceof HttpResponseException response) {
+            int status = response.getStatusCode();
+            return status >= 400 && status < 500 && status != 408 && status != 429;
+        }
+        return e instanceof RuntimeException;
+    }
+
+    private Person decode(JournalFile.Entry entry) {
+        try {
+            return this.objectMapper.readValue(entry.payload(), Person.class);
+        } catch (IOException e) {
+            log.error("Dropping unreadable journal record ending at offset {}", entry.end(), e);
+            return null;
+        }
+    }
+
+    private int usedBytes() {
+        this.lock.lock();
+        try {
+            return this.file.usedBytes();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.lucasmoraist.register_telecentro.service.template;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A template parsed once into literal and {@code {{placeholder}}} segments. Rendering only appends the
+ * segments to a buffer presized from the template, so no format string is parsed and the buffer rarely grows.
+ * The values of an HTML template are escaped as they are appended, since some of them come from the client.
+ *
+ * @author lucasmoraist
+ */
+public final class MailTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+    private static final int EXPECTED_VALUE_LENGTH = 32;
+
+    private final String[] literals;
+    private final String[] placeholders;
+    private final boolean html;
+    private final int expectedLength;
+
+    private MailTemplate(String[] literals, String[] placeholders, boolean html) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+        this.html = html;
+        int length = placeholders.length * EXPECTED_VALUE_LENGTH;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.expectedLength = length;
+    }
+
+    /**
+     * Parses a plain text template source, whose values are rendered as they are.
+     *
+     * @param source the template source, with placeholders written as {@code {{name}}}
+     * @return the parsed template
+     * @throws IllegalArgumentException if a placeholder is not closed
+     */
+    public static MailTemplate parse(String source) {
+        return parse(source, false);
+    }
+
+    /**
+     * Parses an HTML template source, whose values are HTML-escaped when rendered.
+     *
+     * @param source the template source, with placeholders written as {@code {{name}}}
+     * @return the parsed template
+     * @throws IllegalArgumentException if a placeholder is not closed
+     */
+    public static MailTemplate parseHtml(String source) {
+        return parse(source, true);
+    }
+
+    private static MailTemplate parse(String source, boolean html) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+
+        int position = 0;
+        int open;
+        while ((open = source.indexOf(OPEN, position)) >= 0) {
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at index " + open);
+            }
+            literals.add(source.substring(position, open));
+            placeholders.add(source.substring(open + OPEN.length(), close).trim());
+            position = close + CLOSE.length();
+        }
+        literals.add(source.substring(position));
+
+        return new MailTemplate(literals.toArray(String[]::new), placeholders.toArray(String[]::new), html);
+    }
+
+    /**
+     * Renders the template with the given values.
+     *
+     * @param values the value of every placeholder
+     * @return the rendered text
+     * @throws IllegalArgumentException if a placeholder has no value
+     */
+    public String render(Map<String, String> values) {
+        StringBuilder buffer = new StringBuilder(this.expectedLength);
+        this.renderTo(buffer, values);
+        return buffer.toString();
+    }
+
+    /**
+     * Appends the rendered template to the given buffer.
+     *
+     * @param out    the buffer the template is rendered into
+     * @param values the value of every placeholder
+     * @throws IllegalArgumentException if a placeholder has no value
+     */
+    public void renderTo(StringBuilder out, Map<String, String> values) {
+        for (int i = 0; i < this.placeholders.length; i++) {
+            out.append(this.literals[i]);
+            String value = values.get(this.placeholders[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing value for placeholder: " + this.placeholders[i]);
+            }
+            if (this.html) {
+                appendEscaped(out, value);
+            } else {
+                out.append(value);
+            }
+        }
+        out.append(this.literals[this.placeholders.length]);
+    }
+
+    private static void appendEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
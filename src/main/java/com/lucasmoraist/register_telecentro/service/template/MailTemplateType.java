@@ -0,0 +1,30 @@
+package com.lucasmoraist.register_telecentro.service.template;
+
+/**
+ * The emails the application can send. The body of each one is loaded from
+ * {@code templates/mail/<resource>.html}.
+ *
+ * @author lucasmoraist
+ */
+public enum MailTemplateType {
+
+    CONFIRMATION("confirmation", "Inscrição no curso de {{courseName}} feita com sucesso!"),
+    WAITLIST("waitlist", "Você está na lista de espera do curso de {{courseName}}"),
+    REMINDER("reminder", "Lembrete: sua aula do curso de {{courseName}} está chegando");
+
+    private final String resource;
+    private final String subject;
+
+    MailTemplateType(String resource, String subject) {
+        this.resource = resource;
+        this.subject = subject;
+    }
+
+    public String getResource() {
+        return this.resource;
+    }
+
+    public String getSubject() {
+        return this.subject;
+    }
+}
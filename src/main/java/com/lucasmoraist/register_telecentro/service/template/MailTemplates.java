@@ -0,0 +1,54 @@
+package com.lucasmoraist.register_telecentro.service.template;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Loads and parses every {@link MailTemplateType} once at startup. Subjects are plain text; the values of the
+ * HTML bodies are escaped.
+ *
+ * @author lucasmoraist
+ */
+@Slf4j
+@Component
+public class MailTemplates {
+
+    private final Map<MailTemplateType, MailTemplate> subjects = new EnumMap<>(MailTemplateType.class);
+    private final Map<MailTemplateType, MailTemplate> bodies = new EnumMap<>(MailTemplateType.class);
+
+    public MailTemplates() {
+        for (MailTemplateType type : MailTemplateType.values()) {
+            this.subjects.put(type, MailTemplate.parse(type.getSubject()));
+            this.bodies.put(type, MailTemplate.parseHtml(load(type)));
+        }
+        log.info("Loaded {} mail templates", this.bodies.size());
+    }
+
+    /**
+     * Renders the subject and body of the given email.
+     *
+     * @param type   the email to be rendered
+     * @param values the value of every placeholder
+     * @return the rendered subject and HTML body
+     */
+    public RenderedMail render(MailTemplateType type, Map<String, String> values) {
+        return new RenderedMail(this.subjects.get(type).render(values), this.bodies.get(type).render(values));
+    }
+
+    private static String load(MailTemplateType type) {
+        ClassPathResource resource = new ClassPathResource("templates/mail/" + type.getResource() + ".html");
+        try (InputStream inputStream = resource.getInputStream()) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load mail template " + resource.getPath(), e);
+        }
+    }
+}
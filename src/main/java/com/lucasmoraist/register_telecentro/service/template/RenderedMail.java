@@ -0,0 +1,11 @@
+package com.lucasmoraist.register_telecentro.service.template;
+
+/**
+ * An email rendered by {@link MailTemplates}, ready to be set on a message.
+ *
+ * @param subject  the plain text subject
+ * @param htmlBody the HTML body, with the values escaped
+ * @author lucasmoraist
+ */
+public record RenderedMail(String subject, String htmlBody) {
+}
@@ -0,0 +1,65 @@
+package com.lucasmoraist.register_telecentro.controller;
+
+import com.lucasmoraist.register_telecentro.infra.access.CoordinatorAccess;
+import com.lucasmoraist.register_telecentro.infra.exception.RestExceptionHandler;
+import com.lucasmoraist.register_telecentro.model.dto.UpdateCourse;
+import com.lucasmoraist.register_telecentro.service.CourseService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class CourseControllerTest {
+
+    private static final String BODY = """
+            {"courseName": "Excel", "morningTime": "Terça-feira 09:00 - 11:00"}""";
+
+    private final CourseService service = mock(CourseService.class);
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        CourseController controller = new CourseController();
+        ReflectionTestUtils.setField(controller, "service", this.service);
+        this.mvc = MockMvcBuilders.standaloneSetup(controller)
+                .addInterceptors(new CoordinatorAccess("s3cret"))
+                .setControllerAdvice(new RestExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void refusesAnUpdateWithoutTheBearerToken() throws Exception {
+        this.mvc.perform(update()).andExpect(status().isUnauthorized());
+
+        verify(this.service, never()).update(any());
+    }
+
+    @Test
+    void refusesAnUpdateWithAnotherToken() throws Exception {
+        this.mvc.perform(update().header(HttpHeaders.AUTHORIZATION, "Bearer wrong")).andExpect(status().isForbidden());
+
+        verify(this.service, never()).update(any());
+    }
+
+    @Test
+    void updatesTheCourseWithTheCoordinatorToken() throws Exception {
+        this.mvc.perform(update().header(HttpHeaders.AUTHORIZATION, "Bearer s3cret")).andExpect(status().isOk());
+
+        verify(this.service).update(new UpdateCourse("Excel", "Terça-feira 09:00 - 11:00", null));
+    }
+
+    private static MockHttpServletRequestBuilder update() {
+        return put("/courses").contentType(MediaType.APPLICATION_JSON).content(BODY);
+    }
+}
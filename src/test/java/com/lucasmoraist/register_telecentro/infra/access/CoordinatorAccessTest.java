@@ -0,0 +1,71 @@
+package com.lucasmoraist.register_telecentro.infra.access;
+
+import com.lucasmoraist.register_telecentro.exceptions.Forbidden;
+import com.lucasmoraist.register_telecentro.exceptions.Unauthorized;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CoordinatorAccessTest {
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void letsCoordinatorsThroughWithTheToken() throws NoSuchMethodException {
+        CoordinatorAccess access = new CoordinatorAccess("s3cret");
+
+        assertThat(access.preHandle(request("Bearer s3cret"), this.response, handler("restricted"))).isTrue();
+    }
+
+    @Test
+    void refusesARestrictedEndpointWithoutTheToken() throws NoSuchMethodException {
+        CoordinatorAccess access = new CoordinatorAccess("s3cret");
+        HandlerMethod restricted = handler("restricted");
+
+        for (String authorization : new String[]{null, "s3cret", "Basic s3cret"}) {
+            assertThatThrownBy(() -> access.preHandle(request(authorization), this.response, restricted))
+                    .isInstanceOf(Unauthorized.class);
+        }
+        assertThatThrownBy(() -> access.preHandle(request("Bearer wrong"), this.response, restricted))
+                .isInstanceOf(Forbidden.class);
+        assertThat(access.preHandle(request(null), this.response, handler("open"))).isTrue();
+    }
+
+    @Test
+    void refusesEveryoneWhenNoTokenIsConfigured() throws NoSuchMethodException {
+        CoordinatorAccess access = new CoordinatorAccess("");
+        HandlerMethod restricted = handler("restricted");
+
+        assertThatThrownBy(() -> access.preHandle(request("Bearer "), this.response, restricted))
+                .isInstanceOf(Forbidden.class);
+        assertThatThrownBy(() -> access.preHandle(request(null), this.response, restricted))
+                .isInstanceOf(Unauthorized.class);
+    }
+
+    private static MockHttpServletRequest request(String authorization) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/person");
+        if (authorization != null) {
+            request.addHeader(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        return request;
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Endpoints(), Endpoints.class.getDeclaredMethod(name));
+    }
+
+    static class Endpoints {
+
+        @CoordinatorOnly
+        void restricted() {
+        }
+
+        void open() {
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.lucasmoraist.register_telecentro.infra.google;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpRequest;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeferredCredentialsInitializerTest {
+
+    @Test
+    void authenticatesRequestsOnceTheCredentialsAreLoaded() throws IOException {
+        CompletableFuture<GoogleCredentials> credentials = new CompletableFuture<>();
+        DeferredCredentialsInitializer initializer = new DeferredCredentialsInitializer(credentials, 1_000);
+        credentials.complete(GoogleCredentials.create(new AccessToken("token", null)));
+
+        HttpRequest request = request();
+        initializer.initialize(request);
+
+        assertThat(request.getHeaders().getAuthorization()).isEqualTo("Bearer token");
+    }
+
+    @Test
+    void failsTheRequestWhenTheCredentialsDoNotArriveInTime() {
+        DeferredCredentialsInitializer initializer = new DeferredCredentialsInitializer(new CompletableFuture<>(), 10);
+
+        assertThatThrownBy(() -> initializer.initialize(request()))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("within 10 ms")
+                .hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void failsTheRequestWithTheErrorThatFailedTheCredentials() {
+        IOException denied = new IOException("Permission denied on secret");
+        DeferredCredentialsInitializer initializer = new DeferredCredentialsInitializer(CompletableFuture.failedFuture(denied), 1_000);
+
+        assertThatThrownBy(() -> initializer.initialize(request()))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Google Sheets credentials could not be loaded")
+                .hasCause(denied);
+    }
+
+    @Test
+    void keepsTheInterruptWhenInterruptedWhileWaiting() throws IOException {
+        DeferredCredentialsInitializer initializer = new DeferredCredentialsInitializer(new CompletableFuture<>(), 10_000);
+        HttpRequest request = request();
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> initializer.initialize(request)).isInstanceOf(InterruptedIOException.class);
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    private static HttpRequest request() throws IOException {
+        return new MockHttpTransport().createRequestFactory().buildGetRequest(new GenericUrl("https://sheets.googleapis.com/v4/spreadsheets/test"));
+    }
+}
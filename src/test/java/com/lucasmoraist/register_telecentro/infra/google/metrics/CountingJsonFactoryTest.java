@@ -0,0 +1,75 @@
+package com.lucasmoraist.register_telecentro.infra.google.metrics;
+
+import com.google.api.client.json.JsonGenerator;
+import com.google.api.client.json.JsonParser;
+import com.google.api.client.json.gson.GsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountingJsonFactoryTest {
+
+    private final CountingJsonFactory factory = new CountingJsonFactory(GsonFactory.getDefaultInstance());
+
+    @Test
+    void countsTheBytesParsedFromAStream() throws Exception {
+        byte[] json = "{\"values\":[[\"Excel\",\"Segunda-feira 09:00 - 11:00\"]]}".getBytes(UTF_8);
+
+        try (JsonParser parser = this.factory.createJsonParser(new ByteArrayInputStream(json), UTF_8)) {
+            parser.skipToKey("missing");
+        }
+
+        assertThat(this.factory.receivedBytes()).isEqualTo(json.length);
+        assertThat(this.factory.sentBytes()).isZero();
+    }
+
+    @Test
+    void countsTheBytesGeneratedToAStream() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        JsonGenerator generator = this.factory.createJsonGenerator(out, UTF_8);
+        generator.writeStartObject();
+        generator.writeFieldName("range");
+        generator.writeString("Incrições Telecentro!A2:J");
+        generator.writeEndObject();
+        generator.flush();
+
+        assertThat(this.factory.sentBytes()).isEqualTo(out.size());
+        assertThat(this.factory.receivedBytes()).isZero();
+    }
+
+    @Test
+    void keepsTheCountsOfEveryThreadApart() throws Exception {
+        byte[] json = "{\"a\":1}".getBytes(UTF_8);
+        try (JsonParser parser = this.factory.createJsonParser(new ByteArrayInputStream(json))) {
+            parser.skipToKey("missing");
+        }
+
+        long otherThread = CompletableFuture.supplyAsync(() -> {
+            try (JsonParser parser = this.factory.createJsonParser(new ByteArrayInputStream("{\"bb\":22}".getBytes(UTF_8)))) {
+                parser.skipToKey("missing");
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            return this.factory.receivedBytes();
+        }).get(5, TimeUnit.SECONDS);
+
+        assertThat(otherThread).isEqualTo(9);
+        assertThat(this.factory.receivedBytes()).isEqualTo(json.length);
+    }
+
+    @Test
+    void doesNotCountStringsAndReaders() throws Exception {
+        try (JsonParser parser = this.factory.createJsonParser("{\"a\":1}")) {
+            parser.skipToKey("missing");
+        }
+
+        assertThat(this.factory.receivedBytes()).isZero();
+    }
+}
@@ -0,0 +1,91 @@
+package com.lucasmoraist.register_telecentro.infra.google.metrics;
+
+import com.google.api.client.googleapis.services.AbstractGoogleClientRequest;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.services.sheets.v4.Sheets;
+import com.google.api.services.sheets.v4.model.ValueRange;
+import com.lucasmoraist.register_telecentro.infra.google.local.LocalSheetsFixtures;
+import com.lucasmoraist.register_telecentro.infra.google.local.LocalSheetsTransport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SheetsMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SheetsMetrics metrics = new SheetsMetrics(this.registry);
+
+    @Test
+    void extractsTheTabOfARange() {
+        assertThat(SheetsMetrics.tabOf("Cursos!A2:Z")).isEqualTo("Cursos");
+        assertThat(SheetsMetrics.tabOf("'Incrições Telecentro'!A2:J")).isEqualTo("Incrições Telecentro");
+        assertThat(SheetsMetrics.tabOf("'Turma d''Água'!A1")).isEqualTo("Turma d'Água");
+        assertThat(SheetsMetrics.tabOf("'Turma!A'!B2")).isEqualTo("Turma!A");
+        assertThat(SheetsMetrics.tabOf("Cursos")).isEqualTo("Cursos");
+        assertThat(SheetsMetrics.tabOf("'")).isEqualTo("'");
+    }
+
+    @Test
+    void recordsASuccessfulCallWithItsPayload() throws IOException {
+        Sheets sheets = this.sheets(0.0);
+
+        ValueRange response = this.metrics.execute(sheets.spreadsheets().values().get("local", "Cursos!A2:Z"), "get", "Cursos!A2:Z");
+
+        assertThat(response.getValues()).isNotEmpty();
+        assertThat(this.registry.get("telecentro.sheets.requests")
+                .tags("operation", "get", "tab", "Cursos", "outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(this.registry.get("telecentro.sheets.payload.decoded")
+                .tags("operation", "get", "tab", "Cursos", "direction", "received").summary().totalAmount()).isPositive();
+        assertThat(this.registry.find("telecentro.sheets.payload.decoded").tag("direction", "sent").summary()).isNull();
+    }
+
+    @Test
+    void tagsQuotaErrorsWithTheirStatus() throws IOException {
+        Sheets sheets = this.sheets(1.0);
+
+        assertThatThrownBy(() -> this.metrics.execute(sheets.spreadsheets().values().get("local", "Cursos!A2:Z"), "get", "Cursos!A2:Z"))
+                .isInstanceOf(HttpResponseException.class);
+
+        assertThat(this.registry.get("telecentro.sheets.requests").tags("outcome", "429").timer().count()).isEqualTo(1);
+        assertThat(this.registry.get("telecentro.sheets.errors").tags("tab", "Cursos", "status", "429").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void countsOnlyQuotaAndServerErrorsAsErrors() throws IOException {
+        AbstractGoogleClientRequest<Object> request = this.request();
+        when(request.execute())
+                .thenThrow(new HttpResponseException.Builder(404, "Not Found", new HttpHeaders()).build())
+                .thenThrow(new HttpResponseException.Builder(503, "Unavailable", new HttpHeaders()).build())
+                .thenThrow(new IOException("Connection reset"));
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> this.metrics.execute(request, "append", "'Turma A'!A2:J")).isInstanceOf(IOException.class);
+        }
+
+        assertThat(this.registry.get("telecentro.sheets.requests").tags("tab", "Turma A", "outcome", "404").timer().count()).isEqualTo(1);
+        assertThat(this.registry.get("telecentro.sheets.requests").tags("tab", "Turma A", "outcome", "503").timer().count()).isEqualTo(1);
+        assertThat(this.registry.get("telecentro.sheets.requests").tags("tab", "Turma A", "outcome", "io_error").timer().count()).isEqualTo(1);
+        assertThat(this.registry.find("telecentro.sheets.errors").tag("status", "404").counter()).isNull();
+        assertThat(this.registry.get("telecentro.sheets.errors").tag("status", "503").counter().count()).isEqualTo(1);
+    }
+
+    private Sheets sheets(double errorRate) {
+        return new Sheets.Builder(new LocalSheetsTransport(LocalSheetsFixtures.spreadsheet(0), 0, errorRate, 0),
+                this.metrics.jsonFactory(), null)
+                .setApplicationName("Register Telecentro")
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private AbstractGoogleClientRequest<Object> request() {
+        return mock(AbstractGoogleClientRequest.class);
+    }
+}
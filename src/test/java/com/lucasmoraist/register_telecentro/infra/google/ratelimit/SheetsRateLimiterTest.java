@@ -0,0 +1,135 @@
+package com.lucasmoraist.register_telecentro.infra.google.ratelimit;
+
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpRequestInitializer;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.google.api.client.testing.http.MockLowLevelHttpRequest;
+import com.google.api.client.testing.http.MockLowLevelHttpResponse;
+import com.lucasmoraist.register_telecentro.exceptions.SheetsQuotaExceeded;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SheetsRateLimiterTest {
+
+    private static final GenericUrl URL = new GenericUrl("https://sheets.googleapis.com/v4/spreadsheets/test/values/Cursos");
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @Test
+    void retriesOverloadedResponsesWithBackoff() throws IOException {
+        SheetsRateLimiter limiter = this.limiter(0, 10, 5);
+
+        HttpResponse response = this.execute(limiter.initializer(null), 503, 429, 200);
+
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(this.requests.get()).isEqualTo(3);
+        assertThat(this.registry.get("telecentro.sheets.retries").tag("status", "503").counter().count()).isEqualTo(1);
+        assertThat(this.registry.get("telecentro.sheets.retries").tag("status", "429").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void makesAtMostMaxAttemptsRequests() {
+        SheetsRateLimiter limiter = this.limiter(0, 10, 3);
+
+        assertThatThrownBy(() -> this.execute(limiter.initializer(null), 429, 429, 429, 429, 200))
+                .isInstanceOf(HttpResponseException.class)
+                .satisfies(e -> assertThat(((HttpResponseException) e).getStatusCode()).isEqualTo(429));
+        assertThat(this.requests.get()).isEqualTo(3);
+    }
+
+    @Test
+    void doesNotRetryOtherErrors() {
+        SheetsRateLimiter limiter = this.limiter(0, 10, 5);
+
+        assertThatThrownBy(() -> this.execute(limiter.initializer(null), 400, 200))
+                .isInstanceOf(HttpResponseException.class);
+        assertThat(this.requests.get()).isEqualTo(1);
+        assertThat(this.registry.find("telecentro.sheets.retries").counter()).isNull();
+    }
+
+    @Test
+    void drainsTheBucketWhenSheetsIsOverloaded() {
+        // a full bucket of 5 tokens, refilled far slower than the wait allowed
+        SheetsRateLimiter limiter = new SheetsRateLimiter(1, 5, 0, 5, 1, 2, this.registry);
+
+        assertThatThrownBy(() -> this.execute(limiter.initializer(null), 429, 200)).isInstanceOf(SheetsQuotaExceeded.class);
+        assertThat(this.requests.get()).isEqualTo(1);
+        assertThat(this.registry.get("telecentro.sheets.rate-limit.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void waitsForATokenBeforeEveryRequest() throws IOException {
+        // bursts of 1, one token every 10 ms
+        SheetsRateLimiter limiter = new SheetsRateLimiter(6000, 1, 1000, 5, 1, 2, this.registry);
+        HttpRequestInitializer initializer = limiter.initializer(null);
+
+        this.execute(initializer, 200);
+        this.execute(initializer, 200);
+
+        assertThat(this.registry.get("telecentro.sheets.rate-limit.wait").timer().count()).isEqualTo(2);
+        assertThat(this.registry.get("telecentro.sheets.rate-limit.wait").timer().max(TimeUnit.NANOSECONDS))
+                .isPositive();
+    }
+
+    @Test
+    void keepsTheInterceptorAndHandlerOfTheDelegate() throws IOException {
+        AtomicInteger intercepted = new AtomicInteger();
+        List<Integer> handled = new ArrayList<>();
+        SheetsRateLimiter limiter = this.limiter(0, 10, 5);
+        HttpRequestInitializer delegate = request -> {
+            request.setInterceptor(r -> intercepted.incrementAndGet());
+            request.setUnsuccessfulResponseHandler((r, response, supportsRetry) -> {
+                handled.add(response.getStatusCode());
+                return false;
+            });
+        };
+
+        this.execute(limiter.initializer(delegate), 503, 200);
+
+        assertThat(intercepted.get()).isEqualTo(2);
+        assertThat(handled).containsExactly(503);
+    }
+
+    private SheetsRateLimiter limiter(int requestsPerMinute, int burst, int maxAttempts) {
+        return new SheetsRateLimiter(requestsPerMinute, burst, 1000, maxAttempts, 1, 2, this.registry);
+    }
+
+    private HttpResponse execute(HttpRequestInitializer initializer, int... statuses) throws IOException {
+        Deque<Integer> responses = new ArrayDeque<>();
+        for (int status : statuses) {
+            responses.add(status);
+        }
+        HttpTransport transport = new HttpTransport() {
+            @Override
+            protected LowLevelHttpRequest buildRequest(String method, String url) {
+                return new MockLowLevelHttpRequest(url) {
+                    @Override
+                    public LowLevelHttpResponse execute() {
+                        requests.incrementAndGet();
+                        return new MockLowLevelHttpResponse()
+                                .setStatusCode(responses.isEmpty() ? 200 : responses.poll())
+                                .setContentType("application/json; charset=UTF-8")
+                                .setContent("{}");
+                    }
+                };
+            }
+        };
+        return transport.createRequestFactory(initializer).buildGetRequest(URL).execute();
+    }
+}
@@ -0,0 +1,67 @@
+package com.lucasmoraist.register_telecentro.infra.google.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    private static final long NO_WAIT = 0;
+    private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void servesABurstUpToTheCapacityWithoutWaiting() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(3, 60);
+
+        assertThat(bucket.acquire(NO_WAIT)).isZero();
+        assertThat(bucket.acquire(NO_WAIT)).isZero();
+        assertThat(bucket.acquire(NO_WAIT)).isZero();
+        assertThat(bucket.acquire(NO_WAIT)).isEqualTo(-1);
+    }
+
+    @Test
+    void waitsForTheNextTokenAtTheRefillRate() throws InterruptedException {
+        // 6000 tokens per minute: one every 10 ms
+        TokenBucket bucket = new TokenBucket(1, 6000);
+        assertThat(bucket.acquire(NO_WAIT)).isZero();
+
+        long start = System.nanoTime();
+        long waited = bucket.acquire(ONE_SECOND);
+
+        assertThat(waited).isPositive().isLessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(10));
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(waited);
+    }
+
+    @Test
+    void refillsUpToTheCapacityOnly() throws InterruptedException {
+        // 600 tokens per minute: one every 100 ms
+        TokenBucket bucket = new TokenBucket(2, 600);
+        bucket.acquire(NO_WAIT);
+        bucket.acquire(NO_WAIT);
+
+        Thread.sleep(300);
+
+        assertThat(bucket.acquire(NO_WAIT)).isZero();
+        assertThat(bucket.acquire(NO_WAIT)).isZero();
+        assertThat(bucket.acquire(TimeUnit.MILLISECONDS.toNanos(1))).isEqualTo(-1);
+    }
+
+    @Test
+    void rejectsCallersThatWouldWaitTooLong() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1, 60);
+        bucket.acquire(NO_WAIT);
+
+        assertThat(bucket.acquire(TimeUnit.MILLISECONDS.toNanos(500))).isEqualTo(-1);
+    }
+
+    @Test
+    void drainingEmptiesTheBucket() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(5, 60);
+
+        bucket.drain();
+
+        assertThat(bucket.acquire(NO_WAIT)).isEqualTo(-1);
+    }
+}
@@ -0,0 +1,111 @@
+package com.lucasmoraist.register_telecentro.infra.google.transport;
+
+import com.google.api.client.http.LowLevelHttpRequest;
+import com.google.api.client.http.LowLevelHttpResponse;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JdkHttpTransportTest {
+
+    private final CountDownLatch unstall = new CountDownLatch(1);
+    private HttpServer server;
+    private ExecutorService executor;
+    private JdkHttpTransport transport;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        this.executor = Executors.newCachedThreadPool();
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/ok", exchange -> {
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        this.server.createContext("/stall", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("partial".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                this.unstall.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        this.server.start();
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        this.transport = new JdkHttpTransport(client, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.unstall.countDown();
+        this.transport.shutdown();
+        this.server.stop(0);
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    void timesOutABodyThatStalls() throws IOException {
+        LowLevelHttpResponse response = this.request("/stall").execute();
+
+        InputStream content = response.getContent();
+        assertThat(content.readNBytes(7)).asString(StandardCharsets.UTF_8).isEqualTo("partial");
+        assertThatThrownBy(content::read).isInstanceOf(HttpTimeoutException.class);
+
+        // the timed out body gave its permit back
+        assertThat(read(this.request("/ok").execute())).isEqualTo("ok");
+    }
+
+    @Test
+    void holdsThePermitUntilTheBodyIsClosed() throws Exception {
+        LowLevelHttpResponse first = this.request("/ok").execute();
+
+        Future<String> second = this.executor.submit(() -> read(this.request("/ok").execute()));
+        assertThatThrownBy(() -> second.get(300, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+
+        assertThat(read(first)).isEqualTo("ok");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+    }
+
+    @Test
+    void releasesThePermitOnDisconnect() throws Exception {
+        this.request("/ok").execute().disconnect();
+
+        assertThat(read(this.request("/ok").execute())).isEqualTo("ok");
+    }
+
+    private LowLevelHttpRequest request(String path) throws IOException {
+        LowLevelHttpRequest request = this.transport.buildRequest("GET",
+                "http://127.0.0.1:" + this.server.getAddress().getPort() + path);
+        request.setTimeout(1000, 300);
+        return request;
+    }
+
+    private static String read(LowLevelHttpResponse response) throws IOException {
+        try (InputStream content = response.getContent()) {
+            return new String(content.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.lucasmoraist.register_telecentro.infra.idempotency;
+
+import com.lucasmoraist.register_telecentro.exceptions.IdempotencyKeyReused;
+import com.lucasmoraist.register_telecentro.infra.concurrent.BackgroundThreads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotentRequestsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger runs = new AtomicInteger();
+    private IdempotentRequests requests = this.create(60_000);
+
+    @AfterEach
+    void stop() {
+        this.requests.stop();
+    }
+
+    @Test
+    void replaysASuccessfulRequest() throws IOException {
+        assertThat(this.requests.execute("key", "payload", this.runs::incrementAndGet)).isFalse();
+        assertThat(this.requests.execute("key", "payload", this.runs::incrementAndGet)).isTrue();
+
+        assertThat(this.runs.get()).isEqualTo(1);
+        assertThat(this.registry.get("telecentro.idempotency.replays").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsAKeyReusedWithAnotherPayload() throws IOException {
+        this.requests.execute("key", "payload", this.runs::incrementAndGet);
+
+        assertThatThrownBy(() -> this.requests.execute("key", "other payload", this.runs::incrementAndGet))
+                .isInstanceOf(IdempotencyKeyReused.class);
+        assertThat(this.runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    void runsAFailedRequestAgainOnRetry() throws IOException {
+        assertThatThrownBy(() -> this.requests.execute("key", "payload", () -> {
+            throw new IOException("Sheets is down");
+        })).isInstanceOf(IOException.class);
+
+        assertThat(this.requests.execute("key", "payload", this.runs::incrementAndGet)).isFalse();
+        assertThat(this.runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    void coalescesConcurrentRequestsWithTheSameKey() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Future<Boolean> first = executor.submit(() -> this.requests.execute("key", "payload", () -> {
+                this.runs.incrementAndGet();
+                running.countDown();
+                await(finish);
+            }));
+            assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+            List<Future<Boolean>> others = new ArrayList<>();
+            for (int i = 1; i < threads; i++) {
+                others.add(executor.submit(() -> this.requests.execute("key", "payload", this.runs::incrementAndGet)));
+            }
+            finish.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isFalse();
+            for (Future<Boolean> other : others) {
+                assertThat(other.get(5, TimeUnit.SECONDS)).isTrue();
+            }
+            assertThat(this.runs.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void sweepsExpiredKeys() throws Exception {
+        this.requests.stop();
+        this.requests = this.create(10);
+        this.requests.execute("key", "payload", this.runs::incrementAndGet);
+        assertThat(this.registry.get("telecentro.idempotency.keys").gauge().value()).isEqualTo(1);
+
+        Thread.sleep(20);
+        this.requests.sweep();
+
+        assertThat(this.registry.get("telecentro.idempotency.keys").gauge().value()).isZero();
+        assertThat(this.requests.execute("key", "other payload", this.runs::incrementAndGet)).isFalse();
+    }
+
+    private IdempotentRequests create(long ttlMs) {
+        this.registry.clear();
+        return new IdempotentRequests(ttlMs, 100, 60_000, new BackgroundThreads(false), this.registry);
+    }
+
+    private static void await(CountDownLatch latch) throws IOException {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+}
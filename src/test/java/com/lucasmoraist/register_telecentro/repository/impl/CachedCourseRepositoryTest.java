@@ -0,0 +1,131 @@
+package com.lucasmoraist.register_telecentro.repository.impl;
+
+import com.lucasmoraist.register_telecentro.infra.concurrent.BackgroundThreads;
+import com.lucasmoraist.register_telecentro.model.Course;
+import com.lucasmoraist.register_telecentro.model.dto.UpdateCourse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachedCourseRepositoryTest {
+
+    private static final List<List<Object>> OLD_ROWS = List.of(List.of("Excel", "Segunda-feira 09:00 - 11:00"));
+    private static final List<List<Object>> NEW_ROWS = List.of(List.of("Excel", "Terça-feira 09:00 - 11:00"));
+    private static final List<Course> OLD_COURSES = List.of(new Course("Excel", "Segunda-feira 09:00 - 11:00", null, null));
+    private static final List<Course> NEW_COURSES = List.of(new Course("Excel", "Terça-feira 09:00 - 11:00", null, null));
+
+    private final CourseImpl delegate = mock(CourseImpl.class);
+    private CachedCourseRepository repository;
+
+    @AfterEach
+    void stop() {
+        if (this.repository != null) {
+            this.repository.stop();
+        }
+    }
+
+    @Test
+    void loadsOnceWhenConcurrentReadersMissTheCache() throws Exception {
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(this.delegate.fetchRows()).thenAnswer(invocation -> {
+            fetching.countDown();
+            release.await();
+            return OLD_ROWS;
+        });
+        when(this.delegate.toCourses(OLD_ROWS)).thenReturn(OLD_COURSES);
+        this.repository = this.start(60_000);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<Course>> first = executor.submit(() -> this.repository.listAll());
+            assertThat(fetching.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<List<Course>> second = executor.submit(() -> this.repository.listAll());
+
+            release.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(OLD_COURSES);
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(OLD_COURSES);
+            verify(this.delegate, times(1)).fetchRows();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void retriesTheFirstLoadAfterAFailure() throws IOException {
+        when(this.delegate.fetchRows()).thenThrow(new IOException("unavailable")).thenReturn(OLD_ROWS);
+        when(this.delegate.toCourses(OLD_ROWS)).thenReturn(OLD_COURSES);
+        this.repository = this.start(60_000);
+
+        assertThatThrownBy(() -> this.repository.listAll()).isInstanceOf(IOException.class);
+        assertThat(this.repository.listAll()).isEqualTo(OLD_COURSES);
+    }
+
+    @Test
+    void aRefreshStartedBeforeAnUpdateNeverRevertsIt() throws Exception {
+        AtomicInteger fetches = new AtomicInteger();
+        CountDownLatch staleFetching = new CountDownLatch(1);
+        CountDownLatch releaseStale = new CountDownLatch(1);
+        when(this.delegate.fetchRows()).thenAnswer(invocation -> switch (fetches.incrementAndGet()) {
+            case 1 -> OLD_ROWS;
+            case 2 -> {
+                staleFetching.countDown();
+                releaseStale.await();
+                yield OLD_ROWS;
+            }
+            default -> NEW_ROWS;
+        });
+        when(this.delegate.toCourses(OLD_ROWS)).thenReturn(OLD_COURSES);
+        when(this.delegate.toCourses(NEW_ROWS)).thenReturn(NEW_COURSES);
+        this.repository = this.start(-1);
+
+        assertThat(this.repository.listAll()).isEqualTo(OLD_COURSES);
+        // The expired snapshot starts a background refresh, which fetches the rows as they were before the update.
+        this.repository.listAll();
+        assertThat(staleFetching.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Thread updater = new Thread(() -> {
+            try {
+                this.repository.update(new UpdateCourse("Excel", "Terça-feira 09:00 - 11:00", null));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        updater.start();
+        awaitBlockedOrDone(updater);
+
+        releaseStale.countDown();
+        updater.join(5_000);
+        assertThat(updater.isAlive()).isFalse();
+        assertThat(this.repository.listAll()).isEqualTo(NEW_COURSES);
+    }
+
+    private CachedCourseRepository start(long ttlMs) {
+        return new CachedCourseRepository(this.delegate, new SessionSeats(new SessionDictionary()), new SimpleMeterRegistry(),
+                new BackgroundThreads(false), ttlMs, 60_000);
+    }
+
+    private static void awaitBlockedOrDone(Thread thread) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TERMINATED
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
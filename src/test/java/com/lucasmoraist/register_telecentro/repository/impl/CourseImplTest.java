@@ -0,0 +1,159 @@
+package com.lucasmoraist.register_telecentro.repository.impl;
+
+import com.google.api.services.sheets.v4.Sheets;
+import com.lucasmoraist.register_telecentro.exceptions.ResourceNotFound;
+import com.lucasmoraist.register_telecentro.infra.google.local.A1Range;
+import com.lucasmoraist.register_telecentro.infra.google.local.InMemorySpreadsheet;
+import com.lucasmoraist.register_telecentro.infra.google.local.LocalSheetsFixtures;
+import com.lucasmoraist.register_telecentro.infra.google.local.LocalSheetsTransport;
+import com.lucasmoraist.register_telecentro.infra.google.metrics.SheetsMetrics;
+import com.lucasmoraist.register_telecentro.model.Course;
+import com.lucasmoraist.register_telecentro.model.Session;
+import com.lucasmoraist.register_telecentro.model.dto.UpdateCourse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CourseImplTest {
+
+    private static final String MORNING = "Terça-feira 09:00 - 11:00";
+    private static final String AFTERNOON = "Terça-feira 14:00 - 16:00";
+    private static final String EVENING = "Terça-feira 18:00 - 20:00";
+    private static final List<Object> HEADER = List.of("Curso", "Turma 1", "Turma 2", "Vagas");
+
+    private final CourseImpl courses = new CourseImpl(null, null, new SessionDictionary());
+
+    @Test
+    void readsTheCapacityFromTheVagasColumnOnly() {
+        List<Course> result = this.courses.toCourses(List.of(
+                HEADER,
+                List.of("Excel", MORNING, AFTERNOON, 150),
+                List.of("Word", "20", AFTERNOON)));
+
+        Course excel = result.get(0);
+        assertThat(excel.getCapacity()).isEqualTo(150);
+        assertThat(excel.getSessions()).extracting("dateAndTime").containsExactly(MORNING, AFTERNOON);
+
+        Course word = result.get(1);
+        assertThat(word.getCapacity()).isNull();
+        assertThat(word.getSessions()).extracting("dateAndTime").containsExactly("20", AFTERNOON);
+    }
+
+    @Test
+    void findsTheVagasColumnByItsHeader() {
+        List<Course> result = this.courses.toCourses(List.of(
+                List.of("Curso", "Turma 1", "Turma 2", "Turma 3", " vagas "),
+                List.of("Excel", MORNING, AFTERNOON, EVENING, 30)));
+
+        assertThat(result.get(0).getCapacity()).isEqualTo(30);
+        assertThat(result.get(0).getSessions()).extracting("dateAndTime").containsExactly(MORNING, AFTERNOON, EVENING);
+    }
+
+    @Test
+    void givesNoCapacityWithoutTheVagasHeader() {
+        List<Course> result = this.courses.toCourses(List.of(
+                List.of("Curso", "Turma 1", "Turma 2", "Turma 3"),
+                List.of("Excel", MORNING, AFTERNOON, 30)));
+
+        assertThat(result.get(0).getCapacity()).isNull();
+        assertThat(result.get(0).getSessions()).extracting("dateAndTime").containsExactly(MORNING, AFTERNOON, "30");
+        assertThat(this.courses.toCourses(List.of(HEADER))).isEmpty();
+    }
+
+    @Test
+    void acceptsWholeNumbersAndDigitStringsAsCapacity() {
+        assertThat(CourseImpl.capacityOf("Excel", 20)).isEqualTo(20);
+        assertThat(CourseImpl.capacityOf("Excel", new BigDecimal("20"))).isEqualTo(20);
+        assertThat(CourseImpl.capacityOf("Excel", 20.0)).isEqualTo(20);
+        assertThat(CourseImpl.capacityOf("Excel", " 20 ")).isEqualTo(20);
+        assertThat(CourseImpl.capacityOf("Excel", "")).isNull();
+    }
+
+    @Test
+    void rejectsCapacitiesThatAreNotWholeNumbers() {
+        assertThat(CourseImpl.capacityOf("Excel", 20.5)).isNull();
+        assertThat(CourseImpl.capacityOf("Excel", new BigDecimal("20.5"))).isNull();
+        assertThat(CourseImpl.capacityOf("Excel", -1)).isNull();
+        assertThat(CourseImpl.capacityOf("Excel", 1e12)).isNull();
+        assertThat(CourseImpl.capacityOf("Excel", "20.5")).isNull();
+        assertThat(CourseImpl.capacityOf("Excel", "vinte")).isNull();
+
+        Course excel = this.courses.toCourses(List.of(HEADER, List.of("Excel", MORNING, AFTERNOON, 20.5))).get(0);
+        assertThat(excel.getCapacity()).isNull();
+        assertThat(excel.getSessions()).hasSize(2);
+    }
+
+    @Test
+    void parsesTheDayAndTimesOfASession() {
+        Session session = CourseImpl.toSession(7, " Terça-feira 9:00 - 11:30 ");
+
+        assertThat(session.getId()).isEqualTo(7);
+        assertThat(session.getDayOfWeek()).isEqualTo(DayOfWeek.TUESDAY);
+        assertThat(session.getStartTime()).isEqualTo(LocalTime.of(9, 0));
+        assertThat(session.getEndTime()).isEqualTo(LocalTime.of(11, 30));
+        assertThat(CourseImpl.toSession(1, "SABADO 14:00-16:00").getDayOfWeek()).isEqualTo(DayOfWeek.SATURDAY);
+    }
+
+    @Test
+    void keepsOnlyTheTextOfSessionsInAnotherFormat() {
+        Session unknownDay = CourseImpl.toSession(1, "Feriado 09:00 - 11:00");
+        Session invalidTime = CourseImpl.toSession(2, "Segunda-feira 25:00 - 26:00");
+        Session freeText = CourseImpl.toSession(3, "A combinar");
+
+        assertThat(unknownDay.getDayOfWeek()).isNull();
+        assertThat(unknownDay.getStartTime()).isEqualTo(LocalTime.of(9, 0));
+        assertThat(invalidTime.getDayOfWeek()).isEqualTo(DayOfWeek.MONDAY);
+        assertThat(invalidTime.getStartTime()).isNull();
+        assertThat(freeText.getDateAndTime()).isEqualTo("A combinar");
+        assertThat(freeText.getDayOfWeek()).isNull();
+        assertThat(freeText.getStartTime()).isNull();
+    }
+
+    @Test
+    void updatesTheSessionColumnsOfTheCourseRow() throws IOException {
+        InMemorySpreadsheet spreadsheet = LocalSheetsFixtures.spreadsheet(0);
+        CourseImpl local = this.local(spreadsheet);
+
+        local.update(new UpdateCourse(" excel ", "Terça-feira 10:00 - 12:00", null));
+        assertThat(row(spreadsheet, 3)).containsExactly("Excel", "Terça-feira 10:00 - 12:00", AFTERNOON, 150);
+
+        local.update(new UpdateCourse("Excel", null, "Terça-feira 15:00 - 17:00"));
+        assertThat(row(spreadsheet, 3))
+                .containsExactly("Excel", "Terça-feira 10:00 - 12:00", "Terça-feira 15:00 - 17:00", 150);
+        assertThat(row(spreadsheet, 2)).containsExactly("Informática Básica", "Segunda-feira 09:00 - 11:00",
+                "Segunda-feira 14:00 - 16:00", 200);
+    }
+
+    @Test
+    void refusesToUpdateAnUnknownCourseOrNoSession() {
+        CourseImpl local = this.local(LocalSheetsFixtures.spreadsheet(0));
+
+        assertThatThrownBy(() -> local.update(new UpdateCourse("PowerPoint", MORNING, null)))
+                .isInstanceOf(ResourceNotFound.class);
+        assertThatThrownBy(() -> local.update(new UpdateCourse("Excel", null, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private CourseImpl local(InMemorySpreadsheet spreadsheet) {
+        SheetsMetrics metrics = new SheetsMetrics(new SimpleMeterRegistry());
+        Sheets sheets = new Sheets.Builder(new LocalSheetsTransport(spreadsheet, 0, 0.0, 0), metrics.jsonFactory(), null)
+                .setApplicationName("Register Telecentro")
+                .build();
+        CourseImpl local = new CourseImpl(sheets, metrics, new SessionDictionary());
+        ReflectionTestUtils.setField(local, "spreadsheetId", "local");
+        return local;
+    }
+
+    private static List<Object> row(InMemorySpreadsheet spreadsheet, int row) {
+        return spreadsheet.read(A1Range.parse("Cursos!A" + row + ":D" + row, LocalSheetsFixtures.COURSES_SHEET), false).get(0);
+    }
+}
@@ -0,0 +1,84 @@
+package com.lucasmoraist.register_telecentro.repository.impl;
+
+import com.google.api.services.sheets.v4.Sheets;
+import com.lucasmoraist.register_telecentro.exceptions.AppendPartiallyFailed;
+import com.lucasmoraist.register_telecentro.infra.concurrent.BackgroundThreads;
+import com.lucasmoraist.register_telecentro.infra.google.local.InMemorySpreadsheet;
+import com.lucasmoraist.register_telecentro.infra.google.local.LocalSheetsFixtures;
+import com.lucasmoraist.register_telecentro.infra.google.local.LocalSheetsTransport;
+import com.lucasmoraist.register_telecentro.infra.google.metrics.SheetsMetrics;
+import com.lucasmoraist.register_telecentro.model.Course;
+import com.lucasmoraist.register_telecentro.model.Person;
+import com.lucasmoraist.register_telecentro.repository.shard.RegistrationShards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+
+class IndexedPersonRepositoryTest {
+
+    private static final String SESSION = "Terça-feira 09:00 - 11:00";
+
+    private RegistrationShards shards;
+    private PersonImpl personImpl;
+    private IndexedPersonRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        InMemorySpreadsheet spreadsheet = new InMemorySpreadsheet();
+        spreadsheet.addSheet("Turma A", LocalSheetsFixtures.registrationRows(0));
+        spreadsheet.addSheet("Turma B", LocalSheetsFixtures.registrationRows(0));
+        SheetsMetrics sheetsMetrics = new SheetsMetrics(new SimpleMeterRegistry());
+        Sheets sheets = new Sheets.Builder(new LocalSheetsTransport(spreadsheet, 0, 0.0, 0), sheetsMetrics.jsonFactory(), null)
+                .setApplicationName("Register Telecentro")
+                .build();
+        this.shards = new RegistrationShards("test", "Turma A, Turma B", "course", "Word=1", new BackgroundThreads(false));
+        this.personImpl = spy(new PersonImpl(sheets, sheetsMetrics, this.shards));
+        SessionDictionary dictionary = new SessionDictionary();
+        this.repository = new IndexedPersonRepository(this.personImpl, this.shards, new SessionSeats(dictionary), dictionary,
+                new BackgroundThreads(false), 0, 500, 1000);
+        this.repository.buildIndex();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.repository.stop();
+    }
+
+    @Test
+    void recordsTheRowsOfEveryShard() throws IOException {
+        int[] rows = this.repository.appendPersonData(List.of(person("Word", "1"), person("Excel", "2")));
+
+        assertThat(rows).containsExactly(RegistrationShards.ROWS_PER_SHARD + 2, 2);
+        assertThat(this.repository.isRgAndCourseDateAlreadyRegistered("1", SESSION)).isTrue();
+        assertThat(this.repository.isRgAndCourseDateAlreadyRegistered("2", SESSION)).isTrue();
+    }
+
+    @Test
+    void recordsTheShardsThatSucceededWhenAnotherFails() throws IOException {
+        AppendPartiallyFailed failure = new AppendPartiallyFailed(new int[]{0, 2}, new IOException("Turma B is down"));
+        doThrow(failure).when(this.personImpl).appendPersonData(anyList());
+
+        assertThatThrownBy(() -> this.repository.appendPersonData(List.of(person("Word", "1"), person("Excel", "2"))))
+                .isSameAs(failure);
+        assertThat(this.repository.isRgAndCourseDateAlreadyRegistered("1", SESSION)).isFalse();
+        assertThat(this.repository.isRgAndCourseDateAlreadyRegistered("2", SESSION)).isTrue();
+    }
+
+    private static Person person(String course, String rg) {
+        Person person = new Person();
+        person.setCourse(new Course(course, SESSION));
+        person.setName("Pessoa " + rg);
+        person.setRg(rg);
+        return person;
+    }
+}
@@ -0,0 +1,143 @@
+package com.lucasmoraist.register_telecentro.repository.impl;
+
+import com.google.api.client.http.HttpResponseException;
+import com.google.api.services.sheets.v4.Sheets;
+import com.lucasmoraist.register_telecentro.exceptions.AppendPartiallyFailed;
+import com.lucasmoraist.register_telecentro.infra.concurrent.BackgroundThreads;
+import com.lucasmoraist.register_telecentro.infra.google.local.A1Range;
+import com.lucasmoraist.register_telecentro.infra.google.local.InMemorySpreadsheet;
+import com.lucasmoraist.register_telecentro.infra.google.local.LocalSheetsFixtures;
+import com.lucasmoraist.register_telecentro.infra.google.local.LocalSheetsTransport;
+import com.lucasmoraist.register_telecentro.infra.google.metrics.SheetsMetrics;
+import com.lucasmoraist.register_telecentro.model.Course;
+import com.lucasmoraist.register_telecentro.model.Person;
+import com.lucasmoraist.register_telecentro.model.dto.RegistrationFilter;
+import com.lucasmoraist.register_telecentro.repository.shard.RegistrationShards;
+import com.lucasmoraist.register_telecentro.repository.snapshot.RegistrationPage;
+import com.lucasmoraist.register_telecentro.repository.snapshot.RegistrationSnapshot;
+import com.lucasmoraist.register_telecentro.repository.snapshot.RegistrationView;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PersonImplTest {
+
+    private RegistrationShards shards;
+    private PersonImpl personImpl;
+
+    @BeforeEach
+    void setUp() {
+        InMemorySpreadsheet spreadsheet = new InMemorySpreadsheet();
+        spreadsheet.addSheet(LocalSheetsFixtures.REGISTRATIONS_SHEET, LocalSheetsFixtures.registrationRows(0));
+        SheetsMetrics sheetsMetrics = new SheetsMetrics(new SimpleMeterRegistry());
+        Sheets sheets = new Sheets.Builder(new LocalSheetsTransport(spreadsheet, 0, 0.0, 0), sheetsMetrics.jsonFactory(), null)
+                .setApplicationName("Register Telecentro")
+                .build();
+        this.shards = new RegistrationShards("test", LocalSheetsFixtures.REGISTRATIONS_SHEET, "term", "", new BackgroundThreads(false));
+        this.personImpl = new PersonImpl(sheets, sheetsMetrics, this.shards);
+    }
+
+    @Test
+    void readsBackARegistrationSavedWithoutItsOptionalFields() throws IOException {
+        Person saved = new Person();
+        saved.setCourse(new Course("Excel", "Terça-feira 09:00 - 11:00"));
+        saved.setName("Pessoa");
+        saved.setRg("123");
+
+        int row = this.personImpl.savePersonData(saved);
+
+        assertThat(row).isEqualTo(2);
+        assertThat(this.personImpl.listPersonByRg("123")).containsExactly(saved);
+        RegistrationSnapshot snapshot = this.personImpl.readSnapshot();
+        assertThat(snapshot.size()).isEqualTo(1);
+        assertThat(snapshot.materialize(0)).isEqualTo(saved);
+    }
+
+    @Test
+    void mapsBlankCellsToNull() {
+        List<Object> row = Arrays.asList("Excel", "Terça-feira 09:00 - 11:00", "Pessoa", "123", "", " ", "", null);
+
+        Person person = PersonImpl.toPerson(row);
+
+        assertThat(person.getBirthDate()).isNull();
+        assertThat(person.getAge()).isZero();
+        assertThat(person.getAddress()).isNull();
+        assertThat(person.getEmail()).isNull();
+        assertThat(person.getPhoneNumber()).isNull();
+        assertThat(person.getIsConfirmed()).isNull();
+    }
+
+    @Test
+    void appendsToTheShardOfEveryRegistrationAndPagesAcrossShardsInOrder() throws IOException {
+        InMemorySpreadsheet spreadsheet = new InMemorySpreadsheet();
+        spreadsheet.addSheet("Turma A", LocalSheetsFixtures.registrationRows(0));
+        spreadsheet.addSheet("Turma B", LocalSheetsFixtures.registrationRows(0));
+        PersonImpl repository = this.sharded(spreadsheet, "Turma A, Turma B");
+
+        int[] rows = repository.appendPersonData(List.of(person("Word", "1"), person("Excel", "2"),
+                person("Word", "3"), person("Excel", "4")));
+
+        int shardB = RegistrationShards.ROWS_PER_SHARD;
+        assertThat(rows).containsExactly(shardB + 2, 2, shardB + 3, 3);
+        assertThat(repository.listPersonByRg("3")).extracting(Person::getName).containsExactly("Pessoa 3");
+
+        RegistrationView view = new RegistrationView(repository, new BackgroundThreads(false), 60_000, 1000);
+        try {
+            List<String> rgs = new ArrayList<>();
+            String cursor = null;
+            do {
+                RegistrationPage page = view.page(RegistrationFilter.all(), cursor, 1);
+                rgs.add(page.person(0).getRg());
+                cursor = page.nextCursor();
+            } while (cursor != null);
+            assertThat(rgs).containsExactly("2", "4", "1", "3");
+        } finally {
+            view.stop();
+        }
+    }
+
+    @Test
+    void keepsTheRowsWrittenWhenAShardFails() throws IOException {
+        InMemorySpreadsheet spreadsheet = new InMemorySpreadsheet();
+        spreadsheet.addSheet("Turma A", LocalSheetsFixtures.registrationRows(0));
+        PersonImpl repository = this.sharded(spreadsheet, "Turma A, Turma B");
+
+        assertThatThrownBy(() -> repository.appendPersonData(List.of(person("Word", "1"), person("Excel", "2"))))
+                .isInstanceOfSatisfying(AppendPartiallyFailed.class, e -> {
+                    assertThat(e.rows()).containsExactly(0, 2);
+                    assertThat(e.isWritten(0)).isFalse();
+                    assertThat(e.failure()).isInstanceOf(HttpResponseException.class);
+                });
+        assertThatThrownBy(() -> repository.appendPersonData(List.of(person("Word", "3"))))
+                .isInstanceOf(HttpResponseException.class);
+        assertThat(spreadsheet.read(A1Range.parse("C2:C", "Turma A"), false)).containsExactly(List.of("Pessoa 2"));
+    }
+
+    /**
+     * Builds a repository over two tabs, writing Word to the second one and every other course to the first.
+     */
+    private PersonImpl sharded(InMemorySpreadsheet spreadsheet, String tabs) {
+        SheetsMetrics sheetsMetrics = new SheetsMetrics(new SimpleMeterRegistry());
+        Sheets sheets = new Sheets.Builder(new LocalSheetsTransport(spreadsheet, 0, 0.0, 0), sheetsMetrics.jsonFactory(), null)
+                .setApplicationName("Register Telecentro")
+                .build();
+        RegistrationShards registrationShards = new RegistrationShards("test", tabs, "course", "Word=1", new BackgroundThreads(false));
+        return new PersonImpl(sheets, sheetsMetrics, registrationShards);
+    }
+
+    private static Person person(String course, String rg) {
+        Person person = new Person();
+        person.setCourse(new Course(course, "Terça-feira 09:00 - 11:00"));
+        person.setName("Pessoa " + rg);
+        person.setRg(rg);
+        return person;
+    }
+}
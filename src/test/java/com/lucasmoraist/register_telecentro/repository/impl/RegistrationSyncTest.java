@@ -0,0 +1,144 @@
+package com.lucasmoraist.register_telecentro.repository.impl;
+
+import com.google.api.services.sheets.v4.Sheets;
+import com.lucasmoraist.register_telecentro.infra.concurrent.BackgroundThreads;
+import com.lucasmoraist.register_telecentro.infra.google.local.A1Range;
+import com.lucasmoraist.register_telecentro.infra.google.local.InMemorySpreadsheet;
+import com.lucasmoraist.register_telecentro.infra.google.local.LocalSheetsFixtures;
+import com.lucasmoraist.register_telecentro.infra.google.local.LocalSheetsTransport;
+import com.lucasmoraist.register_telecentro.infra.google.metrics.SheetsMetrics;
+import com.lucasmoraist.register_telecentro.model.dto.RegistrationKey;
+import com.lucasmoraist.register_telecentro.repository.shard.RegistrationShards;
+import com.lucasmoraist.register_telecentro.repository.shard.Shard;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+
+class RegistrationSyncTest {
+
+    private static final String SHEET = LocalSheetsFixtures.REGISTRATIONS_SHEET;
+    private static final String COURSE = "Excel";
+    private static final String SESSION = "Segunda-feira 09:00 - 11:00";
+
+    private final InMemorySpreadsheet spreadsheet = new InMemorySpreadsheet();
+    private final RgIndex index = new RgIndex(new SessionDictionary());
+    private RegistrationShards shards;
+    private PersonImpl personImpl;
+    private Shard shard;
+
+    @BeforeEach
+    void setUp() {
+        this.spreadsheet.addSheet(SHEET, rows(8));
+        SheetsMetrics sheetsMetrics = new SheetsMetrics(new SimpleMeterRegistry());
+        Sheets sheets = new Sheets.Builder(new LocalSheetsTransport(this.spreadsheet, 0, 0.0, 0), sheetsMetrics.jsonFactory(), null)
+                .setApplicationName("Register Telecentro")
+                .build();
+        this.shards = new RegistrationShards("test", SHEET, "term", "", new BackgroundThreads(false));
+        this.personImpl = new PersonImpl(sheets, sheetsMetrics, this.shards);
+        this.shard = this.shards.all().get(0);
+    }
+
+    @Test
+    void picksUpRowsAppendedToTheSheet() throws IOException {
+        RegistrationSync sync = this.sync(this.personImpl);
+        assertThat(sync.load()).isEqualTo(8);
+
+        this.spreadsheet.append(A1Range.parse("A:J", SHEET), List.of(row(8), row(9), row(10), row(11)));
+
+        assertThat(sync.sync()).isEqualTo(4);
+        assertThat(this.index.rowsOf(rg(11))).containsExactly(13);
+        assertThat(this.index.contains(rg(8), SESSION)).isTrue();
+    }
+
+    @Test
+    void appliesRowsEditedOrClearedInTheSheet() throws IOException {
+        RegistrationSync sync = this.sync(this.personImpl);
+        sync.load();
+
+        this.write(3, List.of(COURSE, SESSION, "Pessoa X", "X"));
+        this.write(4, List.of("", "", "", ""));
+
+        // the first window holds rows 2 to 5, two of them changed
+        assertThat(sync.sync()).isEqualTo(2);
+        assertThat(this.index.rowsOf("X")).containsExactly(3);
+        assertThat(this.index.contains(rg(1), SESSION)).isFalse();
+        assertThat(this.index.contains(rg(2), SESSION)).isFalse();
+        assertThat(this.index.rowsOf(rg(3))).containsExactly(5);
+    }
+
+    @Test
+    void reloadsWhenTheChecksumShowsRowsMoved() throws IOException {
+        RegistrationSync sync = this.sync(this.personImpl);
+        sync.load();
+
+        // the first registration is deleted and every row below moves up
+        List<List<Object>> moved = new ArrayList<>();
+        for (int i = 1; i < 8; i++) {
+            moved.add(row(i));
+        }
+        moved.add(List.of("", "", "", ""));
+        this.spreadsheet.write(A1Range.parse("A2", SHEET), moved);
+
+        assertThat(sync.sync()).isEqualTo(7);
+        assertThat(this.index.contains(rg(0), SESSION)).isFalse();
+        for (int i = 1; i < 8; i++) {
+            assertThat(this.index.rowsOf(rg(i))).containsExactly(i + 1);
+        }
+    }
+
+    @Test
+    void keepsARowRecordedWhileTheSheetWasBeingRead() throws IOException {
+        PersonImpl slowSheet = spy(this.personImpl);
+        RegistrationSync sync = this.sync(slowSheet);
+        sync.load();
+
+        RegistrationKey appended = new RegistrationKey(10, COURSE, "NEW", SESSION);
+        doAnswer(invocation -> {
+            Object keys = invocation.callRealMethod();
+            this.write(10, List.of(COURSE, SESSION, "Pessoa NEW", "NEW"));
+            sync.recordAppended(appended);
+            return keys;
+        }).when(slowSheet).listRegistrationKeys(any(Shard.class));
+
+        sync.load();
+
+        assertThat(this.index.rowsOf("NEW")).containsExactly(10);
+        assertThat(sync.sync()).isZero();
+        assertThat(this.index.rowsOf("NEW")).containsExactly(10);
+    }
+
+    private RegistrationSync sync(PersonImpl delegate) {
+        return new RegistrationSync(delegate, this.shard, this.index, mock(SessionSeats.class), 4, 3);
+    }
+
+    private void write(int row, List<Object> cells) {
+        this.spreadsheet.write(A1Range.parse("A" + row, SHEET), List.of(cells));
+    }
+
+    private static List<List<Object>> rows(int count) {
+        List<List<Object>> rows = new ArrayList<>();
+        rows.add(List.of("Curso", "Data e Hora", "Nome", "RG"));
+        for (int i = 0; i < count; i++) {
+            rows.add(row(i));
+        }
+        return rows;
+    }
+
+    private static List<Object> row(int i) {
+        return List.of(COURSE, SESSION, "Pessoa " + i, rg(i));
+    }
+
+    private static String rg(int i) {
+        return String.valueOf(1000 + i);
+    }
+}
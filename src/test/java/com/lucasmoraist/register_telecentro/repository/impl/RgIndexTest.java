@@ -0,0 +1,58 @@
+package com.lucasmoraist.register_telecentro.repository.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RgIndexTest {
+
+    private static final String MONDAY = "Segunda-feira 09:00 - 11:00";
+    private static final String TUESDAY = "Terça-feira 09:00 - 11:00";
+
+    private final SessionDictionary dictionary = new SessionDictionary();
+    private final RgIndex index = new RgIndex(this.dictionary);
+
+    @Test
+    void findsRegistrationsRegardlessOfCaseAndSpaces() {
+        this.index.add(2, "12.345.678-x", MONDAY);
+
+        assertThat(this.index.contains(" 12.345.678-X ", MONDAY.toUpperCase())).isTrue();
+        assertThat(this.index.contains("12.345.678-X", TUESDAY)).isFalse();
+        assertThat(this.index.contains("98.765.432-1", MONDAY)).isFalse();
+    }
+
+    @Test
+    void keepsTheRowsOfAnRgInInsertionOrderWithoutDuplicates() {
+        this.index.add(5, "123", MONDAY);
+        this.index.add(3, "123", TUESDAY);
+        this.index.add(5, "123", MONDAY);
+
+        assertThat(this.index.rowsOf("123")).containsExactly(5, 3);
+        assertThat(this.index.rowsOf("456")).isEmpty();
+        assertThat(this.index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void removesASingleRegistration() {
+        this.index.add(2, "123", MONDAY);
+        this.index.add(3, "123", TUESDAY);
+
+        this.index.remove(2, "123", MONDAY);
+        assertThat(this.index.contains("123", MONDAY)).isFalse();
+        assertThat(this.index.contains("123", TUESDAY)).isTrue();
+
+        this.index.remove(3, " 123 ", TUESDAY);
+        assertThat(this.index.rowsOf("123")).isEmpty();
+        assertThat(this.index.size()).isZero();
+    }
+
+    @Test
+    void internsCourseDatesOnlyWhenAdding() {
+        this.index.add(2, "123", MONDAY);
+        this.index.add(3, "456", " " + MONDAY.toLowerCase() + " ");
+
+        assertThat(this.dictionary.findDateId(MONDAY)).isEqualTo(this.dictionary.dateId(MONDAY.toLowerCase()));
+        assertThat(this.index.contains("123", TUESDAY)).isFalse();
+        assertThat(this.dictionary.findDateId(TUESDAY)).isEqualTo(SessionDictionary.UNKNOWN);
+    }
+}
@@ -0,0 +1,83 @@
+package com.lucasmoraist.register_telecentro.repository.impl;
+
+import com.lucasmoraist.register_telecentro.model.Course;
+import com.lucasmoraist.register_telecentro.model.Session;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionSeatsTest {
+
+    private static final String MONDAY = "Segunda-feira 09:00 - 11:00";
+    private static final String TUESDAY = "Terça-feira 09:00 - 11:00";
+
+    private final SessionDictionary dictionary = new SessionDictionary();
+    private final SessionSeats seats = new SessionSeats(this.dictionary);
+
+    @Test
+    void rejectsSessionsTheCoursesTabDoesNotOffer() {
+        this.seats.updateCapacities(List.of(this.course("Excel", 1, MONDAY)));
+
+        assertThat(this.seats.tryReserve("Excel", TUESDAY)).isFalse();
+        assertThat(this.seats.tryReserve("Word", MONDAY)).isFalse();
+        assertThat(this.seats.isOffered("Excel", TUESDAY)).isFalse();
+        assertThat(this.dictionary.find("Excel", TUESDAY)).isEqualTo(SessionDictionary.UNKNOWN);
+    }
+
+    @Test
+    void enforcesTheCapacityOfOfferedSessions() {
+        this.seats.updateCapacities(List.of(this.course(" excel ", 2, MONDAY)));
+
+        assertThat(this.seats.tryReserve("Excel", MONDAY)).isTrue();
+        assertThat(this.seats.tryReserve("EXCEL", MONDAY.toLowerCase())).isTrue();
+        assertThat(this.seats.tryReserve("Excel", MONDAY)).isFalse();
+
+        this.seats.release("Excel", MONDAY);
+        assertThat(this.seats.tryReserve("Excel", MONDAY)).isTrue();
+    }
+
+    @Test
+    void sessionsWithoutCapacityAreNeverFull() {
+        this.seats.updateCapacities(List.of(this.course("Excel", null, MONDAY)));
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(this.seats.tryReserve("Excel", MONDAY)).isTrue();
+        }
+    }
+
+    @Test
+    void carriesOverRegistrationsSeededBeforeTheCoursesWereLoaded() {
+        this.seats.occupy("Excel", MONDAY);
+        this.seats.occupy("Excel", MONDAY);
+        this.seats.occupy("Word", MONDAY);
+        this.seats.release("Word", MONDAY);
+
+        Course excel = this.course("Excel", 3, MONDAY);
+        this.seats.updateCapacities(List.of(excel));
+
+        assertThat(this.seats.remaining(excel.getSessions().get(0).getId())).isEqualTo(1);
+    }
+
+    @Test
+    void stopsReservingSessionsRemovedFromTheCoursesTab() {
+        Course excel = this.course("Excel", 3, MONDAY);
+        this.seats.updateCapacities(List.of(excel));
+        assertThat(this.seats.tryReserve("Excel", MONDAY)).isTrue();
+
+        this.seats.updateCapacities(List.of());
+        assertThat(this.seats.tryReserve("Excel", MONDAY)).isFalse();
+        assertThat(this.seats.remaining(excel.getSessions().get(0).getId())).isNull();
+
+        this.seats.updateCapacities(List.of(excel));
+        assertThat(this.seats.remaining(excel.getSessions().get(0).getId())).isEqualTo(2);
+    }
+
+    private Course course(String name, Integer capacity, String dateAndTime) {
+        Session session = new Session();
+        session.setId(this.dictionary.sessionId(name, dateAndTime));
+        session.setDateAndTime(dateAndTime);
+        return new Course(name, dateAndTime, capacity, List.of(session));
+    }
+}
@@ -0,0 +1,129 @@
+package com.lucasmoraist.register_telecentro.repository.shard;
+
+import com.lucasmoraist.register_telecentro.infra.concurrent.BackgroundThreads;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class RegistrationShardsTest {
+
+    @Test
+    void writesToTheLastTabByTermAndLooksUpEveryTab() {
+        RegistrationShards shards = this.shards("2024-1, 2024-2, other!2025-1", "term", "");
+
+        assertThat(shards.all()).extracting(Shard::index, Shard::spreadsheetId, Shard::tab).containsExactly(
+                tuple(0, "default", "2024-1"),
+                tuple(1, "default", "2024-2"),
+                tuple(2, "other", "2025-1"));
+        assertThat(shards.shardFor("Excel", "123").index()).isEqualTo(2);
+        assertThat(shards.shardsForRg("123")).isEqualTo(shards.all());
+        assertThat(shards.spreadsheetIds()).containsExactly("default", "other");
+    }
+
+    @Test
+    void writesEveryCourseToItsConfiguredTab() {
+        RegistrationShards shards = this.shards("A, B, C", "course", "Excel=1, Informática Básica=2");
+
+        assertThat(shards.shardFor(" excel ", "1").index()).isEqualTo(1);
+        assertThat(shards.shardFor("INFORMÁTICA BÁSICA", "1").index()).isEqualTo(2);
+        assertThat(shards.shardFor("Word", "1").index()).isZero();
+        assertThat(shards.shardsForRg("1")).hasSize(3);
+        assertThatThrownBy(() -> this.shards("A, B", "course", "Excel=2")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void keepsEveryRegistrationOfAnRgInTheSameTabByRgHash() {
+        RegistrationShards shards = this.shards("A, B, C, D", "rg-hash", "");
+
+        List<Integer> used = new ArrayList<>();
+        for (int rg = 0; rg < 100; rg++) {
+            Shard shard = shards.shardFor("Excel", "12.345-" + rg);
+            assertThat(shards.shardFor("Word", " 12.345-" + rg + " ")).isEqualTo(shard);
+            assertThat(shards.shardsForRg("12.345-" + rg)).containsExactly(shard);
+            used.add(shard.index());
+        }
+        assertThat(used).contains(0, 1, 2, 3);
+        assertThat(shards.shardFor("Excel", "abc")).isEqualTo(shards.shardFor("Excel", "ABC"));
+    }
+
+    @Test
+    void encodesTheShardInTheRow() {
+        RegistrationShards shards = this.shards("A, B, C", "term", "");
+        Shard last = shards.all().get(2);
+
+        int row = RegistrationShards.row(last, 42);
+
+        assertThat(row).isEqualTo(2 * RegistrationShards.ROWS_PER_SHARD + 42);
+        assertThat(RegistrationShards.tabRow(row)).isEqualTo(42);
+        assertThat(shards.shardOf(row)).isEqualTo(last);
+        assertThat(RegistrationShards.row(shards.all().get(0), RegistrationShards.FIRST_ROW)).isEqualTo(2);
+        assertThat(shards.shardOf(RegistrationShards.ROWS_PER_SHARD - 1).index()).isZero();
+        assertThat(shards.shardOf(RegistrationShards.ROWS_PER_SHARD).index()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsTheResultsOfTheShardsThatSucceeded() throws IOException {
+        RegistrationShards shards = this.shards("A, B, C", "term", "");
+
+        List<ShardResult<String>> results = shards.fanOutEach(shards.all(), shard -> {
+            if (shard.index() == 1) {
+                throw new IOException("B is down");
+            }
+            return shard.tab();
+        });
+
+        assertThat(results).extracting(ShardResult::value, ShardResult::failed).containsExactly(
+                tuple("A", false),
+                tuple(null, true),
+                tuple("C", false));
+        assertThat(results.get(1).failure()).hasMessage("B is down");
+        assertThatThrownBy(() -> shards.fanOut(shards.all(), shard -> {
+            throw new IOException(shard.tab() + " is down");
+        })).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    void concurrentFanOutsDoNotWaitForEachOther() throws Exception {
+        RegistrationShards shards = this.shards("A, B", "term", "");
+        // Every shard call of both requests waits for the others, so it only ends if all four run at once.
+        CountDownLatch running = new CountDownLatch(4);
+        RegistrationShards.ShardCall<String> call = shard -> {
+            running.countDown();
+            try {
+                if (!running.await(5, TimeUnit.SECONDS)) {
+                    throw new IOException("Shard calls queued behind each other");
+                }
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+            return shard.tab();
+        };
+
+        ExecutorService requests = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<String>> first = requests.submit(() -> shards.fanOut(shards.all(), call));
+            Future<List<String>> second = requests.submit(() -> shards.fanOut(shards.all(), call));
+
+            assertThat(first.get(10, TimeUnit.SECONDS)).containsExactly("A", "B");
+            assertThat(second.get(10, TimeUnit.SECONDS)).containsExactly("A", "B");
+        } finally {
+            requests.shutdownNow();
+        }
+    }
+
+    private RegistrationShards shards(String tabs, String routing, String courses) {
+        return new RegistrationShards("default", tabs, routing, courses, new BackgroundThreads(false));
+    }
+}
@@ -0,0 +1,90 @@
+package com.lucasmoraist.register_telecentro.repository.snapshot;
+
+import com.lucasmoraist.register_telecentro.model.Course;
+import com.lucasmoraist.register_telecentro.model.Person;
+import com.lucasmoraist.register_telecentro.model.dto.RegistrationFilter;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RegistrationSnapshotTest {
+
+    private static final String MONDAY = "Segunda-feira 09:00 - 11:00";
+    private static final String TUESDAY = "Terça-feira 09:00 - 11:00";
+
+    @Test
+    void decodesEveryColumn() {
+        RegistrationSnapshot snapshot = RegistrationSnapshot.builder(1)
+                .add(2, List.of("Excel", MONDAY, "Pessoa", "123", "1990-01-31", "34", "Rua", "p@example.com", "11", "Sim"))
+                .build();
+
+        assertThat(snapshot.size()).isEqualTo(1);
+        assertThat(snapshot.sheetRow(0)).isEqualTo(2);
+        assertThat(snapshot.materialize(0)).isEqualTo(new Person(new Course("Excel", MONDAY), "Pessoa", "123",
+                LocalDate.of(1990, 1, 31), 34, "Rua", "p@example.com", "11", "Sim"));
+    }
+
+    @Test
+    void decodesRowsWithMissingTrailingCellsAsNull() {
+        RegistrationSnapshot snapshot = RegistrationSnapshot.builder(1)
+                .add(2, List.of("Excel", MONDAY, "Pessoa", "123"))
+                .add(3, Arrays.asList("", null, " "))
+                .add(4, List.of("Word", TUESDAY, "Outra", "456", "not a date", "x"))
+                .build();
+
+        assertThat(snapshot.size()).isEqualTo(2);
+        assertThat(snapshot.materialize(0)).isEqualTo(new Person(new Course("Excel", MONDAY), "Pessoa", "123",
+                null, 0, null, null, null, null));
+        assertThat(snapshot.sheetRow(1)).isEqualTo(4);
+        assertThat(snapshot.materialize(1).getBirthDate()).isNull();
+        assertThat(snapshot.materialize(1).getAge()).isZero();
+        assertThat(snapshot.positionAfterRow(2)).isEqualTo(1);
+        assertThat(snapshot.positionAfterRow(4)).isEqualTo(2);
+    }
+
+    @Test
+    void filtersByCourseSessionAndAge() {
+        RegistrationSnapshot snapshot = RegistrationSnapshot.builder(4)
+                .add(2, List.of("Excel", MONDAY, "A", "1", "", "20"))
+                .add(3, List.of("Word", MONDAY, "B", "2", "", "30"))
+                .add(4, List.of("excel ", TUESDAY, "C", "3", "", "40"))
+                .add(5, List.of("Excel", TUESDAY, "D", "4", "", "50"))
+                .build();
+
+        RegistrationSnapshot.Query query = snapshot.query(new RegistrationFilter("EXCEL", TUESDAY, null, null, 45, null));
+
+        assertThat(query.next(0)).isEqualTo(3);
+        assertThat(query.next(4)).isEqualTo(-1);
+        assertThat(snapshot.query(new RegistrationFilter("Excel", null, null, null, null, null)).count()).isEqualTo(3);
+        assertThat(snapshot.query(RegistrationFilter.all()).count()).isEqualTo(4);
+    }
+
+    @Test
+    void matchesTheRgLikeTheRgIndex() {
+        RegistrationSnapshot snapshot = RegistrationSnapshot.builder(3)
+                .add(2, List.of("Excel", MONDAY, "A", " 12.345-x "))
+                .add(3, List.of("Excel", MONDAY, "B", "ção-1"))
+                .add(4, List.of("Excel", MONDAY, "C", "straße"))
+                .build();
+
+        assertThat(rows(snapshot, "12.345-X")).containsExactly(2);
+        assertThat(rows(snapshot, "12.345-x")).containsExactly(2);
+        assertThat(rows(snapshot, "12.345")).isEmpty();
+        assertThat(rows(snapshot, " ÇÃO-1")).containsExactly(3);
+        assertThat(rows(snapshot, "STRASSE")).containsExactly(4);
+    }
+
+    private static List<Integer> rows(RegistrationSnapshot snapshot, String rg) {
+        RegistrationSnapshot.Query query = snapshot.query(new RegistrationFilter(null, null, rg, null, null, null));
+        List<Integer> rows = new ArrayList<>();
+        for (int index = query.next(0); index >= 0; index = query.next(index + 1)) {
+            rows.add(snapshot.sheetRow(index));
+        }
+        return rows;
+    }
+}
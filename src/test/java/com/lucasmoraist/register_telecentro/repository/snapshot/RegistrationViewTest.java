@@ -0,0 +1,114 @@
+package com.lucasmoraist.register_telecentro.repository.snapshot;
+
+import com.lucasmoraist.register_telecentro.exceptions.InvalidCursor;
+import com.lucasmoraist.register_telecentro.exceptions.InvalidPageSize;
+import com.lucasmoraist.register_telecentro.infra.concurrent.BackgroundThreads;
+import com.lucasmoraist.register_telecentro.model.dto.RegistrationFilter;
+import com.lucasmoraist.register_telecentro.repository.PersonRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RegistrationViewTest {
+
+    private static final String MONDAY = "Segunda-feira 09:00 - 11:00";
+    private static final String TUESDAY = "Terça-feira 09:00 - 11:00";
+
+    private final PersonRepository repository = mock(PersonRepository.class);
+    private final List<RegistrationView> views = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        this.views.forEach(RegistrationView::stop);
+    }
+
+    @Test
+    void pagesThroughTheRegistrationsMatchingTheFilter() throws IOException {
+        when(this.repository.readSnapshot()).thenReturn(snapshot(2, 3, 4, 5, 6));
+        RegistrationView view = this.view(1000);
+        RegistrationFilter excel = new RegistrationFilter("excel", null, null, null, null, null);
+
+        RegistrationPage first = view.page(excel, null, 2);
+        RegistrationPage second = view.page(excel, first.nextCursor(), 2);
+
+        assertThat(names(first)).containsExactly("Pessoa 2", "Pessoa 4");
+        assertThat(names(second)).containsExactly("Pessoa 6");
+        assertThat(second.nextCursor()).isNull();
+        assertThat(names(view.page(new RegistrationFilter(null, TUESDAY, null, "Sim", null, null), null, 10)))
+                .containsExactly("Pessoa 3");
+    }
+
+    @Test
+    void keepsFollowingTheCursorWhenRowsAreAddedBeforeIt() throws IOException {
+        when(this.repository.readSnapshot()).thenReturn(snapshot(2, 4, 6, 8));
+        RegistrationPage first = this.view(1000).page(RegistrationFilter.all(), null, 2);
+
+        when(this.repository.readSnapshot()).thenReturn(snapshot(2, 3, 4, 5, 6, 7, 8));
+        RegistrationPage second = this.view(1000).page(RegistrationFilter.all(), first.nextCursor(), 10);
+
+        assertThat(names(first)).containsExactly("Pessoa 2", "Pessoa 4");
+        assertThat(names(second)).containsExactly("Pessoa 5", "Pessoa 6", "Pessoa 7", "Pessoa 8");
+    }
+
+    @Test
+    void capsThePageSizeAndRejectsAnEmptyPage() throws IOException {
+        when(this.repository.readSnapshot()).thenReturn(snapshot(2, 3, 4, 5));
+        RegistrationView view = this.view(3);
+
+        assertThat(view.page(RegistrationFilter.all(), null, 100).size()).isEqualTo(3);
+        assertThatThrownBy(() -> view.page(RegistrationFilter.all(), null, 0)).isInstanceOf(InvalidPageSize.class);
+        assertThatThrownBy(() -> view.page(RegistrationFilter.all(), null, -1)).isInstanceOf(InvalidPageSize.class);
+    }
+
+    @Test
+    void rejectsCursorsItDidNotIssue() throws IOException {
+        when(this.repository.readSnapshot()).thenReturn(snapshot(2, 3));
+        RegistrationView view = this.view(1000);
+
+        for (String cursor : List.of("not base64!", encode("page:2"), encode("row:x"), encode("row:-1"))) {
+            assertThatThrownBy(() -> view.page(RegistrationFilter.all(), cursor, 10)).isInstanceOf(InvalidCursor.class);
+        }
+        assertThat(view.page(RegistrationFilter.all(), "", 10).size()).isEqualTo(2);
+    }
+
+    private RegistrationView view(int maxPageSize) {
+        RegistrationView view = new RegistrationView(this.repository, new BackgroundThreads(false), 60_000, maxPageSize);
+        this.views.add(view);
+        return view;
+    }
+
+    /**
+     * Builds a snapshot with one registration per row: even rows are Excel on Monday, odd rows Word on Tuesday.
+     */
+    private static RegistrationSnapshot snapshot(int... rows) {
+        RegistrationSnapshot.Builder builder = RegistrationSnapshot.builder(rows.length);
+        for (int row : rows) {
+            boolean even = row % 2 == 0;
+            builder.add(row, List.of(even ? "Excel" : "Word", even ? MONDAY : TUESDAY, "Pessoa " + row,
+                    String.valueOf(row), "", "30", "", "", "", row == 3 ? "Sim" : "Não"));
+        }
+        return builder.build();
+    }
+
+    private static List<String> names(RegistrationPage page) {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < page.size(); i++) {
+            names.add(page.person(i).getName());
+        }
+        return names;
+    }
+
+    private static String encode(String cursor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,110 @@
+package com.lucasmoraist.register_telecentro.service;
+
+import com.lucasmoraist.register_telecentro.infra.concurrent.BackgroundThreads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class MailDispatcherTest {
+
+    private final JavaMailSender mailSender = mock(JavaMailSender.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private MailDispatcher dispatcher;
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        if (this.dispatcher != null) {
+            this.dispatcher.stop();
+        }
+    }
+
+    @Test
+    void sendsQueuedMessagesInOneBatch() {
+        this.dispatcher = this.create(10, 5, 1_000, 10);
+        MimeMessage first = mock(MimeMessage.class);
+        MimeMessage second = mock(MimeMessage.class);
+        MimeMessage third = mock(MimeMessage.class);
+        this.dispatcher.dispatch(first, "a@example.com");
+        this.dispatcher.dispatch(second, "b@example.com");
+        this.dispatcher.dispatch(third, "c@example.com");
+
+        this.dispatcher.start();
+
+        verify(this.mailSender, timeout(5_000)).send(first, second, third);
+    }
+
+    @Test
+    void retriesAFailedMessageAfterABackoff() {
+        List<Long> attempts = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            attempts.add(System.nanoTime());
+            if (attempts.size() == 1) {
+                throw new MailSendException("SMTP unavailable");
+            }
+            return null;
+        }).when(this.mailSender).send(any(MimeMessage[].class));
+        this.dispatcher = this.create(10, 5, 200, 10);
+        this.dispatcher.start();
+
+        this.dispatcher.dispatch(mock(MimeMessage.class), "a@example.com");
+
+        verify(this.mailSender, timeout(5_000).times(2)).send(any(MimeMessage[].class));
+        // The first retry waits between half and all of the initial backoff.
+        assertThat(attempts.get(1) - attempts.get(0)).isGreaterThanOrEqualTo(100_000_000L);
+        assertThat(this.deadLetters()).isZero();
+    }
+
+    @Test
+    void deadLettersAMessageAfterMaxAttempts() throws InterruptedException {
+        doThrow(new MailSendException("SMTP unavailable")).when(this.mailSender).send(any(MimeMessage[].class));
+        this.dispatcher = this.create(10, 3, 1, 10);
+        this.dispatcher.start();
+
+        this.dispatcher.dispatch(mock(MimeMessage.class), "a@example.com");
+
+        verify(this.mailSender, timeout(5_000).times(3)).send(any(MimeMessage[].class));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (this.deadLetters() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(this.deadLetters()).isEqualTo(1);
+        Thread.sleep(50);
+        verify(this.mailSender, times(3)).send(any(MimeMessage[].class));
+    }
+
+    @Test
+    void keepsOnlyTheLastDeadLetters() {
+        MailDispatcher notStarted = this.create(1, 5, 1_000, 2);
+
+        for (int i = 0; i < 5; i++) {
+            notStarted.dispatch(mock(MimeMessage.class), i + "@example.com");
+        }
+
+        assertThat(this.deadLetters()).isEqualTo(2);
+        assertThat(this.registry.get("telecentro.mail.dead.lettered").counter().count()).isEqualTo(4);
+    }
+
+    private MailDispatcher create(int queueCapacity, int maxAttempts, long initialBackoffMs, int deadLetterCapacity) {
+        return new MailDispatcher(this.mailSender, this.registry, new BackgroundThreads(false), queueCapacity, 20,
+                maxAttempts, initialBackoffMs, deadLetterCapacity);
+    }
+
+    private double deadLetters() {
+        return this.registry.get("telecentro.mail.dead.letters").gauge().value();
+    }
+}
@@ -0,0 +1,136 @@
+package com.lucasmoraist.register_telecentro.service;
+
+import com.lucasmoraist.register_telecentro.exceptions.RgRegistered;
+import com.lucasmoraist.register_telecentro.infra.concurrent.BackgroundThreads;
+import com.lucasmoraist.register_telecentro.model.Course;
+import com.lucasmoraist.register_telecentro.model.Person;
+import com.lucasmoraist.register_telecentro.repository.PersonRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RegistrationWriteBehindTest {
+
+    private final PersonRepository repository = mock(PersonRepository.class);
+    private RegistrationWriteBehind writeBehind;
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        if (this.writeBehind != null) {
+            this.writeBehind.stop();
+        }
+    }
+
+    @Test
+    void rejectsRegistrationAlreadyInTheSheet() throws Exception {
+        when(this.repository.isRgAndCourseDateAlreadyRegistered("123", "Segunda-feira 09:00 - 11:00")).thenReturn(true);
+        this.writeBehind = this.start();
+
+        assertThatThrownBy(() -> this.writeBehind.submit(person("123"))).isInstanceOf(RgRegistered.class);
+        verify(this.repository, never()).appendPersonData(anyList());
+    }
+
+    @Test
+    void holdsTheKeyWhileTheDuplicateCheckRuns() throws Exception {
+        CountDownLatch checking = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(this.repository.isRgAndCourseDateAlreadyRegistered(anyString(), anyString())).thenAnswer(invocation -> {
+            checking.countDown();
+            release.await();
+            return false;
+        });
+        when(this.repository.appendPersonData(anyList())).thenReturn(new int[]{2});
+        this.writeBehind = this.start();
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<CompletableFuture<Integer>> first = executor.submit(() -> this.writeBehind.submit(person("123")));
+            assertThat(checking.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> this.writeBehind.submit(person(" 123 "))).isInstanceOf(RgRegistered.class);
+
+            release.countDown();
+            assertThat(first.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS)).isEqualTo(2);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentSubmissionsOfTheSameRegistrationWriteOnce() throws Exception {
+        Set<String> written = ConcurrentHashMap.newKeySet();
+        AtomicInteger appends = new AtomicInteger();
+        when(this.repository.isRgAndCourseDateAlreadyRegistered(anyString(), anyString()))
+                .thenAnswer(invocation -> written.contains(invocation.getArgument(0, String.class)));
+        when(this.repository.appendPersonData(anyList())).thenAnswer(invocation -> {
+            List<Person> persons = invocation.getArgument(0);
+            persons.forEach(person -> written.add(person.getRg()));
+            appends.addAndGet(persons.size());
+            return new int[persons.size()];
+        });
+        this.writeBehind = this.start();
+
+        int threads = 16;
+        CountDownLatch go = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> outcomes = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                outcomes.add(executor.submit(() -> {
+                    go.await();
+                    try {
+                        this.writeBehind.submit(person("123")).get(5, TimeUnit.SECONDS);
+                        return true;
+                    } catch (RgRegistered e) {
+                        return false;
+                    }
+                }));
+            }
+            go.countDown();
+
+            int accepted = 0;
+            for (Future<Boolean> outcome : outcomes) {
+                accepted += outcome.get(10, TimeUnit.SECONDS) ? 1 : 0;
+            }
+            assertThat(accepted).isEqualTo(1);
+            assertThat(appends.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private RegistrationWriteBehind start() {
+        RegistrationWriteBehind started = new RegistrationWriteBehind(this.repository, new BackgroundThreads(false),
+                true, 100, 10, 50);
+        started.start();
+        return started;
+    }
+
+    private static Person person(String rg) {
+        Person person = new Person();
+        person.setRg(rg);
+        person.setName("Pessoa " + rg);
+        person.setCourse(new Course("Excel", "Segunda-feira 09:00 - 11:00"));
+        return person;
+    }
+}
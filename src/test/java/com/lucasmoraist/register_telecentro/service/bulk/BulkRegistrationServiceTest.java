@@ -0,0 +1,179 @@
+package com.lucasmoraist.register_telecentro.service.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lucasmoraist.register_telecentro.exceptions.AppendPartiallyFailed;
+import com.lucasmoraist.register_telecentro.model.Course;
+import com.lucasmoraist.register_telecentro.model.Person;
+import com.lucasmoraist.register_telecentro.model.dto.BulkRowResult;
+import com.lucasmoraist.register_telecentro.model.dto.BulkRowResult.Status;
+import com.lucasmoraist.register_telecentro.repository.PersonRepository;
+import com.lucasmoraist.register_telecentro.repository.impl.SessionSeats;
+import com.lucasmoraist.register_telecentro.service.CourseService;
+import com.lucasmoraist.register_telecentro.service.EmailService;
+import com.lucasmoraist.register_telecentro.service.InFlightRegistrations;
+import com.lucasmoraist.register_telecentro.service.RegistrationChecks;
+import com.lucasmoraist.register_telecentro.service.RegistrationWriteBehind;
+import com.lucasmoraist.register_telecentro.service.journal.RegistrationJournal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkRegistrationServiceTest {
+
+    private static final String SESSION = "Segunda-feira 09:00 - 11:00";
+    private static final String CSV_HEADER = "nameCourse,dateAndTime,name,rg,birthDate,age,address,email,phoneNumber,isConfirmed\n";
+
+    private final PersonRepository repository = mock(PersonRepository.class);
+    private final SessionSeats seats = mock(SessionSeats.class);
+    private final CourseService courseService = mock(CourseService.class);
+    private final RegistrationJournal journal = mock(RegistrationJournal.class);
+    private final InFlightRegistrations inFlight = new InFlightRegistrations();
+    private BulkRegistrationService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        when(this.courseService.isOffered(anyString(), anyString())).thenReturn(true);
+        when(this.seats.tryReserve(anyString(), anyString())).thenReturn(true);
+        when(this.repository.appendPersonData(anyList()))
+                .thenAnswer(invocation -> new int[invocation.getArgument(0, List.class).size()]);
+        RegistrationChecks checks = new RegistrationChecks(this.repository, this.journal, mock(RegistrationWriteBehind.class));
+        this.service = new BulkRegistrationService(this.repository, checks, this.seats, this.courseService, mock(EmailService.class),
+                this.inFlight, new ObjectMapper().findAndRegisterModules(), 500);
+    }
+
+    @Test
+    void rejectsJsonElementsThatAreNotObjectsAndKeepsGoing() throws IOException {
+        String body = "[" + json("1") + ", 5, null, [1, [2]], \"x\", " + json("2") + "]";
+
+        List<BulkRowResult> results = this.service.importJson(stream(body));
+
+        assertThat(results).extracting(BulkRowResult::line, BulkRowResult::status).containsExactly(
+                tuple(1, Status.SAVED),
+                tuple(2, Status.INVALID),
+                tuple(3, Status.INVALID),
+                tuple(4, Status.INVALID),
+                tuple(5, Status.INVALID),
+                tuple(6, Status.SAVED));
+    }
+
+    @Test
+    void reportsATruncatedJsonArray() throws IOException {
+        List<BulkRowResult> results = this.service.importJson(stream("[" + json("1") + ", "));
+
+        assertThat(results).extracting(BulkRowResult::status).containsExactly(Status.SAVED, Status.INVALID);
+    }
+
+    @Test
+    void rejectsARegistrationBeingSavedByAnotherRequest() throws IOException {
+        String key = InFlightRegistrations.key(person("1"));
+        assertThat(this.inFlight.claim(key)).isTrue();
+
+        List<BulkRowResult> results = this.service.importJson(stream("[" + json("1") + "]"));
+
+        assertThat(results).extracting(BulkRowResult::status).containsExactly(Status.DUPLICATE);
+        this.inFlight.release(key);
+    }
+
+    @Test
+    void releasesTheKeysOnceTheBatchIsWritten() throws IOException {
+        this.service.importJson(stream("[" + json("1") + "]"));
+
+        assertThat(this.inFlight.claim(InFlightRegistrations.key(person("1")))).isTrue();
+    }
+
+    @Test
+    void reportsAnInterruptedCsvImportAtTheLineThatFailed() throws IOException {
+        when(this.repository.isRgAndCourseDateAlreadyRegistered(eq("2"), anyString())).thenThrow(new IOException("Sheets is down"));
+        String body = CSV_HEADER
+                + "Excel," + SESSION + ",Pessoa 1,1,1990-01-01,34,Rua,p1@example.com,11,Não\n"
+                + "Excel," + SESSION + ",Pessoa 2,2,1990-01-01,34,Rua,p2@example.com,11,Não\n";
+
+        List<BulkRowResult> results = this.service.importCsv(stream(body));
+
+        assertThat(results).extracting(BulkRowResult::line, BulkRowResult::status).containsExactly(
+                tuple(2, Status.SAVED),
+                tuple(3, Status.INVALID));
+    }
+
+    @Test
+    void failsOnlyTheRowsOfTheShardsThatWereNotWritten() throws IOException {
+        when(this.repository.appendPersonData(anyList()))
+                .thenThrow(new AppendPartiallyFailed(new int[]{2, 0}, new IOException("Second shard is down")));
+
+        List<BulkRowResult> results = this.service.importJson(stream("[" + json("1") + ", " + json("2") + "]"));
+
+        assertThat(results).extracting(BulkRowResult::line, BulkRowResult::status).containsExactly(
+                tuple(1, Status.SAVED),
+                tuple(2, Status.FAILED));
+        verify(this.seats, times(1)).release("Excel", SESSION);
+    }
+
+    @Test
+    void rejectsARegistrationWaitingInTheJournal() throws IOException {
+        when(this.journal.isPending(InFlightRegistrations.key(person("1")))).thenReturn(true);
+
+        List<BulkRowResult> results = this.service.importJson(stream("[" + json("1") + ", " + json("2") + "]"));
+
+        assertThat(results).extracting(BulkRowResult::line, BulkRowResult::status).containsExactly(
+                tuple(1, Status.DUPLICATE),
+                tuple(2, Status.SAVED));
+    }
+
+    @Test
+    void acceptsACorrectedRowAfterARejectedOneWithTheSameKey() throws IOException {
+        when(this.seats.tryReserve(anyString(), anyString())).thenReturn(false, true);
+        when(this.courseService.isOffered(anyString(), anyString())).thenReturn(false, true);
+
+        List<BulkRowResult> results = this.service.importJson(stream("[" + json("1") + ", " + json("1") + ", " + json("1")
+                + ", " + json("1") + "]"));
+
+        assertThat(results).extracting(BulkRowResult::line, BulkRowResult::status).containsExactly(
+                tuple(1, Status.INVALID),
+                tuple(2, Status.FULL),
+                tuple(3, Status.SAVED),
+                tuple(4, Status.DUPLICATE));
+    }
+
+    @Test
+    void requiresTheSameFieldsAsASingleRegistration() throws IOException {
+        String body = "[{\"course\":{\"nameCourse\":\"Excel\",\"dateAndTime\":\"" + SESSION + "\"},\"rg\":\"1\"},"
+                + " {\"course\":{\"nameCourse\":\"Excel\"},\"name\":\"Pessoa 2\",\"rg\":\"2\"}]";
+
+        List<BulkRowResult> results = this.service.importJson(stream(body));
+
+        assertThat(results).extracting(BulkRowResult::line, BulkRowResult::status).containsExactly(
+                tuple(1, Status.SAVED),
+                tuple(2, Status.INVALID));
+    }
+
+    private static String json(String rg) {
+        return "{\"course\":{\"nameCourse\":\"Excel\",\"dateAndTime\":\"" + SESSION + "\"},\"name\":\"Pessoa " + rg
+                + "\",\"rg\":\"" + rg + "\",\"birthDate\":\"1990-01-01\",\"age\":34}";
+    }
+
+    private static Person person(String rg) {
+        Person person = new Person();
+        person.setRg(rg);
+        person.setCourse(new Course("Excel", SESSION));
+        return person;
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
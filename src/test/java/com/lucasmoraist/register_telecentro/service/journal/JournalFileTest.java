@@ -0,0 +1,89 @@
+package com.lucasmoraist.register_telecentro.service.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournalFileTest {
+
+    private static final int CAPACITY = 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reusesTheSpaceOfReplayedRecordsWhileNewOnesKeepComing() throws IOException {
+        Path path = this.directory.resolve("registrations.journal");
+        int appended = 0;
+        int replayed = 0;
+        try (JournalFile file = new JournalFile(path, CAPACITY)) {
+            // always one record behind, so the journal never drains and is never simply rewound
+            assertThat(file.append(payload(appended++))).isTrue();
+            for (int i = 0; i < 500; i++) {
+                assertThat(file.append(payload(appended++))).isTrue();
+
+                List<JournalFile.Entry> pending = file.pending(1);
+                assertThat(text(pending.get(0))).isEqualTo(text(replayed++));
+                file.commit(pending.get(0).end());
+                assertThat(file.isEmpty()).isFalse();
+            }
+            assertThat(file.usedBytes()).isLessThan(CAPACITY / 2);
+        }
+
+        try (JournalFile reopened = new JournalFile(path, CAPACITY)) {
+            assertThat(reopened.pending(Integer.MAX_VALUE)).extracting(JournalFileTest::text)
+                    .containsExactly(text(replayed));
+        }
+    }
+
+    @Test
+    void dropsATornRecordAtTheTailAndOverwritesIt() throws IOException {
+        Path path = this.directory.resolve("registrations.journal");
+        try (JournalFile file = new JournalFile(path, CAPACITY)) {
+            file.append(payload(0));
+            file.append(payload(1));
+        }
+        int secondPayload = JournalFile.HEADER_SIZE + 8 + payload(0).length + 8;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'#'}), secondPayload);
+        }
+
+        try (JournalFile file = new JournalFile(path, CAPACITY)) {
+            assertThat(file.pending(Integer.MAX_VALUE)).extracting(JournalFileTest::text).containsExactly(text(0));
+            assertThat(file.append(payload(2))).isTrue();
+        }
+        try (JournalFile file = new JournalFile(path, CAPACITY)) {
+            assertThat(file.pending(Integer.MAX_VALUE)).extracting(JournalFileTest::text)
+                    .containsExactly(text(0), text(2));
+        }
+    }
+
+    @Test
+    void rejectsARecordThatDoesNotFit() throws IOException {
+        try (JournalFile file = new JournalFile(this.directory.resolve("registrations.journal"), 64)) {
+            assertThat(file.append(new byte[64])).isFalse();
+            assertThat(file.isEmpty()).isTrue();
+        }
+    }
+
+    private static byte[] payload(int i) {
+        return text(i).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(int i) {
+        return "{\"record\":" + (1000 + i) + "}";
+    }
+
+    private static String text(JournalFile.Entry entry) {
+        return new String(entry.payload(), StandardCharsets.UTF_8);
+    }
+}
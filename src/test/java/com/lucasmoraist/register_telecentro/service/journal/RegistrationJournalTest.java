@@ -0,0 +1,140 @@
+package com.lucasmoraist.register_telecentro.service.journal;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lucasmoraist.register_telecentro.exceptions.AppendPartiallyFailed;
+import com.lucasmoraist.register_telecentro.infra.concurrent.BackgroundThreads;
+import com.lucasmoraist.register_telecentro.model.Course;
+import com.lucasmoraist.register_telecentro.model.Person;
+import com.lucasmoraist.register_telecentro.repository.PersonRepository;
+import com.lucasmoraist.register_telecentro.repository.impl.SessionSeats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RegistrationJournalTest {
+
+    private static final String SESSION = "Segunda-feira 09:00 - 11:00";
+
+    private final PersonRepository repository = mock(PersonRepository.class);
+    private final SessionSeats seats = mock(SessionSeats.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path directory;
+
+    private RegistrationJournal journal;
+
+    @AfterEach
+    void stop() throws InterruptedException, IOException {
+        if (this.journal != null) {
+            this.journal.stop();
+        }
+    }
+
+    @Test
+    void deadLettersARecordThatKeepsFailingAndReplaysTheOthers() throws Exception {
+        Set<String> written = ConcurrentHashMap.newKeySet();
+        when(this.repository.appendPersonData(anyList())).thenAnswer(invocation -> {
+            List<Person> persons = invocation.getArgument(0);
+            if (persons.stream().anyMatch(person -> "bad".equals(person.getRg()))) {
+                throw new IllegalArgumentException("Invalid registration");
+            }
+            persons.forEach(person -> written.add(person.getRg()));
+            return new int[persons.size()];
+        });
+        this.journal = this.start(3);
+
+        this.journal.append(person("1"));
+        this.journal.append(person("bad"));
+        this.journal.append(person("2"));
+
+        verify(this.seats, timeout(5000)).release("Excel", SESSION);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (written.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(written).containsExactlyInAnyOrder("1", "2");
+        List<String> deadLetters = Files.readAllLines(this.directory.resolve("registrations.dead-letter"));
+        assertThat(deadLetters).hasSize(1);
+        assertThat(this.objectMapper.readValue(deadLetters.get(0), Person.class).getRg()).isEqualTo("bad");
+
+        // the dead-lettered registration no longer holds its key
+        this.journal.append(person("bad"));
+    }
+
+    @Test
+    void keepsRetryingWhileSheetsIsDown() throws Exception {
+        when(this.repository.appendPersonData(anyList())).thenThrow(new IOException("Sheets is down"));
+        this.journal = this.start(2);
+
+        this.journal.append(person("1"));
+
+        verify(this.repository, timeout(5000).atLeast(4)).appendPersonData(anyList());
+        assertThat(this.directory.resolve("registrations.dead-letter")).doesNotExist();
+    }
+
+    @Test
+    void retriesOnlyTheRegistrationsOfTheShardsThatFailed() throws Exception {
+        CountDownLatch appended = new CountDownLatch(1);
+        List<List<String>> calls = new CopyOnWriteArrayList<>();
+        when(this.repository.appendPersonData(anyList())).thenAnswer(invocation -> {
+            List<Person> persons = invocation.getArgument(0);
+            calls.add(persons.stream().map(Person::getRg).toList());
+            if (calls.size() == 1) {
+                appended.await(5, TimeUnit.SECONDS);
+                throw new IOException("Sheets is down");
+            }
+            if (calls.size() == 2) {
+                int[] rows = new int[persons.size()];
+                rows[0] = 2;
+                throw new AppendPartiallyFailed(rows, new IOException("Second shard is down"));
+            }
+            return new int[persons.size()];
+        });
+        this.journal = this.start(3);
+
+        this.journal.append(person("1"));
+        this.journal.append(person("2"));
+        appended.countDown();
+
+        verify(this.repository, timeout(5000).times(3)).appendPersonData(anyList());
+        assertThat(calls.subList(1, 3)).containsExactly(List.of("1", "2"), List.of("2"));
+        verify(this.seats, never()).release("Excel", SESSION);
+    }
+
+    private RegistrationJournal start(int maxAttempts) throws IOException {
+        RegistrationJournal started = new RegistrationJournal(this.repository, this.seats, new BackgroundThreads(false),
+                this.objectMapper, new SimpleMeterRegistry(), true,
+                this.directory.resolve("registrations.journal").toString(), 64 * 1024, 10, 10, maxAttempts,
+                this.directory.resolve("registrations.dead-letter").toString());
+        started.start();
+        return started;
+    }
+
+    private static Person person(String rg) {
+        Person person = new Person();
+        person.setRg(rg);
+        person.setName("Pessoa " + rg);
+        person.setCourse(new Course("Excel", SESSION));
+        return person;
+    }
+}
@@ -0,0 +1,56 @@
+package com.lucasmoraist.register_telecentro.service.template;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MailTemplateTest {
+
+    @Test
+    void rendersLiteralsAndPlaceholders() {
+        MailTemplate template = MailTemplate.parse("Olá, {{ name }}! Curso de {{courseName}}.");
+
+        assertThat(template.render(Map.of("name", "Maria", "courseName", "Excel"))).isEqualTo("Olá, Maria! Curso de Excel.");
+    }
+
+    @Test
+    void rendersTemplatesWithoutPlaceholdersOrWithAdjacentOnes() {
+        assertThat(MailTemplate.parse("").render(Map.of())).isEmpty();
+        assertThat(MailTemplate.parse("no placeholders").render(Map.of())).isEqualTo("no placeholders");
+        assertThat(MailTemplate.parse("{{a}}{{b}}").render(Map.of("a", "1", "b", "2"))).isEqualTo("12");
+    }
+
+    @Test
+    void rejectsAnUnclosedPlaceholder() {
+        assertThatThrownBy(() -> MailTemplate.parse("Olá, {{name}}! Curso de {{courseName"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("index 24");
+    }
+
+    @Test
+    void rejectsAMissingValue() {
+        MailTemplate template = MailTemplate.parse("Olá, {{name}}!");
+
+        assertThatThrownBy(() -> template.render(Map.of("courseName", "Excel")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("name");
+    }
+
+    @Test
+    void escapesTheValuesOfHtmlTemplates() {
+        MailTemplate template = MailTemplate.parseHtml("<p>Olá, {{name}}!</p>");
+
+        assertThat(template.render(Map.of("name", "<script>alert('x')</script> & \"Maria\"")))
+                .isEqualTo("<p>Olá, &lt;script&gt;alert(&#39;x&#39;)&lt;/script&gt; &amp; &quot;Maria&quot;!</p>");
+    }
+
+    @Test
+    void keepsTheValuesOfPlainTextTemplates() {
+        MailTemplate template = MailTemplate.parse("Curso de {{courseName}}");
+
+        assertThat(template.render(Map.of("courseName", "Word & Excel"))).isEqualTo("Curso de Word & Excel");
+    }
+}
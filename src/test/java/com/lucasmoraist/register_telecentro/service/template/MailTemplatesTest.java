@@ -0,0 +1,52 @@
+package com.lucasmoraist.register_telecentro.service.template;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MailTemplatesTest {
+
+    @Test
+    void escapesTheBodyButNotTheSubject() {
+        RenderedMail mail = new MailTemplates().render(MailTemplateType.CONFIRMATION, Map.of(
+                "name", "<b>Maria</b>",
+                "courseName", "Word & Excel",
+                "dateAndTime", "Segunda-feira 09:00 - 11:00",
+                "sentAt", "20/08/2024 10:30"
+        ));
+
+        assertThat(mail.subject()).isEqualTo("Inscrição no curso de Word & Excel feita com sucesso!");
+        assertThat(mail.htmlBody())
+                .contains("<strong>Word &amp; Excel</strong>")
+                .contains("<strong>Segunda-feira 09:00 - 11:00</strong>")
+                .doesNotContain("Word & Excel");
+    }
+
+    @Test
+    void rendersTheWaitlistAndReminderTemplates() {
+        MailTemplates templates = new MailTemplates();
+        Map<String, String> values = Map.of(
+                "name", "Maria",
+                "courseName", "Excel",
+                "dateAndTime", "Terça-feira 09:00 - 11:00",
+                "sentAt", "20/08/2024 10:30"
+        );
+
+        RenderedMail waitlist = templates.render(MailTemplateType.WAITLIST, values);
+        assertThat(waitlist.subject()).isEqualTo("Você está na lista de espera do curso de Excel");
+        assertThat(waitlist.htmlBody())
+                .contains("Olá, Maria!")
+                .contains("A turma de <strong>Terça-feira 09:00 - 11:00</strong> está completa")
+                .contains("Data de envio: 20/08/2024 10:30")
+                .doesNotContain("{{");
+
+        RenderedMail reminder = templates.render(MailTemplateType.REMINDER, values);
+        assertThat(reminder.subject()).isEqualTo("Lembrete: sua aula do curso de Excel está chegando");
+        assertThat(reminder.htmlBody())
+                .contains("<h2>Curso de <strong>Excel</strong></h2>")
+                .contains("sua aula está marcada para <strong>Terça-feira 09:00 - 11:00</strong>")
+                .doesNotContain("{{");
+    }
+}